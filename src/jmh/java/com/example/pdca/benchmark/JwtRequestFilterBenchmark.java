@@ -0,0 +1,126 @@
+package com.example.pdca.benchmark;
+
+import com.example.pdca.model.User;
+import com.example.pdca.security.AccountVersionRegistry;
+import com.example.pdca.security.JwtRequestFilter;
+import com.example.pdca.util.JwtTokenUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT 请求过滤器基准
+ * 运行完整的 doFilter：cacheHit 每次携带同一个已缓存的令牌，cacheMiss 轮流携带大量不同令牌且缓存上限为 1，
+ * withoutCache 关闭缓存（jwt.cache.maximum-size=0），每次请求都做 HS512 验签。
+ * 账号版本校验替换为恒真，只比较令牌处理本身的开销
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtRequestFilterBenchmark {
+
+    private static final int MISS_TOKENS = 1024;
+
+    private JwtRequestFilter cachedFilter;
+
+    private JwtRequestFilter missFilter;
+
+    private JwtRequestFilter uncachedFilter;
+
+    private String token;
+
+    private String[] missTokens;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        JwtTokenUtil cached = newJwtTokenUtil(10000);
+        JwtTokenUtil miss = newJwtTokenUtil(1);
+        cachedFilter = newFilter(cached);
+        missFilter = newFilter(miss);
+        uncachedFilter = newFilter(newJwtTokenUtil(0));
+
+        token = cached.generateToken(newUser(1L), 0L);
+        missTokens = new String[MISS_TOKENS];
+        for (int i = 0; i < MISS_TOKENS; i++) {
+            missTokens[i] = miss.generateToken(newUser(i + 1L), 0L);
+        }
+    }
+
+    @Benchmark
+    public Object cacheHit() throws ServletException, IOException {
+        return filter(cachedFilter, token);
+    }
+
+    @Benchmark
+    public Object cacheMiss() throws ServletException, IOException {
+        next = (next + 1) % MISS_TOKENS;
+        return filter(missFilter, missTokens[next]);
+    }
+
+    @Benchmark
+    public Object withoutCache() throws ServletException, IOException {
+        return filter(uncachedFilter, token);
+    }
+
+    private Object filter(JwtRequestFilter filter, String bearerToken) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/plans/my-plans");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + bearerToken);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static JwtTokenUtil newJwtTokenUtil(long cacheMaximumSize) {
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil();
+        ReflectionTestUtils.setField(jwtTokenUtil, "secret", "pdcaProjectSecretKey");
+        ReflectionTestUtils.setField(jwtTokenUtil, "expiration", 86400000L);
+        ReflectionTestUtils.setField(jwtTokenUtil, "cacheMaximumSize", cacheMaximumSize);
+        jwtTokenUtil.initTokenCache();
+        return jwtTokenUtil;
+    }
+
+    private static JwtRequestFilter newFilter(JwtTokenUtil jwtTokenUtil) {
+        JwtRequestFilter filter = new JwtRequestFilter();
+        ReflectionTestUtils.setField(filter, "jwtTokenUtil", jwtTokenUtil);
+        ReflectionTestUtils.setField(filter, "accountVersionRegistry", new AccountVersionRegistry() {
+            @Override
+            public boolean isCurrent(Long userId, long version) {
+                return true;
+            }
+        });
+        return filter;
+    }
+
+    private static User newUser(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("bench-user-" + id);
+        user.setRole(User.UserRole.USER);
+        return user;
+    }
+}
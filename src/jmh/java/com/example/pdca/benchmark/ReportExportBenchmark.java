@@ -0,0 +1,96 @@
+package com.example.pdca.benchmark;
+
+import com.example.pdca.config.ReportPdfProperties;
+import com.example.pdca.model.Report;
+import com.example.pdca.util.ExcelReportGenerator;
+import com.example.pdca.util.PDFReportGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PDF / Excel 报告导出基准
+ * pdfSharedFont 为当前实现（字体程序启动时加载一次），pdfFontLoadedPerExport 每次导出重新加载字体程序，
+ * 对应改造前的做法；配合 -prof gc 查看每次导出的分配字节数（gc.alloc.rate.norm）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportExportBenchmark {
+
+    private ReportPdfProperties pdfProperties;
+
+    private PDFReportGenerator pdfReportGenerator;
+
+    private ExcelReportGenerator excelReportGenerator;
+
+    private Report report;
+
+    @Setup
+    public void setUp() throws IOException {
+        pdfProperties = new ReportPdfProperties();
+        pdfReportGenerator = newPdfReportGenerator();
+        excelReportGenerator = new ExcelReportGenerator();
+
+        // 各分析字段按列长度上限填满中文文本
+        report = new Report();
+        report.setTitle("基准计划 - PDCA循环总结报告");
+        report.setSummary(chineseText(500));
+        report.setPlanningAnalysis(chineseText(2000));
+        report.setDoingAnalysis(chineseText(2000));
+        report.setCheckingAnalysis(chineseText(2000));
+        report.setActingAnalysis(chineseText(2000));
+    }
+
+    @Benchmark
+    public byte[] pdfSharedFont() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        pdfReportGenerator.generatePDF(report, out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] pdfFontLoadedPerExport() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        newPdfReportGenerator().generatePDF(report, out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] excel() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        excelReportGenerator.generateExcel(report, out);
+        return out.toByteArray();
+    }
+
+    private PDFReportGenerator newPdfReportGenerator() throws IOException {
+        PDFReportGenerator generator = new PDFReportGenerator();
+        ReflectionTestUtils.setField(generator, "properties", pdfProperties);
+        generator.init();
+        return generator;
+    }
+
+    private static String chineseText(int length) {
+        String line = "计划按期推进，执行记录完整，检查发现的问题已在行动阶段整改。\n";
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) {
+            text.append(line);
+        }
+        return text.substring(0, length);
+    }
+}
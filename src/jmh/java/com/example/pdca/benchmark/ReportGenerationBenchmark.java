@@ -0,0 +1,193 @@
+package com.example.pdca.benchmark;
+
+import com.example.pdca.PdcaApplication;
+import com.example.pdca.model.Act;
+import com.example.pdca.model.ActRecord;
+import com.example.pdca.model.Check;
+import com.example.pdca.model.CheckResult;
+import com.example.pdca.model.DoPhase;
+import com.example.pdca.model.DoRecord;
+import com.example.pdca.model.Plan;
+import com.example.pdca.model.Task;
+import com.example.pdca.model.User;
+import com.example.pdca.repository.ActRecordRepository;
+import com.example.pdca.repository.ActRepository;
+import com.example.pdca.repository.CheckRepository;
+import com.example.pdca.repository.CheckResultRepository;
+import com.example.pdca.repository.DoRecordRepository;
+import com.example.pdca.repository.DoRepository;
+import com.example.pdca.repository.PlanRepository;
+import com.example.pdca.repository.TaskRepository;
+import com.example.pdca.repository.UserRepository;
+import com.example.pdca.service.ReportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * PDCA 报告生成基准
+ * 使用 test profile（H2 内存库）启动完整的应用上下文，准备一个计划：records 个已评分任务，
+ * 执行、检查、行动阶段各一个且各有 records 条记录。每次调用在回滚的事务中生成报告，计划可以反复生成
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportGenerationBenchmark {
+
+    private static final int SEED_CHUNK = 1000;
+
+    @Param({"10", "1000", "50000"})
+    private int records;
+
+    private ConfigurableApplicationContext context;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ReportService reportService;
+
+    private User creator;
+
+    private Long planId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(PdcaApplication.class)
+            .profiles("test")
+            .properties("report.pregeneration.enabled=false",
+                "spring.jpa.show-sql=false",
+                "query-stats.enabled=false",
+                "logging.level.root=WARN")
+            .run();
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        reportService = context.getBean(ReportService.class);
+        creator = context.getBean(UserRepository.class).findByUsername("admin")
+            .orElseThrow(IllegalStateException::new);
+        seed();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int generatePDCAReport() {
+        Integer length = transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return reportService.generatePDCAReport(planId, creator).getDoingAnalysis().length();
+        });
+        return length != null ? length : 0;
+    }
+
+    private void seed() {
+        LocalDateTime now = LocalDateTime.now();
+        Plan plan = new Plan();
+        plan.setTitle("基准计划");
+        plan.setDescription("基准计划");
+        plan.setPriority(Plan.PriorityLevel.MEDIUM);
+        plan.setStatus(Plan.PlanStatus.IN_PROGRESS);
+        plan.setStartTime(now);
+        plan.setEndTime(now.plusDays(30));
+        plan.setCreator(creator);
+        Plan savedPlan = context.getBean(PlanRepository.class).save(plan);
+        planId = savedPlan.getId();
+
+        DoPhase doPhase = new DoPhase();
+        doPhase.setTitle("执行");
+        doPhase.setDescription("执行");
+        doPhase.setStartTime(now);
+        doPhase.setPlan(savedPlan);
+        doPhase.setExecutor(creator);
+        DoPhase savedDoPhase = context.getBean(DoRepository.class).save(doPhase);
+
+        Check check = new Check();
+        check.setTitle("检查");
+        check.setDescription("检查");
+        check.setStartTime(now);
+        check.setDoPhase(savedDoPhase);
+        check.setChecker(creator);
+        Check savedCheck = context.getBean(CheckRepository.class).save(check);
+
+        Act act = new Act();
+        act.setTitle("处理");
+        act.setDescription("处理");
+        act.setStartTime(now);
+        act.setCheckPhase(savedCheck);
+        act.setExecutor(creator);
+        Act savedAct = context.getBean(ActRepository.class).save(act);
+
+        saveInChunks(context.getBean(TaskRepository.class), i -> {
+            Task task = new Task();
+            task.setName("基准任务-" + i);
+            task.setStartTime(now);
+            task.setEndTime(now.plusDays(7));
+            task.setPlan(savedPlan);
+            task.setScore(60 + i % 40);
+            task.setEvaluation("按期完成");
+            return task;
+        });
+        saveInChunks(context.getBean(DoRecordRepository.class), i -> {
+            DoRecord record = new DoRecord();
+            record.setContent("执行记录-" + i);
+            record.setType(DoRecord.RecordType.values()[i % DoRecord.RecordType.values().length]);
+            record.setDoPhase(savedDoPhase);
+            record.setRecorder(creator);
+            return record;
+        });
+        saveInChunks(context.getBean(CheckResultRepository.class), i -> {
+            CheckResult result = new CheckResult();
+            result.setContent("检查结果-" + i);
+            result.setType(CheckResult.ResultType.values()[i % CheckResult.ResultType.values().length]);
+            result.setCheckPhase(savedCheck);
+            result.setRecorder(creator);
+            return result;
+        });
+        saveInChunks(context.getBean(ActRecordRepository.class), i -> {
+            ActRecord record = new ActRecord();
+            record.setContent("处理记录-" + i);
+            record.setType(ActRecord.RecordType.values()[i % ActRecord.RecordType.values().length]);
+            record.setActPhase(savedAct);
+            record.setRecorder(creator);
+            return record;
+        });
+    }
+
+    /**
+     * 分批写入，每批一个事务，持久化上下文不会随记录数增长
+     */
+    private <T> void saveInChunks(JpaRepository<T, Long> repository, IntFunction<T> factory) {
+        for (int start = 0; start < records; start += SEED_CHUNK) {
+            int end = Math.min(start + SEED_CHUNK, records);
+            int from = start;
+            transactionTemplate.executeWithoutResult(status -> {
+                List<T> chunk = new ArrayList<>(end - from);
+                for (int i = from; i < end; i++) {
+                    chunk.add(factory.apply(i));
+                }
+                repository.saveAll(chunk);
+            });
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.pdca.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 操作日志异步写入配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "action-log.write-behind")
+public class ActionLogWriterProperties {
+
+    /** 是否在业务事务提交后异步批量写入操作日志，关闭时在业务事务中同步写入 */
+    private boolean enabled = true;
+
+    /** 待写入日志的缓冲区容量 */
+    private int capacity = 4096;
+
+    /** 每批写入的日志数上限 */
+    private int batchSize = 100;
+
+    /** 缓冲区不足一批时最多等待该时间后写入 */
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    /** 缓冲区已满时提交方等待空位的最长时间，超时后由提交方自己写入 */
+    private Duration maxWait = Duration.ofMillis(50);
+
+    /** 应用关闭时写完剩余日志的最长时间 */
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+}
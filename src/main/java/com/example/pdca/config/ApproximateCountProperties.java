@@ -0,0 +1,25 @@
+package com.example.pdca.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 分页近似总数缓存配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "pagination.approximate-count")
+public class ApproximateCountProperties {
+
+    /** 写入后超过该时间的总数在下次读取时于后台刷新，读取方先拿到旧值 */
+    private Duration refreshAfter = Duration.ofMinutes(1);
+
+    /** 超过该时间未被读取的总数被移除 */
+    private Duration expireAfterAccess = Duration.ofMinutes(30);
+
+    /** 最多缓存的查询条件数 */
+    private long maximumSize = 10000;
+}
@@ -0,0 +1,48 @@
+package com.example.pdca.config;
+
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 异步任务线程池配置
+ */
+@Configuration
+public class AsyncConfig {
+
+    public static final String REPORT_TASK_EXECUTOR = "reportTaskExecutor";
+
+    /**
+     * 应用默认线程池，供 MVC 异步请求（如报告导出流）和未指定线程池的 @Async 使用
+     * 声明了其他线程池后 Spring Boot 不再自动创建该线程池，因此在这里显式声明，仍使用 spring.task.execution 配置
+     */
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+        AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    @Primary
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * 报告生成线程池
+     * 线程数和队列都有上限，队列满时抛出 TaskRejectedException，由调用方转换为 503
+     */
+    @Bean(name = REPORT_TASK_EXECUTOR)
+    public ThreadPoolTaskExecutor reportTaskExecutor(ReportJobProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getCorePoolSize());
+        executor.setMaxPoolSize(properties.getMaxPoolSize());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("report-job-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -1,12 +1,19 @@
 package com.example.pdca.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * 缓存配置类
  * 配置应用程序的缓存策略
@@ -15,19 +22,32 @@ import org.springframework.context.annotation.Configuration;
 @EnableCaching
 public class CacheConfig extends CachingConfigurerSupport {
 
+    public static final String[] CACHE_NAMES = {
+        // 用户、计划和任务不在这里缓存脱离会话的实体，由 Hibernate 二级缓存（user、plan、plan-tasks、task 区域）负责
+        "user_plans",      // 用户计划缓存
+        "plan_details"     // 计划详情缓存
+    };
+
+    @Autowired
+    private CacheSpecProperties cacheSpecProperties;
+
     /**
      * 配置缓存管理器
-     * 使用本地内存缓存
+     * 每个缓存是独立的 Caffeine 实例：按规格限制容量和过期时间，
+     * 容量满时按 W-TinyLFU 淘汰，并记录命中、未命中、淘汰和加载耗时统计；
+     * 外层包装为事务感知代理，事务内的写入和清除在提交后才生效，回滚时不会影响缓存
      */
     @Bean
     @Override
     public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager(
-            "users",           // 用户缓存
-            "plans",           // 计划缓存
-            "tasks",           // 任务缓存
-            "user_plans",      // 用户计划缓存
-            "plan_details"     // 计划详情缓存
-        );
+        List<CaffeineCache> caches = new ArrayList<>();
+        for (String cacheName : CACHE_NAMES) {
+            caches.add(new CaffeineCache(cacheName,
+                Caffeine.from(cacheSpecProperties.specFor(cacheName)).recordStats().build()));
+        }
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(caches);
+        cacheManager.initializeCaches();
+        return new TransactionAwareCacheManagerProxy(cacheManager);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,33 @@
+package com.example.pdca.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 缓存规格配置
+ * 规格使用 Caffeine 的 spec 语法，例如 maximumSize=1000,expireAfterWrite=10m
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cache")
+public class CacheSpecProperties {
+
+    /** 未单独配置的缓存使用的默认规格 */
+    private String defaultSpec = "maximumSize=1000,expireAfterWrite=10m";
+
+    /** 按缓存名称配置的规格 */
+    private Map<String, String> specs = new LinkedHashMap<>();
+
+    /**
+     * 获取指定缓存的规格
+     * @param cacheName 缓存名称
+     * @return Caffeine 规格字符串
+     */
+    public String specFor(String cacheName) {
+        return specs.getOrDefault(cacheName, defaultSpec);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.pdca.config;
+
+import com.example.pdca.util.SnowflakeIdGenerator;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 主键生成器配置
+ * 生成器由 Hibernate 创建，节点号通过 Hibernate 配置项传入
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer idGeneratorCustomizer(IdGeneratorProperties properties) {
+        return hibernateProperties -> hibernateProperties.put(SnowflakeIdGenerator.NODE_ID_SETTING, properties.getNodeId());
+    }
+}
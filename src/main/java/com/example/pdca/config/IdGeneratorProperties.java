@@ -0,0 +1,20 @@
+package com.example.pdca.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 主键生成器配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "id-generator")
+public class IdGeneratorProperties {
+
+    /**
+     * 节点号（0-31），同时运行的每个实例必须不同，否则会生成重复主键；
+     * 默认值 0 只适用于单实例部署，多实例部署时必须为每个实例单独配置
+     */
+    private int nodeId = 0;
+}
@@ -1,5 +1,6 @@
 package com.example.pdca.config;
 
+import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
 import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
@@ -27,4 +28,17 @@ public class JacksonConfig {
             builder.deserializers(new LocalDateTimeDeserializer(DateTimeFormatter.ofPattern(dateTimeFormat)));
         };
     }
-} 
\ No newline at end of file
+
+    /**
+     * 关闭 OSIV 后，序列化时不能再加载懒加载关联
+     * 未初始化的关联只输出 ID，由接口的实体图决定哪些关联完整输出
+     */
+    @Bean
+    public Hibernate5Module hibernate5Module() {
+        Hibernate5Module module = new Hibernate5Module();
+        module.enable(Hibernate5Module.Feature.SERIALIZE_IDENTIFIER_FOR_LAZY_NOT_LOADED_OBJECTS);
+        // Plan.creatorUsername 等 @Transient 计算属性仍需输出
+        module.disable(Hibernate5Module.Feature.USE_TRANSIENT_ANNOTATION);
+        return module;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.pdca.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 日志切面配置
+ * 调用日志按目标类的日志级别输出（DEBUG），各包级别通过 logging.level 调整
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "logging.aspect")
+public class LoggingAspectProperties {
+
+    /** 是否启用调用日志 */
+    private boolean enabled = true;
+
+    /** 是否记录参数 */
+    private boolean logArgs = true;
+
+    /** 是否记录返回值摘要 */
+    private boolean logResult = true;
+
+    /** 单个参数或返回值摘要的最大长度 */
+    private int maxLength = 200;
+
+    /** 默认采样率，取值 0~1 */
+    private double sampleRate = 1.0;
+
+    /** 按包名前缀配置的采样率，最长前缀优先 */
+    private Map<String, Double> sampleRates = new LinkedHashMap<>();
+
+    /** 需要脱敏的参数名或字段名（不区分大小写） */
+    private Set<String> redactedNames = new HashSet<>(Arrays.asList("password", "token", "secret"));
+}
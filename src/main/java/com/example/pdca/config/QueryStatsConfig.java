@@ -0,0 +1,57 @@
+package com.example.pdca.config;
+
+import com.example.pdca.util.QueryCountInspector;
+import com.example.pdca.util.QueryStatsDataSource;
+import com.example.pdca.util.QueryStatsFilter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * 请求级 SQL 统计配置
+ * 语句数由 Hibernate 语句检查器统计，执行耗时和读取行数由包装后的数据源统计，过滤器负责开启统计范围并输出结果。
+ * 默认关闭，设置 query-stats.enabled=true 后才注册
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "query-stats", name = "enabled")
+public class QueryStatsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCountInspectorCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCountInspector());
+    }
+
+    /**
+     * 包装连接池数据源，static 方法避免提前初始化配置类
+     */
+    @Bean
+    public static BeanPostProcessor queryStatsDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof QueryStatsDataSource)) {
+                    return new QueryStatsDataSource((DataSource) bean);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * 排在安全过滤器之前，认证过程中的查询也计入请求
+     */
+    @Bean
+    public FilterRegistrationBean<QueryStatsFilter> queryStatsFilter(QueryStatsProperties properties) {
+        FilterRegistrationBean<QueryStatsFilter> registration = new FilterRegistrationBean<>(new QueryStatsFilter(properties));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.pdca.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 请求级 SQL 统计配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "query-stats")
+public class QueryStatsProperties {
+
+    /** 是否统计每个请求的 SQL 语句数、读取行数和数据库耗时，并通过 Server-Timing 响应头返回；默认关闭 */
+    private boolean enabled = false;
+
+    /** 同一请求中只有参数不同的语句执行次数达到该值时记录告警日志 */
+    private int repeatThreshold = 3;
+}
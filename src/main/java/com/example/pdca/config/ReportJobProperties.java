@@ -0,0 +1,34 @@
+package com.example.pdca.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 报告异步生成任务配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "report.job")
+public class ReportJobProperties {
+
+    /** 工作线程池核心线程数 */
+    private int corePoolSize = 2;
+
+    /** 工作线程池最大线程数 */
+    private int maxPoolSize = 4;
+
+    /** 等待队列容量，队列满时拒绝新任务 */
+    private int queueCapacity = 50;
+
+    /** 每个用户同时排队或执行中的任务数上限 */
+    private int maxActivePerUser = 2;
+
+    /** 每个阶段章节最多列出的最近记录条数，其余记录只计入统计 */
+    private int sectionRecordLimit = 50;
+
+    /** 已结束任务的保留时间，过期后不再可查询 */
+    private Duration retention = Duration.ofHours(1);
+}
@@ -0,0 +1,23 @@
+package com.example.pdca.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * PDF 报告字体配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "report.pdf")
+public class ReportPdfProperties {
+
+    /**
+     * 字体：iText 内置 CJK 字体名（如 STSong-Light），或 TTF/OTF 字体文件路径
+     * 内置字体每个文档都要重新解析 CMap，导出量大时建议改用字体文件
+     */
+    private String font = "STSong-Light";
+
+    /** 内置 CJK 字体使用的 CMap 编码；字体文件固定使用 Identity-H 并按子集嵌入 */
+    private String fontEncoding = "UniGB-UCS2-H";
+}
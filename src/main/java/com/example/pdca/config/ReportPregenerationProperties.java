@@ -0,0 +1,33 @@
+package com.example.pdca.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * PDCA 循环报告预生成配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "report.pregeneration")
+public class ReportPregenerationProperties {
+
+    /** 是否启用报告预生成 */
+    private boolean enabled = true;
+
+    /** 低峰时段，格式为 HH:mm-HH:mm，可跨零点，开始与结束相同表示全天；只在这些时段内开始新的批次 */
+    private List<String> windows = new ArrayList<>(Collections.singletonList("01:00-05:00"));
+
+    /** 每批查询的计划数 */
+    private int batchSize = 20;
+
+    /** 同时生成的报告数，每个报告生成期间占用一个数据库连接 */
+    private int parallelism = 2;
+
+    /** 为在线请求保留的连接数，连接池空闲连接不足时推迟到下一次调度 */
+    private int reservedConnections = 4;
+}
@@ -0,0 +1,28 @@
+package com.example.pdca.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 导出文档渲染隔离配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "report.render-bulkhead")
+public class ReportRenderBulkheadProperties {
+
+    /** 同时进行的渲染数上限 */
+    private int maxConcurrent = 4;
+
+    /** 等待渲染名额的请求数上限，超出时立即返回 429 */
+    private int maxWaiting = 8;
+
+    /** 等待渲染名额的最长时间，超时返回 503 */
+    private Duration maxWait = Duration.ofSeconds(3);
+
+    /** 拒绝时通过 Retry-After 建议客户端等待的时间 */
+    private Duration retryAfter = Duration.ofSeconds(10);
+}
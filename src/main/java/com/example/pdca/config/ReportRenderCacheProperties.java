@@ -0,0 +1,31 @@
+package com.example.pdca.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Paths;
+
+/**
+ * 导出文档渲染缓存配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "report.render-cache")
+public class ReportRenderCacheProperties {
+
+    /** 是否启用渲染缓存，关闭后每次导出都重新渲染 */
+    private boolean enabled = true;
+
+    /** 内存层总容量（字节） */
+    private long memoryMaxBytes = 32L * 1024 * 1024;
+
+    /** 单个文档进入内存层的大小上限（字节），更大的文档只保存在磁盘层 */
+    private long memoryMaxEntryBytes = 1024L * 1024;
+
+    /** 磁盘层目录，启动时清空其中的缓存文件 */
+    private String diskDirectory = Paths.get(System.getProperty("java.io.tmpdir"), "pdca-report-cache").toString();
+
+    /** 磁盘层总容量（字节） */
+    private long diskMaxBytes = 512L * 1024 * 1024;
+}
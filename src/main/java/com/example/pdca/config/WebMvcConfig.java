@@ -1,16 +1,29 @@
 package com.example.pdca.config;
 
+import com.example.pdca.security.CurrentUserArgumentResolver;
+import com.example.pdca.util.LatencyMetricsInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 /**
  * Web MVC 配置
- * 配置跨域资源共享（CORS）
+ * 配置跨域资源共享（CORS）、拦截器和控制器参数解析
  */
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    @Autowired
+    private CurrentUserArgumentResolver currentUserArgumentResolver;
+
+    @Autowired
+    private LatencyMetricsInterceptor latencyMetricsInterceptor;
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
@@ -20,4 +33,14 @@ public class WebMvcConfig implements WebMvcConfigurer {
             .allowCredentials(true)
             .maxAge(3600);
     }
-} 
\ No newline at end of file
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(latencyMetricsInterceptor).addPathPatterns("/api/**");
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(currentUserArgumentResolver);
+    }
+}
\ No newline at end of file
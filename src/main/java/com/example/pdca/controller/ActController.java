@@ -2,18 +2,18 @@ package com.example.pdca.controller;
 
 import com.example.pdca.dto.ActDTO;
 import com.example.pdca.dto.ActRecordDTO;
+import com.example.pdca.dto.CountMode;
 import com.example.pdca.model.Act;
 import com.example.pdca.model.User;
 import com.example.pdca.service.ActService;
-import com.example.pdca.service.UserService;
+import com.example.pdca.security.CurrentUser;
 import io.swagger.annotations.*;
+import springfox.documentation.annotations.ApiIgnore;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
@@ -32,9 +32,6 @@ public class ActController {
     @Autowired
     private ActService actService;
 
-    @Autowired
-    private UserService userService;
-
     @PostMapping
     @ApiOperation("创建行动阶段")
     @ApiResponses({
@@ -43,11 +40,8 @@ public class ActController {
         @ApiResponse(code = 401, message = "未授权")
     })
     public ResponseEntity<Act> createActPhase(
-        @Valid @RequestBody ActDTO actDTO) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User creator = userService.findByUsername(username);
-
+        @Valid @RequestBody ActDTO actDTO,
+        @ApiIgnore @CurrentUser User creator) {
         Act createdActPhase = actService.createAct(actDTO, creator);
         return ResponseEntity.ok(createdActPhase);
     }
@@ -76,11 +70,8 @@ public class ActController {
     })
     public ResponseEntity<Act> addActRecord(
         @PathVariable Long actPhaseId, 
-        @Valid @RequestBody ActRecordDTO actRecordDTO) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User recorder = userService.findByUsername(username);
-
+        @Valid @RequestBody ActRecordDTO actRecordDTO,
+        @ApiIgnore @CurrentUser User recorder) {
         actRecordDTO.setActId(actPhaseId);
         Act updatedActPhase = actService.addActRecord(actRecordDTO, recorder);
         return ResponseEntity.ok(updatedActPhase);
@@ -109,30 +100,23 @@ public class ActController {
     }
 
     @GetMapping("/my-act-phases")
-    @ApiOperation(value = "获取我的行动阶段分页列表", notes = "分页获取当前用户相关的所有行动阶段")
+    @ApiOperation(value = "获取我的行动阶段分页列表", notes = "分页获取当前用户相关的所有行动阶段；count=NONE 时不返回总数和总页数")
     @ApiResponses({
         @ApiResponse(code = 200, message = "获取成功")
     })
-    public ResponseEntity<Page<ActDTO>> getMyActPhases(
+    public ResponseEntity<Slice<ActDTO>> getMyActPhases(
         @ApiParam(value = "页码", defaultValue = "0") @RequestParam(defaultValue = "0") int page,
         @ApiParam(value = "每页大小", defaultValue = "10") @RequestParam(defaultValue = "10") int size,
-        @ApiParam(value = "行动状态", required = false) @RequestParam(required = false) Act.ActStatus status) {
-        
-        // 获取当前登录用户
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User currentUser = userService.findByUsername(username);
+        @ApiParam(value = "行动状态", required = false) @RequestParam(required = false) Act.ActStatus status,
+        @ApiParam(value = "总数统计方式：EXACT 精确总数，APPROXIMATE 缓存的近似总数，NONE 不统计总数只返回是否有下一页", defaultValue = "EXACT")
+        @RequestParam(defaultValue = "EXACT") CountMode count,
+        @ApiIgnore @CurrentUser(reference = true) User currentUser) {
         
-        Sort sort = Sort.by(Sort.Direction.DESC, "createTime");
+        // 行动阶段没有创建时间字段，按ID倒序即按创建顺序倒序
+        Sort sort = Sort.by(Sort.Direction.DESC, "id");
         PageRequest pageRequest = PageRequest.of(page, size, sort);
         
-        Page<Act> actPhases;
-        if (status != null) {
-            actPhases = actService.getPagedActPhasesByUserAndStatus(currentUser, status, pageRequest);
-        } else {
-            actPhases = actService.getPagedActPhasesByUser(currentUser, pageRequest);
-        }
-        
+        Slice<Act> actPhases = actService.getActSliceByUser(currentUser, status, pageRequest, count);
         return ResponseEntity.ok(actPhases.map(this::convertToDTO));
     }
 
@@ -2,11 +2,14 @@ package com.example.pdca.controller;
 
 import com.example.pdca.dto.ActionLogDTO;
 import com.example.pdca.dto.ActionLogSimpleDTO;
+import com.example.pdca.dto.CursorPage;
 import com.example.pdca.model.ActionLog;
 import com.example.pdca.model.User;
 import com.example.pdca.service.ActionLogService;
-import com.example.pdca.service.UserService;
+import com.example.pdca.security.CurrentUser;
+import com.example.pdca.util.CursorCodec;
 import io.swagger.annotations.*;
+import springfox.documentation.annotations.ApiIgnore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 
@@ -19,10 +22,6 @@ import javax.validation.Valid;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-
-
 @RestController
 @RequestMapping("/api/logs")
 @Api(tags = "操作日志管理")
@@ -31,19 +30,13 @@ public class ActionLogController {
     @Autowired
     private ActionLogService actionLogService;
 
-
-    @Autowired
-    private UserService userService;
-
     @PostMapping
     @ApiOperation("创建日志")
-    public ResponseEntity<ActionLog> createLog(@Valid @RequestBody ActionLogDTO logDTO) {
-        // 获取当前登录用户
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User creator = userService.findByUsername(username);
+    public ResponseEntity<ActionLog> createLog(@Valid @RequestBody ActionLogDTO logDTO, @ApiIgnore @CurrentUser User creator) {
         logDTO.setCreatorId(creator.getId());
-        return ResponseEntity.ok(actionLogService.createLog(logDTO));
+        ActionLog log = actionLogService.createLog(logDTO);
+        // 日志直接作为响应返回，按详情的实体图重新加载
+        return ResponseEntity.ok(actionLogService.getLogById(log.getId()));
     }
 
     @GetMapping("/plan/{planId}")
@@ -58,6 +51,19 @@ public class ActionLogController {
         return ResponseEntity.ok(dtos);
     }
 
+    @GetMapping("/plan/{planId}/cursor")
+    @ApiOperation(value = "游标分页获取计划相关的日志", notes = "包含计划下任务的日志，按创建时间倒序，不统计总数")
+    public ResponseEntity<CursorPage<ActionLogSimpleDTO>> getLogsByPlanCursor(
+        @PathVariable Long planId,
+        @ApiParam(value = "游标，取首页时为空") @RequestParam(required = false) String cursor,
+        @ApiParam(value = "每页大小", defaultValue = "10") @RequestParam(defaultValue = "10") int size) {
+
+        int pageSize = CursorCodec.pageSize(size);
+        List<ActionLog> logs = actionLogService.getLogsByPlanWithTasksBefore(planId, CursorCodec.decode(cursor), pageSize);
+        return ResponseEntity.ok(CursorCodec.toPage(logs, pageSize, ActionLog::getCreateTime, ActionLog::getId,
+            this::convertToSimpleDTO));
+    }
+
     private ActionLogSimpleDTO convertToSimpleDTO(ActionLog log) {
         ActionLogSimpleDTO dto = new ActionLogSimpleDTO();
         dto.setLogType(log.getLogType());
@@ -81,4 +87,17 @@ public class ActionLogController {
     public ResponseEntity<List<ActionLog>> getLogsByTask(@PathVariable Long taskId) {
         return ResponseEntity.ok(actionLogService.getLogsByTask(taskId));
     }
+
+    @GetMapping("/task/{taskId}/cursor")
+    @ApiOperation(value = "游标分页获取任务相关的日志", notes = "按创建时间倒序，不统计总数")
+    public ResponseEntity<CursorPage<ActionLogSimpleDTO>> getLogsByTaskCursor(
+        @PathVariable Long taskId,
+        @ApiParam(value = "游标，取首页时为空") @RequestParam(required = false) String cursor,
+        @ApiParam(value = "每页大小", defaultValue = "10") @RequestParam(defaultValue = "10") int size) {
+
+        int pageSize = CursorCodec.pageSize(size);
+        List<ActionLog> logs = actionLogService.getLogsByTaskBefore(taskId, CursorCodec.decode(cursor), pageSize);
+        return ResponseEntity.ok(CursorCodec.toPage(logs, pageSize, ActionLog::getCreateTime, ActionLog::getId,
+            this::convertToSimpleDTO));
+    }
 } 
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.example.pdca.controller;
 
+import com.example.pdca.dto.CacheStatsDTO;
 import com.example.pdca.service.CacheService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -7,6 +8,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * 缓存管理控制器
  * 提供缓存相关的 REST API
@@ -32,4 +35,16 @@ public class CacheController {
         cacheService.clearAllCaches();
         return ResponseEntity.ok("所有缓存已清除");
     }
-} 
\ No newline at end of file
+
+    @GetMapping("/stats")
+    @ApiOperation("获取所有缓存统计")
+    public ResponseEntity<List<CacheStatsDTO>> getAllCacheStats() {
+        return ResponseEntity.ok(cacheService.getAllCacheStats());
+    }
+
+    @GetMapping("/{cacheName}/stats")
+    @ApiOperation("获取指定缓存统计")
+    public ResponseEntity<CacheStatsDTO> getCacheStats(@PathVariable String cacheName) {
+        return ResponseEntity.ok(cacheService.getCacheStats(cacheName));
+    }
+}
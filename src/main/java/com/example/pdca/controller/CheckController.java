@@ -5,12 +5,11 @@ import com.example.pdca.dto.CheckResultDTO;
 import com.example.pdca.model.Check;
 import com.example.pdca.model.User;
 import com.example.pdca.service.CheckService;
-import com.example.pdca.service.UserService;
+import com.example.pdca.security.CurrentUser;
 import io.swagger.annotations.*;
+import springfox.documentation.annotations.ApiIgnore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
@@ -28,9 +27,6 @@ public class CheckController {
     @Autowired
     private CheckService checkService;
 
-    @Autowired
-    private UserService userService;
-
     @PostMapping
     @ApiOperation("创建检查阶段")
     @ApiResponses({
@@ -39,11 +35,8 @@ public class CheckController {
         @ApiResponse(code = 401, message = "未授权")
     })
     public ResponseEntity<Check> createCheckPhase(
-        @Valid @RequestBody CheckDTO checkDTO) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User creator = userService.findByUsername(username);
-
+        @Valid @RequestBody CheckDTO checkDTO,
+        @ApiIgnore @CurrentUser User creator) {
         Check createdCheckPhase = checkService.createCheck(checkDTO, creator);
         return ResponseEntity.ok(createdCheckPhase);
     }
@@ -72,11 +65,8 @@ public class CheckController {
     })
     public ResponseEntity<Check> addCheckResult(
         @PathVariable Long checkPhaseId, 
-        @Valid @RequestBody CheckResultDTO checkResultDTO) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User recorder = userService.findByUsername(username);
-
+        @Valid @RequestBody CheckResultDTO checkResultDTO,
+        @ApiIgnore @CurrentUser User recorder) {
         checkResultDTO.setCheckId(checkPhaseId);
         Check updatedCheckPhase = checkService.addCheckResult(checkResultDTO, recorder);
         return ResponseEntity.ok(updatedCheckPhase);
@@ -106,11 +96,7 @@ public class CheckController {
 
     @GetMapping("/my-check-phases")
     @ApiOperation("获取当前用户的检查阶段")
-    public ResponseEntity<List<Check>> getMyCheckPhases() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User checker = userService.findByUsername(username);
-
+    public ResponseEntity<List<Check>> getMyCheckPhases(@ApiIgnore @CurrentUser(reference = true) User checker) {
         List<Check> checkPhases = checkService.getChecksByChecker(checker);
         return ResponseEntity.ok(checkPhases);
     }
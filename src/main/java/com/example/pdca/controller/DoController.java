@@ -7,8 +7,9 @@ import com.example.pdca.model.Plan;
 import com.example.pdca.model.User;
 import com.example.pdca.service.DoService;
 import com.example.pdca.service.PlanService;
-import com.example.pdca.service.UserService;
+import com.example.pdca.security.CurrentUser;
 import io.swagger.annotations.*;
+import springfox.documentation.annotations.ApiIgnore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -16,8 +17,6 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
@@ -35,9 +34,6 @@ public class DoController {
     @Autowired
     private DoService doService;
 
-    @Autowired
-    private UserService userService;
-
     @Autowired
     private PlanService planService;
 
@@ -49,11 +45,8 @@ public class DoController {
         @ApiResponse(code = 404, message = "关联的计划或执行人不存在")
     })
     public ResponseEntity<DoPhase> createDoPhase(
-        @ApiParam(value = "执行阶段详情", required = true) @Valid @RequestBody DoDTO doDTO) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User creator = userService.findByUsername(username);
-        
+        @ApiParam(value = "执行阶段详情", required = true) @Valid @RequestBody DoDTO doDTO,
+        @ApiIgnore @CurrentUser User creator) {
         DoPhase doPhase = doService.createDo(doDTO, creator);
         return ResponseEntity.ok(doPhase);
     }
@@ -82,11 +75,8 @@ public class DoController {
     })
     public ResponseEntity<DoPhase> addDoRecord(
         @PathVariable Long doPhaseId, 
-        @Valid @RequestBody DoRecordDTO doRecordDTO) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User recorder = userService.findByUsername(username);
-
+        @Valid @RequestBody DoRecordDTO doRecordDTO,
+        @ApiIgnore @CurrentUser User recorder) {
         doRecordDTO.setDoId(doPhaseId);
         DoPhase updatedDoPhase = doService.addDoRecord(doRecordDTO, recorder);
         return ResponseEntity.ok(updatedDoPhase);
@@ -116,11 +106,7 @@ public class DoController {
 
     @GetMapping("/my-do-phases")
     @ApiOperation("获取当前用户的执行阶段")
-    public ResponseEntity<List<DoPhase>> getMyDoPhases() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User executor = userService.findByUsername(username);
-
+    public ResponseEntity<List<DoPhase>> getMyDoPhases(@ApiIgnore @CurrentUser(reference = true) User executor) {
         List<DoPhase> doPhases = doService.getDosByExecutor(executor);
         return ResponseEntity.ok(doPhases);
     }
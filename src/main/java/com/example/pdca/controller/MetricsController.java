@@ -0,0 +1,63 @@
+package com.example.pdca.controller;
+
+import com.example.pdca.dto.HibernateStatsDTO;
+import com.example.pdca.dto.LatencyStatsDTO;
+import com.example.pdca.dto.RenderBulkheadStatsDTO;
+import com.example.pdca.service.MetricsService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 运行指标控制器
+ * 只读接口，仅管理员可访问
+ */
+@RestController
+@RequestMapping("/api/metrics")
+@Api(tags = "运行指标")
+@PreAuthorize("hasRole('ADMIN')")
+public class MetricsController {
+
+    private static final MediaType PROMETHEUS_TEXT = MediaType.parseMediaType("text/plain;version=0.0.4;charset=utf-8");
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @GetMapping("/latency/methods")
+    @ApiOperation("获取方法延迟统计")
+    public ResponseEntity<List<LatencyStatsDTO>> getMethodLatencies() {
+        return ResponseEntity.ok(metricsService.getMethodLatencies());
+    }
+
+    @GetMapping("/latency/endpoints")
+    @ApiOperation("获取接口延迟统计")
+    public ResponseEntity<List<LatencyStatsDTO>> getEndpointLatencies() {
+        return ResponseEntity.ok(metricsService.getEndpointLatencies());
+    }
+
+    @GetMapping("/hibernate")
+    @ApiOperation(value = "获取 Hibernate 统计", notes = "SQL 语句数与二级缓存、查询缓存命中情况，均为累计值，前后两次调用的差值即一段时间内的开销")
+    public ResponseEntity<HibernateStatsDTO> getHibernateStats() {
+        return ResponseEntity.ok(metricsService.getHibernateStats());
+    }
+
+    @GetMapping("/render-bulkhead")
+    @ApiOperation(value = "获取导出渲染隔离舱统计", notes = "当前并发渲染数和等待数、获取名额的等待时间以及被拒绝的次数")
+    public ResponseEntity<RenderBulkheadStatsDTO> getRenderBulkheadStats() {
+        return ResponseEntity.ok(metricsService.getRenderBulkheadStats());
+    }
+
+    @GetMapping("/prometheus")
+    @ApiOperation("以 Prometheus 文本格式导出指标")
+    public ResponseEntity<String> exportPrometheus() {
+        return ResponseEntity.ok()
+            .contentType(PROMETHEUS_TEXT)
+            .body(metricsService.exportPrometheus());
+    }
+}
@@ -1,23 +1,29 @@
 package com.example.pdca.controller;
 
+import com.example.pdca.dto.CountMode;
+import com.example.pdca.dto.CursorPage;
 import com.example.pdca.dto.PlanDTO;
 import com.example.pdca.dto.TaskDTO;
 import com.example.pdca.model.Plan;
 import com.example.pdca.model.User;
 import com.example.pdca.service.PlanService;
-import com.example.pdca.service.UserService;
+import com.example.pdca.security.CurrentUser;
+import com.example.pdca.util.CursorCodec;
+import com.example.pdca.util.EntityTagUtil;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponses;
 import io.swagger.annotations.ApiResponse;
+import springfox.documentation.annotations.ApiIgnore;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
@@ -36,17 +42,9 @@ public class PlanController {
     @Autowired
     private PlanService planService;
 
-    @Autowired
-    private UserService userService;
-
     @PostMapping
     @ApiOperation("创建计划")
-    public ResponseEntity<Plan> createPlan(@Valid @RequestBody PlanDTO planDTO) {
-        // 获取当前登录用户
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User creator = userService.findByUsername(username);
-
+    public ResponseEntity<Plan> createPlan(@Valid @RequestBody PlanDTO planDTO, @ApiIgnore @CurrentUser User creator) {
         Plan createdPlan = planService.createPlan(planDTO, creator);
         return ResponseEntity.ok(createdPlan);
     }
@@ -55,10 +53,11 @@ public class PlanController {
     @ApiOperation("更新计划")
     public ResponseEntity<Plan> updatePlan(
             @PathVariable Long planId, 
-            @Valid @RequestBody PlanDTO planDTO) {
+            @Valid @RequestBody PlanDTO planDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         planDTO.setId(planId);
-        Plan updatedPlan = planService.updatePlan(planDTO);
-        return ResponseEntity.ok(updatedPlan);
+        Plan updatedPlan = planService.updatePlan(planDTO, ifMatch);
+        return ResponseEntity.ok().eTag(EntityTagUtil.toETag(EntityTagUtil.versionTag(updatedPlan))).body(updatedPlan);
     }
 
     @DeleteMapping("/{planId}")
@@ -69,40 +68,44 @@ public class PlanController {
     }
 
     @GetMapping("/{planId}")
-    @ApiOperation("根据ID获取计划")
-    public ResponseEntity<Plan> getPlanById(@PathVariable Long planId) {
+    @ApiOperation(value = "根据ID获取计划", notes = "支持 If-None-Match，计划及其任务未变化时返回 304")
+    public ResponseEntity<Plan> getPlanById(
+            @PathVariable Long planId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // 先查版本标记，命中时不加载计划和任务
+        String etag = EntityTagUtil.toETag(planService.getPlanVersionTag(planId));
+        if (EntityTagUtil.isNotModified(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        // ETag 由返回的实例计算，两次查询之间计划或任务被修改时也与响应内容一致
         Plan plan = planService.getPlanById(planId);
-        return ResponseEntity.ok(plan);
+        return ResponseEntity.ok()
+            .eTag(EntityTagUtil.toETag(EntityTagUtil.versionTag(plan)))
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .body(plan);
     }
 
     @GetMapping("/my-plans")
-    @ApiOperation("获取当前用户的计划")
+    @ApiOperation(value = "获取当前用户的计划", notes = "count=NONE 时不返回总数和总页数")
     @ApiResponses({
         @ApiResponse(code = 200, message = "获取成功"),
         @ApiResponse(code = 401, message = "未授权")
     })
-    public ResponseEntity<Page<PlanDTO>> getMyPlans(
+    public ResponseEntity<Slice<PlanDTO>> getMyPlans(
         @ApiParam(value = "计划状态", required = false) 
         @RequestParam(required = false) Plan.PlanStatus status,
         @ApiParam(value = "页码", defaultValue = "0") @RequestParam(defaultValue = "0") int page,
-        @ApiParam(value = "每页大小", defaultValue = "10") @RequestParam(defaultValue = "10") int size) {
-        
-        // 获取当前登录用户
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User currentUser = userService.findByUsername(username);
+        @ApiParam(value = "每页大小", defaultValue = "10") @RequestParam(defaultValue = "10") int size,
+        @ApiParam(value = "总数统计方式：EXACT 精确总数，APPROXIMATE 缓存的近似总数，NONE 不统计总数只返回是否有下一页", defaultValue = "EXACT")
+        @RequestParam(defaultValue = "EXACT") CountMode count,
+        @ApiIgnore @CurrentUser(reference = true) User currentUser) {
         
         // 创建分页请求
         Sort sort = Sort.by(Sort.Direction.DESC, "createTime");
         PageRequest pageRequest = PageRequest.of(page, size, sort);
         
-        // 根据状态参数决定调用哪个服务方法
-        Page<Plan> plans;
-        if (status != null) {
-            plans = planService.getPagedPlansByUserAndStatus(currentUser, status, pageRequest);
-        } else {
-            plans = planService.getPagedPlansByUser(currentUser, pageRequest);
-        }
+        Slice<Plan> plans = planService.getPlanSliceByUser(currentUser, status, pageRequest, count);
         
         // 将 Plan 转换为 PlanDTO
         return ResponseEntity.ok(plans.map(this::convertToDTO));
@@ -116,41 +119,50 @@ public class PlanController {
     }
 
     @GetMapping
-    @ApiOperation(value = "获取计划分页列表", notes = "分页获取当前用户相关的所有计划")
+    @ApiOperation(value = "获取计划分页列表", notes = "分页获取当前用户相关的所有计划；count=NONE 时不返回总数和总页数")
     @ApiResponses({
         @ApiResponse(code = 200, message = "获取成功")
     })
-    public ResponseEntity<Page<PlanDTO>> getPlans(
+    public ResponseEntity<Slice<PlanDTO>> getPlans(
         @ApiParam(value = "页码", defaultValue = "0") @RequestParam(defaultValue = "0") int page,
         @ApiParam(value = "每页大小", defaultValue = "10") @RequestParam(defaultValue = "10") int size,
-        @ApiParam(value = "计划状态", required = false) @RequestParam(required = false) Plan.PlanStatus status) {
-        
-        // 获取当前登录用户
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User currentUser = userService.findByUsername(username);
+        @ApiParam(value = "计划状态", required = false) @RequestParam(required = false) Plan.PlanStatus status,
+        @ApiParam(value = "总数统计方式：EXACT 精确总数，APPROXIMATE 缓存的近似总数，NONE 不统计总数只返回是否有下一页", defaultValue = "EXACT")
+        @RequestParam(defaultValue = "EXACT") CountMode count,
+        @ApiIgnore @CurrentUser(reference = true) User currentUser) {
         
         Sort sort = Sort.by(Sort.Direction.DESC, "createTime");
         PageRequest pageRequest = PageRequest.of(page, size, sort);
         
-        Page<Plan> plans;
-        if (status != null) {
-            plans = planService.getPagedPlansByUserAndStatus(currentUser, status, pageRequest);
-        } else {
-            plans = planService.getPagedPlansByUser(currentUser, pageRequest);
-        }
-        
+        Slice<Plan> plans = planService.getPlanSliceByUser(currentUser, status, pageRequest, count);
         return ResponseEntity.ok(plans.map(this::convertToDTO));
     }
 
+    @GetMapping("/cursor")
+    @ApiOperation(value = "游标分页获取计划列表", notes = "按创建时间倒序获取当前用户相关的计划，不统计总数；首页不传 cursor，之后传上一页返回的 nextCursor")
+    @ApiResponses({
+        @ApiResponse(code = 200, message = "获取成功"),
+        @ApiResponse(code = 400, message = "游标无效或每页大小超出范围")
+    })
+    public ResponseEntity<CursorPage<PlanDTO>> getPlansByCursor(
+        @ApiParam(value = "游标，取首页时为空") @RequestParam(required = false) String cursor,
+        @ApiParam(value = "每页大小", defaultValue = "10") @RequestParam(defaultValue = "10") int size,
+        @ApiParam(value = "计划状态", required = false) @RequestParam(required = false) Plan.PlanStatus status,
+        @ApiIgnore @CurrentUser(reference = true) User currentUser) {
+
+        int pageSize = CursorCodec.pageSize(size);
+        List<Plan> plans = planService.getPlansByUserBefore(currentUser, status, CursorCodec.decode(cursor), pageSize);
+        return ResponseEntity.ok(CursorCodec.toPage(plans, pageSize, Plan::getCreateTime, Plan::getId, this::convertToDTO));
+    }
+
     @PatchMapping("/{planId}/status")
     @ApiOperation("更新计划状态")
     public ResponseEntity<Plan> updatePlanStatus(
             @PathVariable Long planId,
-            @RequestParam Plan.PlanStatus status) {
-        Plan plan = planService.getPlanById(planId);
-        plan.setStatus(status);
-        return ResponseEntity.ok(planService.updatePlan(convertToDTO(plan)));
+            @RequestParam Plan.PlanStatus status,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Plan updatedPlan = planService.updatePlanStatus(planId, status, ifMatch);
+        return ResponseEntity.ok().eTag(EntityTagUtil.toETag(EntityTagUtil.versionTag(updatedPlan))).body(updatedPlan);
     }
 
     @PostMapping("/{planId}/start")
@@ -161,11 +173,8 @@ public class PlanController {
         @ApiResponse(code = 404, message = "计划不存在")
     })
     public ResponseEntity<Plan> startPlan(
-        @ApiParam(value = "计划ID", required = true) @PathVariable Long planId) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User currentUser = userService.findByUsername(username);
-        
+        @ApiParam(value = "计划ID", required = true) @PathVariable Long planId,
+        @ApiIgnore @CurrentUser User currentUser) {
         Plan plan = planService.startPlan(planId, currentUser);
         return ResponseEntity.ok(plan);
     }
@@ -178,11 +187,8 @@ public class PlanController {
         @ApiResponse(code = 404, message = "计划不存在")
     })
     public ResponseEntity<Plan> completePlan(
-        @ApiParam(value = "计划ID", required = true) @PathVariable Long planId) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User currentUser = userService.findByUsername(username);
-        
+        @ApiParam(value = "计划ID", required = true) @PathVariable Long planId,
+        @ApiIgnore @CurrentUser User currentUser) {
         Plan plan = planService.completePlan(planId, currentUser);
         return ResponseEntity.ok(plan);
     }
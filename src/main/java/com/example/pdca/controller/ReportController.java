@@ -1,35 +1,43 @@
 package com.example.pdca.controller;
 
+import com.example.pdca.dto.CountMode;
+import com.example.pdca.dto.CursorPage;
 import com.example.pdca.dto.ReportDTO;
+import com.example.pdca.dto.ReportJobDTO;
+import com.example.pdca.dto.ReportSummaryDTO;
 import com.example.pdca.model.Report;
 import com.example.pdca.model.User;
-import com.example.pdca.model.Plan;
-import com.example.pdca.model.Task;
 import com.example.pdca.service.ReportService;
-import com.example.pdca.service.UserService;
+import com.example.pdca.service.ReportJobService;
 import com.example.pdca.service.PlanService;
 import com.example.pdca.exception.BusinessException;
+import com.example.pdca.security.CurrentUser;
+import com.example.pdca.util.CursorCodec;
+import com.example.pdca.util.EntityTagUtil;
+import com.example.pdca.util.RenderBulkhead;
+import com.example.pdca.util.ReportRenderCache;
 import io.swagger.annotations.*;
+import springfox.documentation.annotations.ApiIgnore;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.validation.Valid;
-import java.io.ByteArrayOutputStream;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import org.springframework.http.HttpStatus;
 
 /**
@@ -45,19 +53,16 @@ public class ReportController {
     private ReportService reportService;
 
     @Autowired
-    private UserService userService;
+    private PlanService planService;
 
     @Autowired
-    private PlanService planService;
+    private ReportJobService reportJobService;
 
     @PostMapping
     @ApiOperation("创建报告")
     public ResponseEntity<Report> createReport(
-        @Valid @RequestBody ReportDTO reportDTO) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User creator = userService.findByUsername(username);
-
+        @Valid @RequestBody ReportDTO reportDTO,
+        @ApiIgnore @CurrentUser User creator) {
         Report createdReport = reportService.createReport(reportDTO, creator);
         return ResponseEntity.ok(createdReport);
     }
@@ -67,124 +72,168 @@ public class ReportController {
     @ApiResponses({
         @ApiResponse(code = 200, message = "生成成功"),
         @ApiResponse(code = 400, message = "存在未评分的任务"),
-        @ApiResponse(code = 404, message = "计划不存在")
+        @ApiResponse(code = 404, message = "计划不存在"),
+        @ApiResponse(code = 409, message = "该计划已生成报告")
     })
     public ResponseEntity<ReportDTO> generateReport(
-        @ApiParam(value = "计划ID", required = true) @PathVariable Long planId) {
+        @ApiParam(value = "计划ID", required = true) @PathVariable Long planId,
+        @ApiIgnore @CurrentUser User currentUser) {
         
-        // 获取当前登录用户
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User currentUser = userService.findByUsername(username);
-        
-        // 获取计划信息
-        Plan plan = planService.getPlanById(planId);
+        // 评分检查、内容生成和重复生成校验统一由服务层完成
+        Report report = reportService.generatePDCAReport(planId, currentUser);
+        return ResponseEntity.ok(convertToDetailDTO(report));
+    }
+
+    @PostMapping("/jobs/plan/{planId}")
+    @ApiOperation(value = "异步生成PDCA循环总结报告", notes = "立即返回任务ID，通过任务查询接口轮询进度；同一计划已有进行中的任务时返回该任务")
+    @ApiResponses({
+        @ApiResponse(code = 202, message = "任务已提交"),
+        @ApiResponse(code = 404, message = "计划不存在"),
+        @ApiResponse(code = 429, message = "进行中的任务过多"),
+        @ApiResponse(code = 503, message = "任务队列已满")
+    })
+    public ResponseEntity<ReportJobDTO> submitReportJob(
+        @ApiParam(value = "计划ID", required = true) @PathVariable Long planId,
+        @ApiIgnore @CurrentUser User currentUser) {
         
-        // 检查所有任务是否已评分
-        List<Task> unEvaluatedTasks = plan.getTasks().stream()
-            .filter(task -> task.getScore() == null)
+        ReportJobDTO job = withLinks(reportJobService.submitJob(planId, currentUser));
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+            .header(HttpHeaders.LOCATION, job.getLinks().get("self"))
+            .body(job);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @ApiOperation(value = "查询报告生成任务", notes = "返回任务状态、进度，完成后附带报告详情和导出链接")
+    @ApiResponses({
+        @ApiResponse(code = 200, message = "获取成功"),
+        @ApiResponse(code = 404, message = "任务不存在或已过期")
+    })
+    public ResponseEntity<ReportJobDTO> getReportJob(
+        @ApiParam(value = "任务ID", required = true) @PathVariable String jobId,
+        @ApiIgnore @CurrentUser User currentUser) {
+        return ResponseEntity.ok(withLinks(reportJobService.getJob(jobId, currentUser)));
+    }
+
+    @GetMapping("/jobs")
+    @ApiOperation("获取我的报告生成任务")
+    public ResponseEntity<List<ReportJobDTO>> getReportJobs(@ApiIgnore @CurrentUser User currentUser) {
+        List<ReportJobDTO> jobs = reportJobService.getJobs(currentUser).stream()
+            .map(this::withLinks)
             .collect(Collectors.toList());
-        
-        if (!unEvaluatedTasks.isEmpty()) {
-            throw new BusinessException("存在未评分的任务，无法生成报告。未评分任务数量：" + unEvaluatedTasks.size());
+        return ResponseEntity.ok(jobs);
+    }
+
+    private ReportJobDTO withLinks(ReportJobDTO job) {
+        Map<String, String> links = new LinkedHashMap<>();
+        links.put("self", link("/api/reports/jobs/" + job.getJobId()));
+        if (job.getReportId() != null) {
+            links.put("report", link("/api/reports/plan/" + job.getPlanId()));
+            links.put("pdf", link("/api/reports/export/pdf/" + job.getReportId()));
+            links.put("excel", link("/api/reports/export/excel/" + job.getReportId()));
         }
-        
-        // 创建报告DTO
-        ReportDTO reportDTO = new ReportDTO();
-        reportDTO.setTitle(plan.getTitle() + " - PDCA循环总结报告");
-        reportDTO.setPlanId(planId);
-        reportDTO.setType(Report.ReportType.PDCA_CYCLE);
-        
-        // 生成报告内容
-        StringBuilder summary = new StringBuilder();
-        summary.append("本报告总结了计划「").append(plan.getTitle()).append("」的PDCA循环执行情况。\n");
-        summary.append("计划开始时间：").append(plan.getStartTime()).append("\n");
-        summary.append("计划结束时间：").append(plan.getEndTime()).append("\n");
-        summary.append("任务完成情况：已完成 ").append(plan.getTasks().size()).append(" 个任务\n");
-        reportDTO.setSummary(summary.toString());
-        
-        // 计算平均分
-        double avgScore = plan.getTasks().stream()
-            .mapToInt(Task::getScore)
-            .average()
-            .orElse(0.0);
-        
-        // 生成任务评价分析
-        StringBuilder planningAnalysis = new StringBuilder();
-        planningAnalysis.append("任务平均得分：").append(String.format("%.2f", avgScore)).append("\n");
-        planningAnalysis.append("任务评价详情：\n");
-        plan.getTasks().forEach(task -> {
-            planningAnalysis.append("- ").append(task.getName())
-                .append("（得分：").append(task.getScore()).append("）：")
-                .append(task.getEvaluation()).append("\n");
-        });
-        reportDTO.setPlanningAnalysis(planningAnalysis.toString());
-        
-        // 创建报告
-        Report report = reportService.createReport(reportDTO, currentUser);
-        return ResponseEntity.ok(convertToDetailDTO(report));
+        job.setLinks(links);
+        return job;
+    }
+
+    private String link(String path) {
+        return ServletUriComponentsBuilder.fromCurrentContextPath().path(path).toUriString();
     }
 
     @GetMapping("/export/pdf/{reportId}")
-    @ApiOperation("导出报告为 PDF")
-    public ResponseEntity<ByteArrayResource> exportReportToPDF(
+    @ApiOperation(value = "导出报告为 PDF", notes = "边生成边输出，不在内存中缓存整个文件；渲染已饱和时返回 429/503 并带 Retry-After")
+    @ApiResponses({
+        @ApiResponse(code = 200, message = "导出成功"),
+        @ApiResponse(code = 404, message = "报告不存在"),
+        @ApiResponse(code = 429, message = "等待导出的请求过多"),
+        @ApiResponse(code = 503, message = "等待渲染超时")
+    })
+    public ResponseEntity<StreamingResponseBody> exportReportToPDF(
         @PathVariable Long reportId) {
-        ByteArrayOutputStream pdfStream = reportService.exportReportToPDF(reportId);
-        
-        ByteArrayResource resource = new ByteArrayResource(pdfStream.toByteArray());
+        // 在请求线程中加载报告，报告不存在时仍可返回正常的错误响应
+        Report report = reportService.getReportById(reportId);
+        // 渲染名额同样在请求线程中获取，饱和时在开始输出前返回 429/503
+        RenderBulkhead.Permit permit = reportService.acquireExportPermit(report, ReportRenderCache.Format.PDF);
         
         return ResponseEntity.ok()
             .contentType(MediaType.APPLICATION_PDF)
             .header(HttpHeaders.CONTENT_DISPOSITION, 
                 "attachment; filename=report.pdf")
-            .body(resource);
+            .body(outputStream -> {
+                try {
+                    reportService.exportReportToPDF(report, outputStream);
+                } finally {
+                    permit.release();
+                }
+            });
     }
 
     @GetMapping("/export/excel/{reportId}")
-    @ApiOperation("导出报告为 Excel")
-    public ResponseEntity<ByteArrayResource> exportReportToExcel(
+    @ApiOperation(value = "导出报告为 Excel", notes = "边生成边输出，不在内存中缓存整个文件；渲染已饱和时返回 429/503 并带 Retry-After")
+    @ApiResponses({
+        @ApiResponse(code = 200, message = "导出成功"),
+        @ApiResponse(code = 404, message = "报告不存在"),
+        @ApiResponse(code = 429, message = "等待导出的请求过多"),
+        @ApiResponse(code = 503, message = "等待渲染超时")
+    })
+    public ResponseEntity<StreamingResponseBody> exportReportToExcel(
         @PathVariable Long reportId) {
-        ByteArrayOutputStream excelStream = reportService.exportReportToExcel(reportId);
-        
-        ByteArrayResource resource = new ByteArrayResource(excelStream.toByteArray());
+        Report report = reportService.getReportById(reportId);
+        RenderBulkhead.Permit permit = reportService.acquireExportPermit(report, ReportRenderCache.Format.EXCEL);
         
         return ResponseEntity.ok()
             .contentType(MediaType.parseMediaType(
                 "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
             .header(HttpHeaders.CONTENT_DISPOSITION, 
                 "attachment; filename=report.xlsx")
-            .body(resource);
+            .body(outputStream -> {
+                try {
+                    reportService.exportReportToExcel(report, outputStream);
+                } finally {
+                    permit.release();
+                }
+            });
     }
 
     @GetMapping
-    @ApiOperation(value = "获取报告分页列表", notes = "分页获取所有报告")
+    @ApiOperation(value = "获取报告分页列表", notes = "分页获取报告摘要，不包含摘要和各阶段分析文本；count=NONE 时不返回总数和总页数")
     @ApiResponses({
         @ApiResponse(code = 200, message = "获取成功")
     })
-    public ResponseEntity<Page<ReportDTO>> getReports(
+    public ResponseEntity<Slice<ReportSummaryDTO>> getReports(
         @ApiParam(value = "页码", defaultValue = "0") @RequestParam(defaultValue = "0") int page,
         @ApiParam(value = "每页大小", defaultValue = "10") @RequestParam(defaultValue = "10") int size,
         @ApiParam(value = "报告类型", required = false) @RequestParam(required = false) Report.ReportType type,
-        @ApiParam(value = "报告状态", required = false) @RequestParam(required = false) Report.ReportStatus status) {
-        
-        // 获取当前登录用户
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User currentUser = userService.findByUsername(username);
+        @ApiParam(value = "报告状态", required = false) @RequestParam(required = false) Report.ReportStatus status,
+        @ApiParam(value = "总数统计方式：EXACT 精确总数，APPROXIMATE 缓存的近似总数，NONE 不统计总数只返回是否有下一页", defaultValue = "EXACT")
+        @RequestParam(defaultValue = "EXACT") CountMode count,
+        @ApiIgnore @CurrentUser(reference = true) User currentUser) {
         
         Sort sort = Sort.by(Sort.Direction.DESC, "createdTime");
         PageRequest pageRequest = PageRequest.of(page, size, sort);
         
-        Page<Report> reports;
-        if (type != null) {
-            reports = reportService.getPagedReportsByType(type, pageRequest);
-        } else if (status != null) {
-            reports = reportService.getPagedReportsByStatus(status, pageRequest);
-        } else {
-            reports = reportService.getPagedReportsByCreator(currentUser, pageRequest);
-        }
+        Slice<ReportSummaryDTO> reports = reportService.getReportSummarySlice(currentUser, type, status, pageRequest, count);
         
-        return ResponseEntity.ok(reports.map(this::convertToDTO));
+        return ResponseEntity.ok(reports);
+    }
+
+    @GetMapping("/cursor")
+    @ApiOperation(value = "游标分页获取报告列表", notes = "按创建时间倒序获取报告摘要，不统计总数；首页不传 cursor，之后传上一页返回的 nextCursor")
+    @ApiResponses({
+        @ApiResponse(code = 200, message = "获取成功"),
+        @ApiResponse(code = 400, message = "游标无效或每页大小超出范围")
+    })
+    public ResponseEntity<CursorPage<ReportSummaryDTO>> getReportsByCursor(
+        @ApiParam(value = "游标，取首页时为空") @RequestParam(required = false) String cursor,
+        @ApiParam(value = "每页大小", defaultValue = "10") @RequestParam(defaultValue = "10") int size,
+        @ApiParam(value = "报告类型", required = false) @RequestParam(required = false) Report.ReportType type,
+        @ApiParam(value = "报告状态", required = false) @RequestParam(required = false) Report.ReportStatus status,
+        @ApiIgnore @CurrentUser(reference = true) User currentUser) {
+
+        int pageSize = CursorCodec.pageSize(size);
+        List<ReportSummaryDTO> reports = reportService.getReportSummariesBefore(currentUser, type, status,
+            CursorCodec.decode(cursor), pageSize);
+        return ResponseEntity.ok(CursorCodec.toPage(reports, pageSize, ReportSummaryDTO::getCreatedTime,
+            ReportSummaryDTO::getId, summary -> summary));
     }
 
     private ReportDTO convertToDTO(Report report) {
@@ -207,36 +256,44 @@ public class ReportController {
     }
 
     @GetMapping("/plan/{planId}")
-    @ApiOperation(value = "获取计划的报告详情", notes = "通过计划ID获取PDCA循环总结报告")
+    @ApiOperation(value = "获取计划的报告详情", notes = "通过计划ID获取PDCA循环总结报告，支持 If-None-Match，报告及计划未变化时返回 304")
     @ApiResponses({
         @ApiResponse(code = 200, message = "获取成功"),
+        @ApiResponse(code = 304, message = "未修改"),
         @ApiResponse(code = 404, message = "计划不存在"),
         @ApiResponse(code = 400, message = "计划尚未生成报告")
     })
     public ResponseEntity<ReportDTO> getReportByPlanId(
-        @ApiParam(value = "计划ID", required = true) @PathVariable Long planId) {
+        @ApiParam(value = "计划ID", required = true) @PathVariable Long planId,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
-        // 先检查计划是否存在
-        Plan plan = planService.getPlanById(planId);
-        if (plan == null) {
-            throw new BusinessException("计划不存在", HttpStatus.NOT_FOUND);
+        // 先查版本标记，命中时不加载报告和计划
+        String etag = EntityTagUtil.toETag(reportService.getPlanReportVersionTag(planId));
+        if (EntityTagUtil.isNotModified(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
         }
+        ResponseEntity.BodyBuilder okResponse = ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache().cachePrivate());
+        
+        // 先检查计划是否存在，只查询标题，不加载计划的任务
+        String planTitle = planService.getPlanTitle(planId);
         
         try {
             Report report = reportService.getReportByPlanId(planId);
-            return ResponseEntity.ok(convertToDetailDTO(report));
+            return okResponse.body(convertToDetailDTO(report));
         } catch (BusinessException e) {
             // 如果是因为报告不存在而抛出的异常，返回特定的响应
             Map<String, Object> response = new HashMap<>();
             response.put("planId", planId);
-            response.put("planTitle", plan.getTitle());
+            response.put("planTitle", planTitle);
             response.put("message", "计划尚未生成PDCA循环总结报告");
-            response.put("canGenerate", plan.getTasks().stream().allMatch(task -> task.getScore() != null));
+            response.put("canGenerate", reportService.getPlanScoreStats(planId).isReadyForReport());
             
-            return ResponseEntity.status(HttpStatus.OK)
+            return okResponse
                 .body(new ReportDTO() {{
                     setPlanId(planId);
-                    setPlanTitle(plan.getTitle());
+                    setPlanTitle(planTitle);
                     setStatus(Report.ReportStatus.NOT_GENERATED);
                     setCanGenerate(response.get("canGenerate").toString());
                     setMessage(response.get("message").toString());
@@ -280,18 +337,15 @@ public class ReportController {
     })
     public ResponseEntity<ReportDTO> updateReport(
         @ApiParam(value = "报告ID", required = true) @PathVariable Long reportId,
-        @Valid @RequestBody ReportDTO reportDTO) {
+        @Valid @RequestBody ReportDTO reportDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @ApiIgnore @CurrentUser User currentUser) {
         
         // 确保路径ID和请求体ID匹配
         if (!reportId.equals(reportDTO.getId())) {
             throw new IllegalArgumentException("路径ID与请求体ID不匹配");
         }
         
-        // 获取当前登录用户
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User currentUser = userService.findByUsername(username);
-        
         // 检查权限（只有创建者或管理员可以更新）
         Report existingReport = reportService.getReportById(reportId);
         if (!existingReport.getCreator().getId().equals(currentUser.getId()) && 
@@ -299,8 +353,10 @@ public class ReportController {
             throw new RuntimeException("没有权限更新此报告");
         }
         
-        Report updatedReport = reportService.updateReport(reportDTO);
-        return ResponseEntity.ok(convertToDetailDTO(updatedReport));
+        Report updatedReport = reportService.updateReport(reportDTO, ifMatch);
+        return ResponseEntity.ok()
+            .eTag(EntityTagUtil.toETag(updatedReport.getVersionTag()))
+            .body(convertToDetailDTO(updatedReport));
     }
 
     @PostMapping("/{reportId}/submit")
@@ -311,12 +367,8 @@ public class ReportController {
         @ApiResponse(code = 400, message = "报告状态不允许提交")
     })
     public ResponseEntity<ReportDTO> submitReport(
-        @ApiParam(value = "报告ID", required = true) @PathVariable Long reportId) {
-        
-        // 获取当前登录用户
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User currentUser = userService.findByUsername(username);
+        @ApiParam(value = "报告ID", required = true) @PathVariable Long reportId,
+        @ApiIgnore @CurrentUser User currentUser) {
         
         Report submittedReport = reportService.submitReport(reportId, currentUser);
         return ResponseEntity.ok(convertToDetailDTO(submittedReport));
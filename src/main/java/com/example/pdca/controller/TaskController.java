@@ -2,18 +2,24 @@ package com.example.pdca.controller;
 
 import com.example.pdca.model.Task;
 import com.example.pdca.service.TaskService;
+import com.example.pdca.dto.CountMode;
+import com.example.pdca.dto.CursorPage;
 import com.example.pdca.dto.TaskDTO;
 import com.example.pdca.model.User;
-import com.example.pdca.service.UserService;
 import com.example.pdca.dto.TaskEvaluationDTO;
+import com.example.pdca.security.CurrentUser;
+import com.example.pdca.util.CursorCodec;
+import com.example.pdca.util.EntityTagUtil;
 import io.swagger.annotations.*;
+import springfox.documentation.annotations.ApiIgnore;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
@@ -34,9 +40,6 @@ public class TaskController {
     @Autowired
     private TaskService taskService;
 
-    @Autowired
-    private UserService userService;
-
     @PatchMapping("/{taskId}")
     @ApiOperation(value = "部分更新任务", notes = "根据任务ID部分更新任务信息")
     @ApiResponses({
@@ -46,10 +49,11 @@ public class TaskController {
     })
     public ResponseEntity<Task> partialUpdateTask(
         @ApiParam(value = "任务ID", required = true) @PathVariable Long taskId,
-        @ApiParam(value = "更新字段", required = true) @RequestBody Map<String, Object> updates) {
+        @ApiParam(value = "更新字段", required = true) @RequestBody Map<String, Object> updates,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         
-        Task updatedTask = taskService.partialUpdateTask(taskId, updates);
-        return ResponseEntity.ok(updatedTask);
+        Task updatedTask = taskService.partialUpdateTask(taskId, updates, ifMatch);
+        return withETag(ResponseEntity.ok(), updatedTask).body(updatedTask);
     }
 
     @PatchMapping("/{taskId}/assignee")
@@ -61,15 +65,16 @@ public class TaskController {
     })
     public ResponseEntity<TaskDTO> assignTask(
         @PathVariable Long taskId,
-        @RequestBody Map<String, Long> request) {
+        @RequestBody Map<String, Long> request,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         
         Long assigneeId = request.get("assigneeId");
         if (assigneeId == null) {
             throw new IllegalArgumentException("assigneeId 不能为空");
         }
         
-        Task updatedTask = taskService.assignTask(taskId, assigneeId);
-        return ResponseEntity.ok(convertToDTO(updatedTask));
+        Task updatedTask = taskService.assignTask(taskId, assigneeId, ifMatch);
+        return withETag(ResponseEntity.ok(), updatedTask).body(convertToDTO(updatedTask));
     }
 
     @PatchMapping("/{taskId}/status")
@@ -83,39 +88,49 @@ public class TaskController {
         @ApiParam(value = "任务ID", required = true) @PathVariable Long taskId,
         @ApiParam(value = "新的任务状态", required = true, 
                   allowableValues = "TODO,IN_PROGRESS,BLOCKED,COMPLETED") 
-        @RequestParam Task.TaskStatus status) {
-        Task updatedTask = taskService.updateTaskStatus(taskId, status);
-        return ResponseEntity.ok(updatedTask);
+        @RequestParam Task.TaskStatus status,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Task updatedTask = taskService.updateTaskStatus(taskId, status, ifMatch);
+        return withETag(ResponseEntity.ok(), updatedTask).body(updatedTask);
     }
 
     @GetMapping
-    @ApiOperation(value = "获取任务分页列表", notes = "分页获取当前用户相关的所有任务")
+    @ApiOperation(value = "获取任务分页列表", notes = "分页获取当前用户相关的所有任务；count=NONE 时不返回总数和总页数")
     @ApiResponses({
         @ApiResponse(code = 200, message = "获取成功")
     })
-    public ResponseEntity<Page<TaskDTO>> getTasks(
+    public ResponseEntity<Slice<TaskDTO>> getTasks(
         @ApiParam(value = "页码", defaultValue = "0") @RequestParam(defaultValue = "0") int page,
         @ApiParam(value = "每页大小", defaultValue = "10") @RequestParam(defaultValue = "10") int size,
-        @ApiParam(value = "任务状态", required = false) @RequestParam(required = false) Task.TaskStatus status) {
-        
-        // 获取当前登录用户
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User currentUser = userService.findByUsername(username);
+        @ApiParam(value = "任务状态", required = false) @RequestParam(required = false) Task.TaskStatus status,
+        @ApiParam(value = "总数统计方式：EXACT 精确总数，APPROXIMATE 缓存的近似总数，NONE 不统计总数只返回是否有下一页", defaultValue = "EXACT")
+        @RequestParam(defaultValue = "EXACT") CountMode count,
+        @ApiIgnore @CurrentUser(reference = true) User currentUser) {
         
         Sort sort = Sort.by(Sort.Direction.DESC, "createTime");
         PageRequest pageRequest = PageRequest.of(page, size, sort);
         
-        Page<Task> tasks;
-        if (status != null) {
-            tasks = taskService.getPagedTasksByUserAndStatus(currentUser, status, pageRequest);
-        } else {
-            tasks = taskService.getPagedTasksByUser(currentUser, pageRequest);
-        }
-        
+        Slice<Task> tasks = taskService.getTaskSliceByUser(currentUser, status, pageRequest, count);
         return ResponseEntity.ok(tasks.map(this::convertToDTO));
     }
 
+    @GetMapping("/cursor")
+    @ApiOperation(value = "游标分页获取任务列表", notes = "按创建时间倒序获取当前用户相关的任务，不统计总数；首页不传 cursor，之后传上一页返回的 nextCursor")
+    @ApiResponses({
+        @ApiResponse(code = 200, message = "获取成功"),
+        @ApiResponse(code = 400, message = "游标无效或每页大小超出范围")
+    })
+    public ResponseEntity<CursorPage<TaskDTO>> getTasksByCursor(
+        @ApiParam(value = "游标，取首页时为空") @RequestParam(required = false) String cursor,
+        @ApiParam(value = "每页大小", defaultValue = "10") @RequestParam(defaultValue = "10") int size,
+        @ApiParam(value = "任务状态", required = false) @RequestParam(required = false) Task.TaskStatus status,
+        @ApiIgnore @CurrentUser(reference = true) User currentUser) {
+
+        int pageSize = CursorCodec.pageSize(size);
+        List<Task> tasks = taskService.getTasksByUserBefore(currentUser, status, CursorCodec.decode(cursor), pageSize);
+        return ResponseEntity.ok(CursorCodec.toPage(tasks, pageSize, Task::getCreateTime, Task::getId, this::convertToDTO));
+    }
+
     @GetMapping("/my-tasks")
     @ApiOperation(value = "获取我的任务", notes = "获取当前登录用户负责的所有任务")
     @ApiResponses({
@@ -128,24 +143,15 @@ public class TaskController {
         @ApiParam(value = "页码", example = "0") 
         @RequestParam(defaultValue = "0") Integer page,
         @ApiParam(value = "每页大小", example = "10") 
-        @RequestParam(defaultValue = "10") Integer size) {
-        
-        // 获取当前登录用户
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User currentUser = userService.findByUsername(username);
+        @RequestParam(defaultValue = "10") Integer size,
+        @ApiIgnore @CurrentUser(reference = true) User currentUser) {
         
         // 创建分页请求
         Sort sort = Sort.by(Sort.Direction.DESC, "createTime");
         PageRequest pageRequest = PageRequest.of(page, size, sort);
         
-        // 获取任务列表
-        Page<Task> taskPage;
-        if (status != null) {
-            taskPage = taskService.getPagedTasksByUserAndStatus(currentUser, status, pageRequest);
-        } else {
-            taskPage = taskService.getPagedTasksByUser(currentUser, pageRequest);
-        }
+        // 获取任务列表，只返回本页内容，不需要统计总数
+        Slice<Task> taskPage = taskService.getTaskSliceByUser(currentUser, status, pageRequest, CountMode.NONE);
         
         // 转换为 DTO
         List<TaskDTO> taskDTOs = taskPage.getContent().stream()
@@ -156,13 +162,21 @@ public class TaskController {
     }
 
     @GetMapping("/{taskId}")
-    @ApiOperation("获取任务详情")
+    @ApiOperation(value = "获取任务详情", notes = "支持 If-None-Match，任务及所属计划未变化时返回 304")
     @ApiResponses({
         @ApiResponse(code = 200, message = "获取成功"),
+        @ApiResponse(code = 304, message = "未修改"),
         @ApiResponse(code = 404, message = "任务不存在")
     })
     public ResponseEntity<TaskDTO> getTaskById(
-        @ApiParam(value = "任务ID", required = true) @PathVariable Long taskId) {
+        @ApiParam(value = "任务ID", required = true) @PathVariable Long taskId,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        
+        // 先查版本标记，命中时不加载任务
+        String etag = EntityTagUtil.toETag(taskService.getTaskVersionTag(taskId));
+        if (EntityTagUtil.isNotModified(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         
         Task task = taskService.getTaskById(taskId);
         TaskDTO dto = convertToDTO(task);
@@ -172,7 +186,10 @@ public class TaskController {
         dto.setEvaluation(task.getEvaluation());
         dto.setEvaluateTime(task.getEvaluateTime());
         
-        return ResponseEntity.ok(dto);
+        // ETag 由返回的实例计算，两次查询之间任务或计划被修改时也与响应内容一致
+        return withETag(ResponseEntity.ok(), task)
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .body(dto);
     }
 
     @PatchMapping("/{taskId}/evaluate")
@@ -185,15 +202,19 @@ public class TaskController {
     })
     public ResponseEntity<TaskDTO> evaluateTask(
         @ApiParam(value = "任务ID", required = true) @PathVariable Long taskId,
-        @ApiParam(value = "评价信息", required = true) @Valid @RequestBody TaskEvaluationDTO evaluationDTO) {
+        @ApiParam(value = "评价信息", required = true) @Valid @RequestBody TaskEvaluationDTO evaluationDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @ApiIgnore @CurrentUser User currentUser) {
         
-        // 获取当前用户
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User currentUser = userService.findByUsername(username);
+        Task evaluatedTask = taskService.evaluateTask(taskId, evaluationDTO, currentUser, ifMatch);
+        return withETag(ResponseEntity.ok(), evaluatedTask).body(convertToDTO(evaluatedTask));
+    }
 
-        Task evaluatedTask = taskService.evaluateTask(taskId, evaluationDTO, currentUser);
-        return ResponseEntity.ok(convertToDTO(evaluatedTask));
+    /**
+     * 为响应附加由返回的任务实例计算的 ETag，客户端可直接用于下一次条件更新
+     */
+    private ResponseEntity.BodyBuilder withETag(ResponseEntity.BodyBuilder response, Task task) {
+        return response.eTag(EntityTagUtil.toETag(EntityTagUtil.versionTag(task)));
     }
 
     private TaskDTO convertToDTO(Task task) {
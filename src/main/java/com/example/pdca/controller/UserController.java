@@ -5,13 +5,13 @@ import com.example.pdca.dto.LoginResponse;
 import com.example.pdca.dto.UserDTO;
 import com.example.pdca.model.User;
 import com.example.pdca.service.UserService;
+import com.example.pdca.security.CurrentUser;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
+import springfox.documentation.annotations.ApiIgnore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -57,11 +57,7 @@ public class UserController {
 
     @GetMapping("/current")
     @ApiOperation("获取当前登录用户信息")
-    public ResponseEntity<UserDTO> getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User user = userService.findByUsername(username);
-        
+    public ResponseEntity<UserDTO> getCurrentUser(@ApiIgnore @CurrentUser User user) {
         UserDTO userDTO = new UserDTO();
         userDTO.setId(user.getId());
         userDTO.setUsername(user.getUsername());
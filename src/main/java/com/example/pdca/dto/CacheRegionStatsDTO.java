@@ -0,0 +1,17 @@
+package com.example.pdca.dto;
+
+import lombok.Data;
+
+/**
+ * 二级缓存区域统计数据传输对象
+ */
+@Data
+public class CacheRegionStatsDTO {
+    private String region;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long putCount;
+}
@@ -0,0 +1,33 @@
+package com.example.pdca.dto;
+
+import lombok.Data;
+
+/**
+ * 缓存统计数据传输对象
+ */
+@Data
+public class CacheStatsDTO {
+    private String name;
+
+    private long size;
+
+    private Long maximumSize;
+
+    private Long expireAfterWriteSeconds;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private double hitRate;
+
+    private long evictionCount;
+
+    private long loadSuccessCount;
+
+    private long loadFailureCount;
+
+    private double averageLoadPenaltyMillis;
+
+    private double totalLoadTimeMillis;
+}
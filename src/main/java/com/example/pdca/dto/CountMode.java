@@ -0,0 +1,13 @@
+package com.example.pdca.dto;
+
+/**
+ * 分页列表的总数统计方式
+ */
+public enum CountMode {
+    /** 每次执行 COUNT 查询，返回精确总数 */
+    EXACT,
+    /** 使用缓存的近似总数，缓存在后台定期刷新 */
+    APPROXIMATE,
+    /** 不统计总数，多查询一条记录判断是否还有下一页 */
+    NONE
+}
@@ -0,0 +1,27 @@
+package com.example.pdca.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 游标分页结果
+ * 按（创建时间、ID）倒序排列，不统计总数；取下一页时把 nextCursor 原样作为 cursor 参数传回
+ */
+@Data
+@ApiModel(description = "游标分页结果")
+public class CursorPage<T> {
+    @ApiModelProperty(value = "本页数据")
+    private List<T> content;
+
+    @ApiModelProperty(value = "每页大小", example = "10")
+    private int size;
+
+    @ApiModelProperty(value = "是否还有下一页")
+    private boolean hasNext;
+
+    @ApiModelProperty(value = "下一页游标，没有下一页时为空")
+    private String nextCursor;
+}
@@ -0,0 +1,38 @@
+package com.example.pdca.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Hibernate 统计数据传输对象
+ * 计数均为应用启动以来的累计值
+ */
+@Data
+public class HibernateStatsDTO {
+    private long prepareStatementCount;
+
+    private long queryExecutionCount;
+
+    private long entityLoadCount;
+
+    private long entityFetchCount;
+
+    private long collectionLoadCount;
+
+    private long collectionFetchCount;
+
+    private long secondLevelCacheHitCount;
+
+    private long secondLevelCacheMissCount;
+
+    private long secondLevelCachePutCount;
+
+    private long queryCacheHitCount;
+
+    private long queryCacheMissCount;
+
+    private long queryCachePutCount;
+
+    private List<CacheRegionStatsDTO> regions;
+}
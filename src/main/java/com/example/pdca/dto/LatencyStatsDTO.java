@@ -0,0 +1,22 @@
+package com.example.pdca.dto;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 延迟统计数据传输对象
+ * 按窗口名称（如 1m、5m）给出成功和失败调用的百分位耗时
+ */
+@Data
+public class LatencyStatsDTO {
+    private String name;
+
+    private long totalCount;
+
+    private long totalErrors;
+
+    private Map<String, LatencyWindowDTO> success;
+
+    private Map<String, LatencyWindowDTO> errors;
+}
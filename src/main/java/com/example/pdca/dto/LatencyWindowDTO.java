@@ -0,0 +1,20 @@
+package com.example.pdca.dto;
+
+import lombok.Data;
+
+/**
+ * 延迟窗口统计数据传输对象
+ * 耗时单位均为毫秒
+ */
+@Data
+public class LatencyWindowDTO {
+    private long count;
+
+    private double p50;
+
+    private double p95;
+
+    private double p99;
+
+    private double max;
+}
@@ -0,0 +1,23 @@
+package com.example.pdca.dto;
+
+import lombok.Data;
+
+/**
+ * 阶段记录数量统计数据传输对象
+ * 由数据库分组聚合查询直接构造，按阶段和记录类型统计记录条数
+ */
+@Data
+public class PhaseRecordCountDTO {
+    private Long phaseId;
+
+    /** 记录类型名称，未设置类型的记录为 null */
+    private String type;
+
+    private long count;
+
+    public PhaseRecordCountDTO(Long phaseId, Enum<?> type, Long count) {
+        this.phaseId = phaseId;
+        this.type = type != null ? type.name() : null;
+        this.count = count != null ? count : 0;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.pdca.dto;
+
+import lombok.Data;
+
+/**
+ * 待预生成报告的计划数据传输对象
+ * 由查询直接构造，只包含生成报告所需的计划ID和创建者ID
+ */
+@Data
+public class PlanReportCandidateDTO {
+    private Long planId;
+
+    private Long creatorId;
+
+    public PlanReportCandidateDTO(Long planId, Long creatorId) {
+        this.planId = planId;
+        this.creatorId = creatorId;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.pdca.dto;
+
+import lombok.Data;
+
+/**
+ * 计划任务评分统计数据传输对象
+ * 由数据库聚合查询直接构造，不加载任务实体
+ */
+@Data
+public class PlanScoreStatsDTO {
+    private long totalTasks;
+
+    private long evaluatedTasks;
+
+    private long unevaluatedTasks;
+
+    /** 已评分任务的平均分，没有已评分任务时为 null */
+    private Double averageScore;
+
+    private Integer minScore;
+
+    private Integer maxScore;
+
+    public PlanScoreStatsDTO(Long totalTasks, Long evaluatedTasks, Double averageScore, Integer minScore, Integer maxScore) {
+        this.totalTasks = totalTasks != null ? totalTasks : 0;
+        this.evaluatedTasks = evaluatedTasks != null ? evaluatedTasks : 0;
+        this.unevaluatedTasks = this.totalTasks - this.evaluatedTasks;
+        this.averageScore = averageScore;
+        this.minScore = minScore;
+        this.maxScore = maxScore;
+    }
+
+    /**
+     * 所有任务都已评分时才能生成报告，没有任务的计划视为可生成
+     */
+    public boolean isReadyForReport() {
+        return unevaluatedTasks == 0;
+    }
+}
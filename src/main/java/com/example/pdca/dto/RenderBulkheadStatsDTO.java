@@ -0,0 +1,28 @@
+package com.example.pdca.dto;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 导出渲染隔离舱统计数据传输对象
+ * 计数均为应用启动以来的累计值，等待时间按窗口名称（如 1m、5m）给出
+ */
+@Data
+public class RenderBulkheadStatsDTO {
+    private int maxConcurrent;
+
+    private int active;
+
+    private int maxWaiting;
+
+    private int waiting;
+
+    private long acquiredCount;
+
+    private long rejectedQueueFullCount;
+
+    private long rejectedTimeoutCount;
+
+    private Map<String, LatencyWindowDTO> waitTime;
+}
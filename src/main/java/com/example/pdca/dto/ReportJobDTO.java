@@ -0,0 +1,40 @@
+package com.example.pdca.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 报告生成任务数据传输对象
+ */
+@Data
+public class ReportJobDTO {
+    private String jobId;
+    private Long planId;
+    private Long creatorId;
+    private JobStatus status;
+
+    /** 进度百分比，0~100 */
+    private int progress;
+
+    private String message;
+    private Long reportId;
+
+    /** 相关资源链接：self、report、pdf、excel */
+    private Map<String, String> links;
+
+    private LocalDateTime createdTime;
+    private LocalDateTime startedTime;
+    private LocalDateTime finishedTime;
+
+    /**
+     * 任务状态枚举
+     */
+    public enum JobStatus {
+        QUEUED,      // 排队中
+        RUNNING,     // 执行中
+        SUCCEEDED,   // 已完成
+        FAILED       // 失败
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.pdca.dto;
+
+import com.example.pdca.model.Report;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 报告摘要数据传输对象
+ * 用于报告列表，由查询直接构造，不包含摘要和各阶段分析文本
+ */
+@Data
+@ApiModel(description = "报告摘要数据传输对象")
+public class ReportSummaryDTO {
+    @ApiModelProperty(value = "报告ID", example = "1")
+    private Long id;
+
+    @ApiModelProperty(value = "报告标题")
+    private String title;
+
+    @ApiModelProperty(value = "报告类型", allowableValues = "PDCA_CYCLE, PROJECT_SUMMARY, PERFORMANCE")
+    private Report.ReportType type;
+
+    @ApiModelProperty(value = "报告状态", allowableValues = "DRAFT, COMPLETED, REVIEWED, PUBLISHED")
+    private Report.ReportStatus status;
+
+    @ApiModelProperty(value = "创建时间")
+    private LocalDateTime createdTime;
+
+    @ApiModelProperty(value = "关联计划ID", example = "1")
+    private Long planId;
+
+    @ApiModelProperty(value = "关联计划标题")
+    private String planTitle;
+
+    @ApiModelProperty(value = "创建者用户名")
+    private String creatorUsername;
+
+    public ReportSummaryDTO(Long id, String title, Report.ReportType type, Report.ReportStatus status,
+                            LocalDateTime createdTime, Long planId, String planTitle, String creatorUsername) {
+        this.id = id;
+        this.title = title;
+        this.type = type;
+        this.status = status;
+        this.createdTime = createdTime;
+        this.planId = planId;
+        this.planTitle = planTitle;
+        this.creatorUsername = creatorUsername;
+    }
+}
@@ -2,8 +2,10 @@ package com.example.pdca.exception;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.validation.FieldError;
@@ -121,6 +123,42 @@ public class EnhancedGlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, ex.getStatus());
     }
 
+    /**
+     * 处理渲染名额不足
+     * 通过 Retry-After 告知客户端多久后重试
+     */
+    @ExceptionHandler(RenderRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleRenderRejectedException(RenderRejectedException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            LocalDateTime.now(),
+            ex.getStatus().value(),
+            "导出繁忙",
+            ex.getMessage()
+        );
+
+        logger.warn("导出渲染被拒绝: {}", ex.getMessage());
+        return ResponseEntity.status(ex.getStatus())
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(errorResponse);
+    }
+
+    /**
+     * 处理乐观锁冲突
+     * 并发更新同一实体时后提交的一方失败，与 If-Match 不匹配一样返回 412
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.PRECONDITION_FAILED.value(),
+            "更新冲突",
+            "资源已被修改，请刷新后重试"
+        );
+
+        logger.warn("乐观锁冲突: {}", ex.getMessage());
+        return new ResponseEntity<>(errorResponse, HttpStatus.PRECONDITION_FAILED);
+    }
+
     /**
      * 处理其他未知异常
      */
@@ -0,0 +1,20 @@
+package com.example.pdca.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * 渲染名额不足异常
+ * 导出渲染已饱和时抛出，携带建议的重试等待秒数
+ */
+public class RenderRejectedException extends BusinessException {
+    private final long retryAfterSeconds;
+
+    public RenderRejectedException(String message, HttpStatus status, long retryAfterSeconds) {
+        super(message, status);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
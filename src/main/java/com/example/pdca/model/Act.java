@@ -1,5 +1,6 @@
 package com.example.pdca.model;
 
+import com.fasterxml.jackson.annotation.JsonManagedReference;
 import lombok.Data;
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
@@ -26,11 +27,11 @@ public class Act {
     @Column(length = 1000)
     private String description;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "check_id")
     private Check checkPhase;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "executor_id")
     private User executor;
 
@@ -43,6 +44,7 @@ public class Act {
     private ActStatus status = ActStatus.IN_PROGRESS;
 
     @OneToMany(mappedBy = "actPhase", cascade = CascadeType.ALL, orphanRemoval = true)
+    @JsonManagedReference
     private List<ActRecord> records;
 
     /**
@@ -10,10 +10,14 @@ import java.time.LocalDateTime;
  */
 @Data
 @Entity
-@Table(name = "pdca_action_log")
+@Table(name = "pdca_action_log", indexes = {
+    // 按计划、任务游标分页
+    @Index(name = "idx_action_log_plan_time_id", columnList = "plan_id, create_time, id"),
+    @Index(name = "idx_action_log_task_time_id", columnList = "task_id, create_time, id")
+})
 public class ActionLog {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = IdGenerators.SNOWFLAKE)
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -23,15 +27,15 @@ public class ActionLog {
     @Column(length = 1000)
     private String content;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "plan_id")
     private Plan plan;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "task_id")
     private Task task;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "creator_id")
     private User creator;
 
@@ -1,5 +1,6 @@
 package com.example.pdca.model;
 
+import com.fasterxml.jackson.annotation.JsonManagedReference;
 import lombok.Data;
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
@@ -26,11 +27,11 @@ public class Check {
     @Column(length = 1000)
     private String description;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "do_phase_id")
     private DoPhase doPhase;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "checker_id")
     private User checker;
 
@@ -43,6 +44,7 @@ public class Check {
     private CheckStatus status = CheckStatus.IN_PROGRESS;
 
     @OneToMany(mappedBy = "checkPhase", cascade = CascadeType.ALL, orphanRemoval = true)
+    @JsonManagedReference
     private List<CheckResult> results;
 
     /**
@@ -1,5 +1,6 @@
 package com.example.pdca.model;
 
+import com.fasterxml.jackson.annotation.JsonManagedReference;
 import lombok.Data;
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
@@ -26,11 +27,11 @@ public class DoPhase {
     @Column(length = 1000)
     private String description;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "plan_id")
     private Plan plan;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "executor_id")
     private User executor;
 
@@ -43,6 +44,7 @@ public class DoPhase {
     private DoStatus status = DoStatus.IN_PROGRESS;
 
     @OneToMany(mappedBy = "doPhase", cascade = CascadeType.ALL, orphanRemoval = true)
+    @JsonManagedReference
     private List<DoRecord> records;
 
     @Column(name = "create_time")
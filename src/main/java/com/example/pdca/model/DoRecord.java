@@ -1,5 +1,6 @@
 package com.example.pdca.model;
 
+import com.fasterxml.jackson.annotation.JsonBackReference;
 import lombok.Data;
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
@@ -14,18 +15,19 @@ import java.time.LocalDateTime;
 @Table(name = "pdca_do_record")
 public class DoRecord {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = IdGenerators.SNOWFLAKE)
     private Long id;
 
     @NotBlank(message = "记录内容不能为空")
     @Column(length = 1000)
     private String content;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "do_id")
+    @JsonBackReference
     private DoPhase doPhase;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "recorder_id")
     private User recorder;
 
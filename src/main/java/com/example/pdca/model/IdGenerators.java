@@ -0,0 +1,22 @@
+package com.example.pdca.model;
+
+/**
+ * 主键生成器名称，生成器定义见 package-info.java
+ * 实体通过 @GeneratedValue(generator = ...) 选择；未指定时仍使用数据库自增（IDENTITY），自增主键的插入无法批量执行
+ */
+public final class IdGenerators {
+
+    /**
+     * 应用内按时间排序生成，不访问数据库，适合批量写入的子表和日志表
+     */
+    public static final String SNOWFLAKE = "snowflake";
+
+    /**
+     * 号段表生成（pooled-lo），每次从 pdca_id_sequence 取一段主键，每个实体表一行
+     * 已有数据的库切换到该生成器前，需要把对应行的 next_val 设置为大于表中最大ID的值
+     */
+    public static final String POOLED = "pooled";
+
+    private IdGenerators() {
+    }
+}
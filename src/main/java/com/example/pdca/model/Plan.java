@@ -1,6 +1,8 @@
 package com.example.pdca.model;
 
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
@@ -16,12 +18,20 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
  */
 @Data
 @Entity
-@Table(name = "pdca_plan")
+@Table(name = "pdca_plan", indexes = {
+    // 游标分页按（创建时间、ID）定位
+    @Index(name = "idx_plan_create_time_id", columnList = "create_time, id")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "plan")
 public class Plan {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /** 乐观锁版本号，同时用于生成 ETag */
+    @Version
+    private Long version;
+
     @NotBlank(message = "计划标题不能为空")
     private String title;
 
@@ -39,7 +49,7 @@ public class Plan {
     @NotNull(message = "结束时间不能为空")
     private LocalDateTime endTime;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "creator_id")
     @JsonIgnore
     private User creator;
@@ -53,6 +63,7 @@ public class Plan {
 
     @OneToMany(mappedBy = "plan", cascade = CascadeType.ALL)
     @JsonManagedReference
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "plan-tasks")
     private List<Task> tasks;
 
     @Column(length = 500)
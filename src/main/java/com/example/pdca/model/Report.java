@@ -1,5 +1,6 @@
 package com.example.pdca.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
@@ -11,35 +12,48 @@ import java.time.LocalDateTime;
  */
 @Data
 @Entity
-@Table(name = "pdca_report")
+@Table(name = "pdca_report", indexes = {
+    // 游标分页按（创建时间、ID）定位
+    @Index(name = "idx_report_created_time_id", columnList = "createdTime, id")
+})
 public class Report {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /** 乐观锁版本号，同时用于生成 ETag */
+    @Version
+    private Long version;
+
     @NotBlank(message = "报告标题不能为空")
     private String title;
 
+    /** 摘要和各阶段分析文本为懒加载属性（需字节码增强），列表查询不会读取 */
+    @Basic(fetch = FetchType.LAZY)
     @Column(length = 2000)
     private String summary;
 
+    @Basic(fetch = FetchType.LAZY)
     @Column(length = 2000)
     private String planningAnalysis;
 
+    @Basic(fetch = FetchType.LAZY)
     @Column(length = 2000)
     private String doingAnalysis;
 
+    @Basic(fetch = FetchType.LAZY)
     @Column(length = 2000)
     private String checkingAnalysis;
 
+    @Basic(fetch = FetchType.LAZY)
     @Column(length = 2000)
     private String actingAnalysis;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "plan_id")
     private Plan plan;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "creator_id")
     private User creator;
 
@@ -51,6 +65,11 @@ public class Report {
     @Enumerated(EnumType.STRING)
     private ReportStatus status = ReportStatus.DRAFT;
 
+    /** 写操作在事务内计算的版本标记，用于生成响应的 ETag，不持久化 */
+    @Transient
+    @JsonIgnore
+    private String versionTag;
+
     /**
      * 报告类型枚举
      */
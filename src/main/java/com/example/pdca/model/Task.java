@@ -1,6 +1,8 @@
 package com.example.pdca.model;
 
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
@@ -13,12 +15,20 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
  */
 @Data
 @Entity
-@Table(name = "pdca_task")
+@Table(name = "pdca_task", indexes = {
+    // 游标分页按（创建时间、ID）定位
+    @Index(name = "idx_task_create_time_id", columnList = "create_time, id")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "task")
 public class Task {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = IdGenerators.SNOWFLAKE)
     private Long id;
 
+    /** 乐观锁版本号，同时用于生成 ETag */
+    @Version
+    private Long version;
+
     @NotBlank(message = "任务名称不能为空")
     private String name;
 
@@ -31,12 +41,12 @@ public class Task {
     @NotNull(message = "结束时间不能为空")
     private LocalDateTime endTime;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "plan_id")
     @JsonBackReference
     private Plan plan;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "assignee_id")
     private User assignee;
 
@@ -1,6 +1,9 @@
 package com.example.pdca.model;
 
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import javax.persistence.*;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
@@ -13,6 +16,9 @@ import java.time.LocalDateTime;
 @Data
 @Entity
 @Table(name = "sys_user")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
+// 只更新变化的列，登录时写入最后登录时间不会覆盖并发修改的角色和账号版本
+@DynamicUpdate
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -34,6 +40,10 @@ public class User {
 
     private Boolean enabled = true;  // 账号是否可用
 
+    /** 账号版本，角色或启用状态变化时递增；令牌中的版本与之不一致即失效，历史数据为空时视为 0 */
+    @Column(name = "account_version")
+    private Long accountVersion = 0L;
+
     private LocalDateTime createTime;  // 创建时间
     private LocalDateTime lastLoginTime;  // 最后登录时间
 
@@ -0,0 +1,15 @@
+/**
+ * 实体类及主键生成器定义
+ */
+@GenericGenerator(name = IdGenerators.SNOWFLAKE, strategy = "com.example.pdca.util.SnowflakeIdGenerator")
+@GenericGenerator(name = IdGenerators.POOLED, strategy = "enhanced-table", parameters = {
+    @Parameter(name = TableGenerator.TABLE_PARAM, value = "pdca_id_sequence"),
+    @Parameter(name = TableGenerator.CONFIG_PREFER_SEGMENT_PER_ENTITY, value = "true"),
+    @Parameter(name = TableGenerator.INCREMENT_PARAM, value = "50"),
+    @Parameter(name = TableGenerator.OPT_PARAM, value = "pooled-lo")
+})
+package com.example.pdca.model;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.TableGenerator;
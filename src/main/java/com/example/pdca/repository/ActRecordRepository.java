@@ -1,14 +1,38 @@
 package com.example.pdca.repository;
 
+import com.example.pdca.dto.PhaseRecordCountDTO;
 import com.example.pdca.model.ActRecord;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * 行动记录数据访问接口
  * 提供基本的数据库操作方法
  */
 @Repository
 public interface ActRecordRepository extends JpaRepository<ActRecord, Long> {
-    // 可以添加自定义查询方法
-} 
\ No newline at end of file
+
+    /**
+     * 按阶段和类型统计计划下的行动记录数量
+     * @param planId 计划ID
+     * @return 各阶段各类型的记录数
+     */
+    @Query("SELECT new com.example.pdca.dto.PhaseRecordCountDTO(r.actPhase.id, r.type, COUNT(r.id)) " +
+           "FROM ActRecord r WHERE r.actPhase.checkPhase.doPhase.plan.id = :planId GROUP BY r.actPhase.id, r.type")
+    List<PhaseRecordCountDTO> countByPlanIdGroupByPhaseAndType(@Param("planId") Long planId);
+
+    /**
+     * 查询计划下最近的行动记录，条数由分页参数限定
+     * @param planId 计划ID
+     * @param pageable 分页参数，只取第一页
+     * @return 行动记录列表，按记录时间倒序
+     */
+    @Query("SELECT r FROM ActRecord r LEFT JOIN FETCH r.recorder " +
+           "WHERE r.actPhase.checkPhase.doPhase.plan.id = :planId ORDER BY r.recordTime DESC, r.id DESC")
+    List<ActRecord> findRecentByPlanId(@Param("planId") Long planId, Pageable pageable);
+}
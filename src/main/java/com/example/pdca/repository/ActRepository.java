@@ -5,12 +5,15 @@ import com.example.pdca.model.Check;
 import com.example.pdca.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * 行动数据访问接口
@@ -20,14 +23,62 @@ import java.util.List;
 public interface ActRepository extends JpaRepository<Act, Long> {
     List<Act> findByExecutor(User executor);
     List<Act> findByCheckPhase(Check checkPhase);
+
+    // 以下两个查询返回完整的行动阶段，实体图只包含多对一关联，各阶段的记录等集合在服务层按批加载
+
+    @EntityGraph(attributePaths = {"executor", "checkPhase", "checkPhase.checker", "checkPhase.doPhase",
+        "checkPhase.doPhase.executor", "checkPhase.doPhase.plan", "checkPhase.doPhase.plan.creator"})
     List<Act> findByStatus(Act.ActStatus status);
 
-    @Query("SELECT DISTINCT a FROM Act a WHERE a.executor = :user OR a.checkPhase.doPhase.plan.creator = :user")
+    @EntityGraph(attributePaths = {"executor", "checkPhase", "checkPhase.checker", "checkPhase.doPhase",
+        "checkPhase.doPhase.executor", "checkPhase.doPhase.plan", "checkPhase.doPhase.plan.creator"})
+    Optional<Act> findWithDetailsById(Long id);
+
+    // 只经过多对一关联，每个行动阶段对应一行，不需要 DISTINCT，计数也不必使用 COUNT(DISTINCT)
+    String USER_RELATED_WHERE = "WHERE (a.executor = :user OR a.checkPhase.doPhase.plan.creator = :user) ";
+
+    @Query("SELECT a FROM Act a " + USER_RELATED_WHERE)
     Page<Act> findByUserRelated(@Param("user") User user, Pageable pageable);
 
-    @Query("SELECT DISTINCT a FROM Act a WHERE (a.executor = :user OR a.checkPhase.doPhase.plan.creator = :user) AND a.status = :status")
+    @Query("SELECT a FROM Act a " + USER_RELATED_WHERE + "AND a.status = :status")
     Page<Act> findByUserRelatedAndStatus(
         @Param("user") User user, 
         @Param("status") Act.ActStatus status, 
         Pageable pageable);
-} 
\ No newline at end of file
+
+    /**
+     * 分片查询与用户相关的行动阶段，多查询一条判断是否有下一页，不执行 COUNT
+     * @param user 用户
+     * @param pageable 分页参数
+     * @return 行动阶段分片
+     */
+    @Query("SELECT a FROM Act a " + USER_RELATED_WHERE)
+    Slice<Act> findSliceByUserRelated(@Param("user") User user, Pageable pageable);
+
+    /**
+     * 分片查询与用户相关且处于指定状态的行动阶段，不执行 COUNT
+     * @param user 用户
+     * @param status 行动状态
+     * @param pageable 分页参数
+     * @return 行动阶段分片
+     */
+    @Query("SELECT a FROM Act a " + USER_RELATED_WHERE + "AND a.status = :status")
+    Slice<Act> findSliceByUserRelatedAndStatus(
+        @Param("user") User user,
+        @Param("status") Act.ActStatus status,
+        Pageable pageable);
+
+    @Query("SELECT COUNT(a) FROM Act a " + USER_RELATED_WHERE)
+    long countByUserRelated(@Param("user") User user);
+
+    @Query("SELECT COUNT(a) FROM Act a " + USER_RELATED_WHERE + "AND a.status = :status")
+    long countByUserRelatedAndStatus(@Param("user") User user, @Param("status") Act.ActStatus status);
+
+    /**
+     * 查询计划的行动阶段，同时抓取执行人
+     * @param planId 计划ID
+     * @return 行动阶段列表
+     */
+    @Query("SELECT a FROM Act a LEFT JOIN FETCH a.executor WHERE a.checkPhase.doPhase.plan.id = :planId ORDER BY a.id")
+    List<Act> findByPlanIdWithExecutor(@Param("planId") Long planId);
+}
@@ -5,12 +5,15 @@ import com.example.pdca.model.Plan;
 import com.example.pdca.model.Task;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ActionLogRepository extends JpaRepository<ActionLog, Long> {
@@ -19,14 +22,65 @@ public interface ActionLogRepository extends JpaRepository<ActionLog, Long> {
     // 或者使用派生查询
     void deleteByPlanId(Long planId);
     List<ActionLog> findByPlanOrderByCreateTimeDesc(Plan plan);
+
+    /**
+     * 查询任务的日志，日志直接作为响应返回，同时加载计划、任务及创建者
+     * @param task 任务
+     * @return 日志列表
+     */
+    @EntityGraph(attributePaths = {"plan", "plan.creator", "task", "task.assignee", "creator"})
     List<ActionLog> findByTaskOrderByCreateTimeDesc(Task task);
+
     Page<ActionLog> findByPlanOrderByCreateTimeDesc(Plan plan, Pageable pageable);
     Page<ActionLog> findByTaskOrderByCreateTimeDesc(Task task, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"plan", "plan.creator", "task", "task.assignee", "creator"})
+    Optional<ActionLog> findWithDetailsById(Long id);
+
+    @EntityGraph(attributePaths = {"creator"})
     @Query("SELECT DISTINCT al FROM ActionLog al " +
            "LEFT JOIN Task t ON al.task = t " +
            "WHERE al.plan.id = :planId " +
            "OR t.plan.id = :planId " +
            "ORDER BY al.createTime DESC")
     List<ActionLog> findByPlanIdWithTasksOrderByCreateTimeDesc(@Param("planId") Long planId);
+
+    /**
+     * 游标分页查询计划及其任务的日志，从（createTime, id）位置之后开始，按创建时间和ID倒序
+     * @param planId 计划ID
+     * @param createTime 游标位置的创建时间
+     * @param id 游标位置的ID
+     * @param pageable 只限制条数
+     * @return 日志列表
+     */
+    @Query("SELECT al FROM ActionLog al " +
+           "LEFT JOIN FETCH al.creator " +
+           "LEFT JOIN al.task t " +
+           "WHERE (al.plan.id = :planId OR t.plan.id = :planId) " +
+           "AND (al.createTime < :createTime OR (al.createTime = :createTime AND al.id < :id)) " +
+           "ORDER BY al.createTime DESC, al.id DESC")
+    List<ActionLog> findByPlanIdWithTasksBefore(
+        @Param("planId") Long planId,
+        @Param("createTime") LocalDateTime createTime,
+        @Param("id") Long id,
+        Pageable pageable);
+
+    /**
+     * 游标分页查询任务的日志
+     * @param taskId 任务ID
+     * @param createTime 游标位置的创建时间
+     * @param id 游标位置的ID
+     * @param pageable 只限制条数
+     * @return 日志列表
+     */
+    @Query("SELECT al FROM ActionLog al " +
+           "LEFT JOIN FETCH al.creator " +
+           "WHERE al.task.id = :taskId " +
+           "AND (al.createTime < :createTime OR (al.createTime = :createTime AND al.id < :id)) " +
+           "ORDER BY al.createTime DESC, al.id DESC")
+    List<ActionLog> findByTaskIdBefore(
+        @Param("taskId") Long taskId,
+        @Param("createTime") LocalDateTime createTime,
+        @Param("id") Long id,
+        Pageable pageable);
 } 
\ No newline at end of file
@@ -3,10 +3,14 @@ package com.example.pdca.repository;
 import com.example.pdca.model.Check;
 import com.example.pdca.model.DoPhase;
 import com.example.pdca.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * 检查数据访问接口
@@ -14,7 +18,24 @@ import java.util.List;
  */
 @Repository
 public interface CheckRepository extends JpaRepository<Check, Long> {
+    // 以下查询的实体图只包含多对一关联，检查结果等集合在服务层按批加载
+
+    @EntityGraph(attributePaths = {"doPhase", "doPhase.plan", "doPhase.plan.creator", "doPhase.executor", "checker"})
     List<Check> findByChecker(User checker);
+
     List<Check> findByDoPhase(DoPhase doPhase);
+
+    @EntityGraph(attributePaths = {"doPhase", "doPhase.plan", "doPhase.plan.creator", "doPhase.executor", "checker"})
     List<Check> findByStatus(Check.CheckStatus status);
-} 
\ No newline at end of file
+
+    @EntityGraph(attributePaths = {"doPhase", "doPhase.plan", "doPhase.plan.creator", "doPhase.executor", "checker"})
+    Optional<Check> findWithDetailsById(Long id);
+
+    /**
+     * 查询计划的检查阶段，同时抓取检查人
+     * @param planId 计划ID
+     * @return 检查阶段列表
+     */
+    @Query("SELECT c FROM Check c LEFT JOIN FETCH c.checker WHERE c.doPhase.plan.id = :planId ORDER BY c.id")
+    List<Check> findByPlanIdWithChecker(@Param("planId") Long planId);
+}
@@ -1,14 +1,38 @@
 package com.example.pdca.repository;
 
+import com.example.pdca.dto.PhaseRecordCountDTO;
 import com.example.pdca.model.CheckResult;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * 检查结果数据访问接口
  * 提供基本的数据库操作方法
  */
 @Repository
 public interface CheckResultRepository extends JpaRepository<CheckResult, Long> {
-    // 可以添加自定义查询方法
-} 
\ No newline at end of file
+
+    /**
+     * 按阶段和类型统计计划下的检查结果数量
+     * @param planId 计划ID
+     * @return 各阶段各类型的记录数
+     */
+    @Query("SELECT new com.example.pdca.dto.PhaseRecordCountDTO(r.checkPhase.id, r.type, COUNT(r.id)) " +
+           "FROM CheckResult r WHERE r.checkPhase.doPhase.plan.id = :planId GROUP BY r.checkPhase.id, r.type")
+    List<PhaseRecordCountDTO> countByPlanIdGroupByPhaseAndType(@Param("planId") Long planId);
+
+    /**
+     * 查询计划下最近的检查结果，条数由分页参数限定
+     * @param planId 计划ID
+     * @param pageable 分页参数，只取第一页
+     * @return 检查结果列表，按记录时间倒序
+     */
+    @Query("SELECT r FROM CheckResult r LEFT JOIN FETCH r.recorder " +
+           "WHERE r.checkPhase.doPhase.plan.id = :planId ORDER BY r.recordTime DESC, r.id DESC")
+    List<CheckResult> findRecentByPlanId(@Param("planId") Long planId, Pageable pageable);
+}
@@ -1,14 +1,38 @@
 package com.example.pdca.repository;
 
+import com.example.pdca.dto.PhaseRecordCountDTO;
 import com.example.pdca.model.DoRecord;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * 执行记录数据访问接口
  * 提供基本的数据库操作方法
  */
 @Repository
 public interface DoRecordRepository extends JpaRepository<DoRecord, Long> {
-    // 可以添加自定义查询方法
-} 
\ No newline at end of file
+
+    /**
+     * 按阶段和类型统计计划下的执行记录数量
+     * @param planId 计划ID
+     * @return 各阶段各类型的记录数
+     */
+    @Query("SELECT new com.example.pdca.dto.PhaseRecordCountDTO(r.doPhase.id, r.type, COUNT(r.id)) " +
+           "FROM DoRecord r WHERE r.doPhase.plan.id = :planId GROUP BY r.doPhase.id, r.type")
+    List<PhaseRecordCountDTO> countByPlanIdGroupByPhaseAndType(@Param("planId") Long planId);
+
+    /**
+     * 查询计划下最近的执行记录，条数由分页参数限定
+     * @param planId 计划ID
+     * @param pageable 分页参数，只取第一页
+     * @return 执行记录列表，按记录时间倒序
+     */
+    @Query("SELECT r FROM DoRecord r LEFT JOIN FETCH r.recorder " +
+           "WHERE r.doPhase.plan.id = :planId ORDER BY r.recordTime DESC, r.id DESC")
+    List<DoRecord> findRecentByPlanId(@Param("planId") Long planId, Pageable pageable);
+}
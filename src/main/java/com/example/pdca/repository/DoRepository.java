@@ -5,10 +5,14 @@ import com.example.pdca.model.Plan;
 import com.example.pdca.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * 执行数据访问接口
@@ -16,8 +20,31 @@ import java.util.List;
  */
 @Repository
 public interface DoRepository extends JpaRepository<DoPhase, Long> {
+    // 以下查询的实体图只包含多对一关联，执行记录和计划的任务列表在服务层按批加载
+
+    @EntityGraph(attributePaths = {"plan", "plan.creator", "executor"})
     List<DoPhase> findByExecutor(User executor);
+
+    @EntityGraph(attributePaths = {"plan", "plan.creator", "executor"})
     List<DoPhase> findByStatus(DoPhase.DoStatus status);
+
+    @EntityGraph(attributePaths = {"plan", "plan.creator", "executor"})
     List<DoPhase> findByPlan(Plan plan);
+
+    @EntityGraph(attributePaths = {"plan", "plan.creator", "executor"})
     Page<DoPhase> findByStatus(DoPhase.DoStatus status, Pageable pageable);
-} 
\ No newline at end of file
+
+    @EntityGraph(attributePaths = {"plan", "plan.creator", "executor"})
+    Page<DoPhase> findAll(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"plan", "plan.creator", "executor"})
+    Optional<DoPhase> findWithDetailsById(Long id);
+
+    /**
+     * 查询计划的执行阶段，同时抓取执行人
+     * @param planId 计划ID
+     * @return 执行阶段列表
+     */
+    @Query("SELECT d FROM DoPhase d LEFT JOIN FETCH d.executor WHERE d.plan.id = :planId ORDER BY d.id")
+    List<DoPhase> findByPlanIdWithExecutor(@Param("planId") Long planId);
+}
@@ -1,15 +1,26 @@
 package com.example.pdca.repository;
 
+import com.example.pdca.dto.PlanReportCandidateDTO;
 import com.example.pdca.model.Plan;
+import com.example.pdca.model.Report;
 import com.example.pdca.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * 计划数据访问接口
@@ -17,6 +28,10 @@ import java.util.List;
  */
 @Repository
 public interface PlanRepository extends JpaRepository<Plan, Long> {
+
+    String USER_RELATED_WHERE = "WHERE (p.creator = :user " +
+        "OR EXISTS (SELECT t FROM Task t WHERE t.plan = p AND t.assignee = :user)) ";
+
     List<Plan> findByCreator(User creator);
     List<Plan> findByStatus(Plan.PlanStatus status);
     List<Plan> findByPriority(Plan.PriorityLevel priority);
@@ -25,22 +40,172 @@ public interface PlanRepository extends JpaRepository<Plan, Long> {
     Page<Plan> findByPriority(Plan.PriorityLevel priority, Pageable pageable);
     Page<Plan> findByStatusAndPriority(Plan.PlanStatus status, Plan.PriorityLevel priority, Pageable pageable);
 
-    @Query(value = "SELECT DISTINCT p FROM Plan p " +
-           "LEFT JOIN FETCH p.tasks " +
-           "WHERE p.creator = :user OR EXISTS (SELECT t FROM Task t WHERE t.plan = p AND t.assignee = :user)",
-           countQuery = "SELECT COUNT(DISTINCT p) FROM Plan p " +
-           "WHERE p.creator = :user OR EXISTS (SELECT t FROM Task t WHERE t.plan = p AND t.assignee = :user)")
-    Page<Plan> findByUserRelated(@Param("user") User user, Pageable pageable);
-
-    @Query(value = "SELECT DISTINCT p FROM Plan p " +
-           "LEFT JOIN FETCH p.tasks " +
-           "WHERE (p.creator = :user OR EXISTS (SELECT t FROM Task t WHERE t.plan = p AND t.assignee = :user)) " +
-           "AND p.status = :status",
-           countQuery = "SELECT COUNT(DISTINCT p) FROM Plan p " +
-           "WHERE (p.creator = :user OR EXISTS (SELECT t FROM Task t WHERE t.plan = p AND t.assignee = :user)) " +
-           "AND p.status = :status")
-    Page<Plan> findByUserRelatedAndStatus(
+    /**
+     * 分页查询与用户相关（创建或被分配任务）的计划ID
+     * 分页与排序在数据库中完成，计划及其任务随后通过 {@link #findWithTasksByIdIn} 加载
+     * @param user 用户
+     * @param pageable 分页参数
+     * @return 计划ID分页
+     */
+    @Query(value = "SELECT p.id FROM Plan p " + USER_RELATED_WHERE,
+           countQuery = "SELECT COUNT(p) FROM Plan p " + USER_RELATED_WHERE)
+    Page<Long> findIdPageByUserRelated(@Param("user") User user, Pageable pageable);
+
+    /**
+     * 分页查询与用户相关且处于指定状态的计划ID
+     * @param user 用户
+     * @param status 计划状态
+     * @param pageable 分页参数
+     * @return 计划ID分页
+     */
+    @Query(value = "SELECT p.id FROM Plan p " + USER_RELATED_WHERE + "AND p.status = :status",
+           countQuery = "SELECT COUNT(p) FROM Plan p " + USER_RELATED_WHERE + "AND p.status = :status")
+    Page<Long> findIdPageByUserRelatedAndStatus(
         @Param("user") User user, 
         @Param("status") Plan.PlanStatus status, 
         Pageable pageable);
-} 
\ No newline at end of file
+
+    /**
+     * 分片查询与用户相关的计划ID，多查询一条判断是否有下一页，不执行 COUNT
+     * @param user 用户
+     * @param pageable 分页参数
+     * @return 计划ID分片
+     */
+    @Query("SELECT p.id FROM Plan p " + USER_RELATED_WHERE)
+    Slice<Long> findIdSliceByUserRelated(@Param("user") User user, Pageable pageable);
+
+    /**
+     * 分片查询与用户相关且处于指定状态的计划ID，不执行 COUNT
+     * @param user 用户
+     * @param status 计划状态
+     * @param pageable 分页参数
+     * @return 计划ID分片
+     */
+    @Query("SELECT p.id FROM Plan p " + USER_RELATED_WHERE + "AND p.status = :status")
+    Slice<Long> findIdSliceByUserRelatedAndStatus(
+        @Param("user") User user,
+        @Param("status") Plan.PlanStatus status,
+        Pageable pageable);
+
+    @Query("SELECT COUNT(p) FROM Plan p " + USER_RELATED_WHERE)
+    long countByUserRelated(@Param("user") User user);
+
+    @Query("SELECT COUNT(p) FROM Plan p " + USER_RELATED_WHERE + "AND p.status = :status")
+    long countByUserRelatedAndStatus(@Param("user") User user, @Param("status") Plan.PlanStatus status);
+
+    /**
+     * 按ID加载计划及其任务
+     * 不分页，集合抓取连接不会导致内存分页；DISTINCT 只用于去除重复的计划，不下发到 SQL
+     * @param ids 计划ID
+     * @return 计划列表，顺序不保证与 ids 一致
+     */
+    @EntityGraph(attributePaths = {"creator", "tasks", "tasks.assignee"})
+    @Query("SELECT DISTINCT p FROM Plan p WHERE p.id IN :ids")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    List<Plan> findWithTasksByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 加载计划详情：创建者、任务及任务负责人，一条 SQL 完成
+     * @param id 计划ID
+     * @return 计划
+     */
+    @EntityGraph(attributePaths = {"creator", "tasks", "tasks.assignee"})
+    Optional<Plan> findWithDetailsById(Long id);
+
+    /**
+     * 加写锁读取计划，锁持有到事务结束
+     * 同一计划的 PDCA 循环报告生成据此串行执行，后到的事务在锁释放后才能继续，并能看到先提交的报告
+     * @param planId 计划ID
+     * @return 计划
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Plan p WHERE p.id = :planId")
+    Optional<Plan> findForUpdateById(@Param("planId") Long planId);
+
+    /**
+     * 按状态加载计划详情
+     * @param status 计划状态
+     * @return 计划列表
+     */
+    @EntityGraph(attributePaths = {"creator", "tasks", "tasks.assignee"})
+    @Query("SELECT DISTINCT p FROM Plan p WHERE p.status = :status")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    List<Plan> findWithDetailsByStatus(@Param("status") Plan.PlanStatus status);
+
+    /**
+     * 查询计划的版本标记，不加载实体
+     * 由计划版本号和任务数量、任务版本号之和、任务ID之和组成，任一任务增删改都会改变标记
+     * @param planId 计划ID
+     * @return 版本标记
+     */
+    @Query("SELECT CONCAT(str(p.version), '.', str(COUNT(t.id)), '.', " +
+           "str(COALESCE(SUM(t.version), 0)), '.', str(COALESCE(SUM(t.id), 0))) " +
+           "FROM Plan p LEFT JOIN p.tasks t WHERE p.id = :planId GROUP BY p.id, p.version")
+    Optional<String> findVersionTagById(@Param("planId") Long planId);
+
+    /**
+     * 查询计划标题，不加载实体
+     * @param planId 计划ID
+     * @return 计划标题
+     */
+    @Query("SELECT p.title FROM Plan p WHERE p.id = :planId")
+    Optional<String> findTitleById(@Param("planId") Long planId);
+
+    /**
+     * 按ID升序查找可生成报告的计划
+     * 条件为处于指定状态、所有任务均已评分且尚无指定类型的报告，从 afterId 之后开始查找
+     * @param status 计划状态
+     * @param type 报告类型
+     * @param afterId 上一批最后一个计划ID
+     * @param pageable 分页参数，只使用条数
+     * @return 计划ID与创建者ID
+     */
+    @Query("SELECT new com.example.pdca.dto.PlanReportCandidateDTO(p.id, c.id) FROM Plan p JOIN p.creator c " +
+           "WHERE p.status = :status AND p.id > :afterId " +
+           "AND NOT EXISTS (SELECT t.id FROM Task t WHERE t.plan = p AND t.score IS NULL) " +
+           "AND NOT EXISTS (SELECT r.id FROM Report r WHERE r.plan = p AND r.type = :type) " +
+           "ORDER BY p.id")
+    List<PlanReportCandidateDTO> findReportCandidates(
+        @Param("status") Plan.PlanStatus status,
+        @Param("type") Report.ReportType type,
+        @Param("afterId") Long afterId,
+        Pageable pageable);
+
+    /**
+     * 游标分页查询与用户相关的计划，只返回 ID 和游标所需的创建时间
+     * 计划及其任务随后通过 {@link #findWithTasksByIdIn} 加载
+     * @param user 用户
+     * @param createTime 游标位置的创建时间
+     * @param id 游标位置的ID
+     * @param pageable 只限制条数
+     * @return 计划ID列表，按创建时间和ID倒序
+     */
+    @Query("SELECT p.id FROM Plan p " + USER_RELATED_WHERE +
+           "AND (p.createTime < :createTime OR (p.createTime = :createTime AND p.id < :id)) " +
+           "ORDER BY p.createTime DESC, p.id DESC")
+    List<Long> findIdsByUserRelatedBefore(
+        @Param("user") User user,
+        @Param("createTime") LocalDateTime createTime,
+        @Param("id") Long id,
+        Pageable pageable);
+
+    /**
+     * 游标分页查询与用户相关且处于指定状态的计划ID
+     * @param user 用户
+     * @param status 计划状态
+     * @param createTime 游标位置的创建时间
+     * @param id 游标位置的ID
+     * @param pageable 只限制条数
+     * @return 计划ID列表，按创建时间和ID倒序
+     */
+    @Query("SELECT p.id FROM Plan p " + USER_RELATED_WHERE +
+           "AND p.status = :status " +
+           "AND (p.createTime < :createTime OR (p.createTime = :createTime AND p.id < :id)) " +
+           "ORDER BY p.createTime DESC, p.id DESC")
+    List<Long> findIdsByUserRelatedAndStatusBefore(
+        @Param("user") User user,
+        @Param("status") Plan.PlanStatus status,
+        @Param("createTime") LocalDateTime createTime,
+        @Param("id") Long id,
+        Pageable pageable);
+}
@@ -1,15 +1,20 @@
 package com.example.pdca.repository;
 
+import com.example.pdca.dto.ReportSummaryDTO;
 import com.example.pdca.model.Report;
 import com.example.pdca.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * 报告数据访问接口
@@ -17,21 +22,113 @@ import java.util.List;
  */
 @Repository
 public interface ReportRepository extends JpaRepository<Report, Long> {
+
+    String SUMMARY_SELECT = "SELECT new com.example.pdca.dto.ReportSummaryDTO(r.id, r.title, r.type, r.status, " +
+        "r.createdTime, p.id, p.title, c.username) FROM Report r LEFT JOIN r.plan p LEFT JOIN r.creator c ";
+
+    String SUMMARY_SEEK = "(r.createdTime < :createdTime OR (r.createdTime = :createdTime AND r.id < :id)) " +
+        "ORDER BY r.createdTime DESC, r.id DESC";
+
     List<Report> findByCreator(User creator);
     List<Report> findByType(Report.ReportType type);
     
-    // 修改分页查询方法
-    @Query(value = "SELECT DISTINCT r FROM Report r WHERE r.creator = :user",
-           countQuery = "SELECT COUNT(DISTINCT r) FROM Report r WHERE r.creator = :user")
-    Page<Report> findPageByCreator(@Param("user") User creator, Pageable pageable);
-    
-    @Query(value = "SELECT DISTINCT r FROM Report r WHERE r.type = :type",
-           countQuery = "SELECT COUNT(DISTINCT r) FROM Report r WHERE r.type = :type")
-    Page<Report> findPageByType(@Param("type") Report.ReportType type, Pageable pageable);
-    
-    @Query(value = "SELECT DISTINCT r FROM Report r WHERE r.status = :status",
-           countQuery = "SELECT COUNT(DISTINCT r) FROM Report r WHERE r.status = :status")
-    Page<Report> findPageByStatus(@Param("status") Report.ReportStatus status, Pageable pageable);
+    /**
+     * 分页查询用户创建的报告摘要，不读取分析文本
+     * @param creator 创建者
+     * @param pageable 分页参数
+     * @return 报告摘要分页
+     */
+    @Query(value = SUMMARY_SELECT + "WHERE r.creator = :user",
+           countQuery = "SELECT COUNT(r) FROM Report r WHERE r.creator = :user")
+    Page<ReportSummaryDTO> findSummaryPageByCreator(@Param("user") User creator, Pageable pageable);
+
+    /**
+     * 按类型分页查询报告摘要，不读取分析文本
+     * @param type 报告类型
+     * @param pageable 分页参数
+     * @return 报告摘要分页
+     */
+    @Query(value = SUMMARY_SELECT + "WHERE r.type = :type",
+           countQuery = "SELECT COUNT(r) FROM Report r WHERE r.type = :type")
+    Page<ReportSummaryDTO> findSummaryPageByType(@Param("type") Report.ReportType type, Pageable pageable);
+
+    /**
+     * 按状态分页查询报告摘要，不读取分析文本
+     * @param status 报告状态
+     * @param pageable 分页参数
+     * @return 报告摘要分页
+     */
+    @Query(value = SUMMARY_SELECT + "WHERE r.status = :status",
+           countQuery = "SELECT COUNT(r) FROM Report r WHERE r.status = :status")
+    Page<ReportSummaryDTO> findSummaryPageByStatus(@Param("status") Report.ReportStatus status, Pageable pageable);
+
+    /**
+     * 分片查询用户创建的报告摘要，多查询一条判断是否有下一页，不执行 COUNT
+     * @param creator 创建者
+     * @param pageable 分页参数
+     * @return 报告摘要分片
+     */
+    @Query(SUMMARY_SELECT + "WHERE r.creator = :user")
+    Slice<ReportSummaryDTO> findSummarySliceByCreator(@Param("user") User creator, Pageable pageable);
+
+    /**
+     * 按类型分片查询报告摘要，不执行 COUNT
+     * @param type 报告类型
+     * @param pageable 分页参数
+     * @return 报告摘要分片
+     */
+    @Query(SUMMARY_SELECT + "WHERE r.type = :type")
+    Slice<ReportSummaryDTO> findSummarySliceByType(@Param("type") Report.ReportType type, Pageable pageable);
+
+    /**
+     * 按状态分片查询报告摘要，不执行 COUNT
+     * @param status 报告状态
+     * @param pageable 分页参数
+     * @return 报告摘要分片
+     */
+    @Query(SUMMARY_SELECT + "WHERE r.status = :status")
+    Slice<ReportSummaryDTO> findSummarySliceByStatus(@Param("status") Report.ReportStatus status, Pageable pageable);
+
+    long countByCreator(User creator);
+    long countByType(Report.ReportType type);
+    long countByStatus(Report.ReportStatus status);
+
+    /**
+     * 按ID查找报告并立即加载全部懒加载属性
+     * 用于导出时在持久化上下文之外读取分析文本
+     * @param reportId 报告ID
+     * @return 报告
+     */
+    @Query("SELECT r FROM Report r FETCH ALL PROPERTIES WHERE r.id = :reportId")
+    Optional<Report> findWithContentById(@Param("reportId") Long reportId);
+
+    /**
+     * 按ID查找报告，同时加载计划和创建者，不读取分析文本
+     * @param reportId 报告ID
+     * @return 报告
+     */
+    @EntityGraph(attributePaths = {"plan", "creator"})
+    @Query("SELECT r FROM Report r WHERE r.id = :reportId")
+    Optional<Report> findWithPlanAndCreatorById(@Param("reportId") Long reportId);
+
+    /**
+     * 按ID查找报告详情：全部懒加载属性及创建者
+     * @param reportId 报告ID
+     * @return 报告
+     */
+    @EntityGraph(attributePaths = {"creator"})
+    @Query("SELECT r FROM Report r FETCH ALL PROPERTIES WHERE r.id = :reportId")
+    Optional<Report> findDetailById(@Param("reportId") Long reportId);
+
+    /**
+     * 根据计划ID和报告类型查找报告详情：全部懒加载属性及创建者
+     * @param planId 计划ID
+     * @param type 报告类型
+     * @return 报告列表
+     */
+    @EntityGraph(attributePaths = {"creator"})
+    @Query("SELECT r FROM Report r FETCH ALL PROPERTIES WHERE r.plan.id = :planId AND r.type = :type")
+    List<Report> findDetailByPlanAndType(@Param("planId") Long planId, @Param("type") Report.ReportType type);
 
     /**
      * 根据计划ID和报告类型查找报告
@@ -41,4 +138,60 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
      */
     @Query("SELECT r FROM Report r WHERE r.plan.id = :planId AND r.type = :type")
     List<Report> findByPlanAndType(@Param("planId") Long planId, @Param("type") Report.ReportType type);
-} 
\ No newline at end of file
+
+    /**
+     * 查询计划下指定类型报告的版本标记，不加载实体
+     * 由报告数量、版本号之和与ID之和组成，没有报告时为 0.0.0
+     * @param planId 计划ID
+     * @param type 报告类型
+     * @return 版本标记
+     */
+    @Query("SELECT CONCAT(str(COUNT(r.id)), '.', str(COALESCE(SUM(r.version), 0)), '.', str(COALESCE(SUM(r.id), 0))) " +
+           "FROM Report r WHERE r.plan.id = :planId AND r.type = :type")
+    String findVersionTagByPlanAndType(@Param("planId") Long planId, @Param("type") Report.ReportType type);
+
+    /**
+     * 游标分页查询用户创建的报告摘要，从（createdTime, id）位置之后开始，按创建时间和ID倒序
+     * @param creator 创建者
+     * @param createdTime 游标位置的创建时间
+     * @param id 游标位置的ID
+     * @param pageable 只限制条数
+     * @return 报告摘要列表
+     */
+    @Query(SUMMARY_SELECT + "WHERE r.creator = :user AND " + SUMMARY_SEEK)
+    List<ReportSummaryDTO> findSummariesByCreatorBefore(
+        @Param("user") User creator,
+        @Param("createdTime") LocalDateTime createdTime,
+        @Param("id") Long id,
+        Pageable pageable);
+
+    /**
+     * 游标分页按类型查询报告摘要
+     * @param type 报告类型
+     * @param createdTime 游标位置的创建时间
+     * @param id 游标位置的ID
+     * @param pageable 只限制条数
+     * @return 报告摘要列表
+     */
+    @Query(SUMMARY_SELECT + "WHERE r.type = :type AND " + SUMMARY_SEEK)
+    List<ReportSummaryDTO> findSummariesByTypeBefore(
+        @Param("type") Report.ReportType type,
+        @Param("createdTime") LocalDateTime createdTime,
+        @Param("id") Long id,
+        Pageable pageable);
+
+    /**
+     * 游标分页按状态查询报告摘要
+     * @param status 报告状态
+     * @param createdTime 游标位置的创建时间
+     * @param id 游标位置的ID
+     * @param pageable 只限制条数
+     * @return 报告摘要列表
+     */
+    @Query(SUMMARY_SELECT + "WHERE r.status = :status AND " + SUMMARY_SEEK)
+    List<ReportSummaryDTO> findSummariesByStatusBefore(
+        @Param("status") Report.ReportStatus status,
+        @Param("createdTime") LocalDateTime createdTime,
+        @Param("id") Long id,
+        Pageable pageable);
+}
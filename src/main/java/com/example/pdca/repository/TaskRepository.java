@@ -1,15 +1,20 @@
 package com.example.pdca.repository;
 
+import com.example.pdca.dto.PlanScoreStatsDTO;
 import com.example.pdca.model.Task;
 import com.example.pdca.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * 任务数据访问接口
@@ -17,44 +22,155 @@ import java.util.List;
  */
 @Repository
 public interface TaskRepository extends JpaRepository<Task, Long> {
+
+    String USER_RELATED_SELECT = "SELECT t FROM Task t LEFT JOIN FETCH t.plan LEFT JOIN FETCH t.assignee ";
+
+    String USER_RELATED_WHERE = "WHERE (t.assignee = :user OR t.plan.creator = :user) ";
+
     // 可以添加自定义查询方法
 
     Page<Task> findByStatus(Task.TaskStatus status, Pageable pageable);
 
-    @Query(value = "SELECT DISTINCT t FROM Task t " +
+    /**
+     * 加载任务及其所属计划和负责人，供返回任务详情的接口使用
+     * @param id 任务ID
+     * @return 任务
+     */
+    @EntityGraph(attributePaths = {"plan", "assignee"})
+    Optional<Task> findWithPlanAndAssigneeById(Long id);
+
+    // 以下查询只抓取多对一关联，每个任务对应一行，可以直接在数据库中分页，不需要 DISTINCT
+
+    @Query(value = "SELECT t FROM Task t " +
            "LEFT JOIN FETCH t.plan " +
            "LEFT JOIN FETCH t.assignee",
-           countQuery = "SELECT COUNT(DISTINCT t) FROM Task t")
+           countQuery = "SELECT COUNT(t) FROM Task t")
     Page<Task> findAllWithPlanAndAssignee(Pageable pageable);
     
-    @Query(value = "SELECT DISTINCT t FROM Task t " +
+    @Query(value = "SELECT t FROM Task t " +
            "LEFT JOIN FETCH t.plan " +
            "LEFT JOIN FETCH t.assignee " +
            "WHERE t.status = :status",
-           countQuery = "SELECT COUNT(DISTINCT t) FROM Task t WHERE t.status = :status")
+           countQuery = "SELECT COUNT(t) FROM Task t WHERE t.status = :status")
     Page<Task> findByStatusWithPlanAndAssignee(@Param("status") Task.TaskStatus status, Pageable pageable);
 
-    @Query(value = "SELECT DISTINCT t FROM Task t " +
-           "LEFT JOIN FETCH t.plan " +
-           "LEFT JOIN FETCH t.assignee " +
-           "WHERE t.assignee = :user OR t.plan.creator = :user",
-           countQuery = "SELECT COUNT(DISTINCT t) FROM Task t " +
-           "WHERE t.assignee = :user OR t.plan.creator = :user")
+    @Query(value = USER_RELATED_SELECT + USER_RELATED_WHERE,
+           countQuery = "SELECT COUNT(t) FROM Task t " + USER_RELATED_WHERE)
     Page<Task> findByUserRelated(@Param("user") User user, Pageable pageable);
 
-    @Query(value = "SELECT DISTINCT t FROM Task t " +
-           "LEFT JOIN FETCH t.plan " +
-           "LEFT JOIN FETCH t.assignee " +
-           "WHERE (t.assignee = :user OR t.plan.creator = :user) " +
-           "AND t.status = :status",
-           countQuery = "SELECT COUNT(DISTINCT t) FROM Task t " +
-           "WHERE (t.assignee = :user OR t.plan.creator = :user) " +
-           "AND t.status = :status")
+    @Query(value = USER_RELATED_SELECT + USER_RELATED_WHERE + "AND t.status = :status",
+           countQuery = "SELECT COUNT(t) FROM Task t " + USER_RELATED_WHERE + "AND t.status = :status")
     Page<Task> findByUserRelatedAndStatus(
         @Param("user") User user, 
         @Param("status") Task.TaskStatus status, 
         Pageable pageable);
 
+    /**
+     * 分片查询与用户相关的任务，多查询一条判断是否有下一页，不执行 COUNT
+     * @param user 用户
+     * @param pageable 分页参数
+     * @return 任务分片
+     */
+    @Query(USER_RELATED_SELECT + USER_RELATED_WHERE)
+    Slice<Task> findSliceByUserRelated(@Param("user") User user, Pageable pageable);
+
+    /**
+     * 分片查询与用户相关且处于指定状态的任务，不执行 COUNT
+     * @param user 用户
+     * @param status 任务状态
+     * @param pageable 分页参数
+     * @return 任务分片
+     */
+    @Query(USER_RELATED_SELECT + USER_RELATED_WHERE + "AND t.status = :status")
+    Slice<Task> findSliceByUserRelatedAndStatus(
+        @Param("user") User user,
+        @Param("status") Task.TaskStatus status,
+        Pageable pageable);
+
+    @Query("SELECT COUNT(t) FROM Task t " + USER_RELATED_WHERE)
+    long countByUserRelated(@Param("user") User user);
+
+    @Query("SELECT COUNT(t) FROM Task t " + USER_RELATED_WHERE + "AND t.status = :status")
+    long countByUserRelatedAndStatus(@Param("user") User user, @Param("status") Task.TaskStatus status);
+
     List<Task> findByAssignee(User assignee);
     List<Task> findByAssigneeAndStatus(User assignee, Task.TaskStatus status);
-} 
\ No newline at end of file
+
+    /**
+     * 查询任务的版本标记，不加载实体
+     * 任务详情包含计划标题，因此标记中同时带上所属计划的版本号
+     * @param taskId 任务ID
+     * @return 版本标记
+     */
+    @Query("SELECT CONCAT(str(t.version), '.', str(COALESCE(p.version, 0))) " +
+           "FROM Task t LEFT JOIN t.plan p WHERE t.id = :taskId")
+    Optional<String> findVersionTagById(@Param("taskId") Long taskId);
+
+    /**
+     * 统计计划的任务评分情况，返回单行聚合结果
+     * @param planId 计划ID
+     * @return 任务总数、已评分数及平均分、最低分、最高分
+     */
+    @Query("SELECT new com.example.pdca.dto.PlanScoreStatsDTO(COUNT(t.id), COUNT(t.score), AVG(t.score), MIN(t.score), MAX(t.score)) " +
+           "FROM Task t WHERE t.plan.id = :planId")
+    PlanScoreStatsDTO findScoreStatsByPlanId(@Param("planId") Long planId);
+
+    /**
+     * 查询计划下的任务评价，条数由分页参数限定
+     * @param planId 计划ID
+     * @param pageable 分页参数，只取第一页
+     * @return 任务列表，按ID升序
+     */
+    @Query("SELECT t FROM Task t WHERE t.plan.id = :planId ORDER BY t.id")
+    List<Task> findEvaluationsByPlanId(@Param("planId") Long planId, Pageable pageable);
+
+    /**
+     * 查询计划中未评分的任务
+     * @param planId 计划ID
+     * @return 未评分的任务列表
+     */
+    @Query("SELECT t FROM Task t WHERE t.plan.id = :planId AND t.score IS NULL")
+    List<Task> findUnevaluatedByPlanId(@Param("planId") Long planId);
+
+    /**
+     * 游标分页查询与用户相关的任务，从（createTime, id）位置之后开始，按创建时间和ID倒序
+     * @param user 用户
+     * @param createTime 游标位置的创建时间
+     * @param id 游标位置的ID
+     * @param pageable 只限制条数
+     * @return 任务列表
+     */
+    @Query("SELECT t FROM Task t " +
+           "LEFT JOIN FETCH t.plan " +
+           "LEFT JOIN FETCH t.assignee " +
+           "WHERE (t.assignee = :user OR t.plan.creator = :user) " +
+           "AND (t.createTime < :createTime OR (t.createTime = :createTime AND t.id < :id)) " +
+           "ORDER BY t.createTime DESC, t.id DESC")
+    List<Task> findByUserRelatedBefore(
+        @Param("user") User user,
+        @Param("createTime") LocalDateTime createTime,
+        @Param("id") Long id,
+        Pageable pageable);
+
+    /**
+     * 游标分页查询与用户相关且处于指定状态的任务
+     * @param user 用户
+     * @param status 任务状态
+     * @param createTime 游标位置的创建时间
+     * @param id 游标位置的ID
+     * @param pageable 只限制条数
+     * @return 任务列表
+     */
+    @Query("SELECT t FROM Task t " +
+           "LEFT JOIN FETCH t.plan " +
+           "LEFT JOIN FETCH t.assignee " +
+           "WHERE (t.assignee = :user OR t.plan.creator = :user) AND t.status = :status " +
+           "AND (t.createTime < :createTime OR (t.createTime = :createTime AND t.id < :id)) " +
+           "ORDER BY t.createTime DESC, t.id DESC")
+    List<Task> findByUserRelatedAndStatusBefore(
+        @Param("user") User user,
+        @Param("status") Task.TaskStatus status,
+        @Param("createTime") LocalDateTime createTime,
+        @Param("id") Long id,
+        Pageable pageable);
+}
@@ -2,8 +2,10 @@ package com.example.pdca.repository;
 
 import com.example.pdca.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,5 +19,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    /**
+     * 按角色查询用户
+     * 用户角色很少变化，结果放入 Hibernate 查询缓存
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<User> findByRole(User.UserRole role);
 } 
\ No newline at end of file
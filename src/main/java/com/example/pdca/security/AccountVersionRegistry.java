@@ -0,0 +1,59 @@
+package com.example.pdca.security;
+
+import com.example.pdca.model.User;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * 账号版本登记表
+ * 账号版本保存在用户表中，与角色、启用状态在同一事务中提交，重启后旧令牌不会重新生效。
+ * 校验时通过用户二级缓存区域读取，缓存命中时不查询数据库，也不占用连接。
+ * 二级缓存是进程内缓存：多节点部署时，其他节点要等该用户的缓存条目过期（user 区域 30 分钟）后才能感知变更
+ */
+@Component
+public class AccountVersionRegistry {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * 获取账号当前版本
+     * @param userId 用户ID
+     * @return 版本戳，用户不存在时为 0
+     */
+    public long currentVersion(Long userId) {
+        User user = entityManager.find(User.class, userId);
+        return user != null ? versionOf(user) : 0L;
+    }
+
+    /**
+     * 检查令牌中的版本戳是否仍然有效
+     * @param userId 用户ID
+     * @param version 令牌中的版本戳
+     * @return 用户存在、已启用且版本一致时有效
+     */
+    public boolean isCurrent(Long userId, long version) {
+        User user = entityManager.find(User.class, userId);
+        return user != null && Boolean.TRUE.equals(user.getEnabled()) && versionOf(user) == version;
+    }
+
+    /**
+     * 账号发生变更（角色、启用状态等），递增账号版本，使之前签发的令牌全部失效
+     * 只修改实体，随调用方事务一同提交；提交前并发登录读到的仍是旧角色和旧版本
+     * @param user 受管状态的用户
+     */
+    public void accountChanged(User user) {
+        user.setAccountVersion(versionOf(user) + 1);
+    }
+
+    /**
+     * 获取用户实体上的账号版本
+     * @param user 用户
+     * @return 版本戳
+     */
+    public static long versionOf(User user) {
+        return user.getAccountVersion() != null ? user.getAccountVersion() : 0L;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.pdca.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 当前登录用户参数注解
+ * 标注在控制器方法的 User 参数上，由 {@link CurrentUserArgumentResolver} 注入
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+
+    /**
+     * 是否只需要用户引用
+     * 为 true 时返回不查询数据库的延迟引用，仅适用于只用到用户ID的场景（例如作为查询参数）
+     */
+    boolean reference() default false;
+}
@@ -0,0 +1,62 @@
+package com.example.pdca.security;
+
+import com.example.pdca.model.User;
+import com.example.pdca.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * 当前登录用户参数解析器
+ * 复用过滤器从令牌中解析出的认证主体，每个请求最多加载一次用户实体
+ */
+@Component
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final String CURRENT_USER_ATTRIBUTE = CurrentUserArgumentResolver.class.getName() + ".USER";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+            && User.class.isAssignableFrom(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter,
+                                  ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest,
+                                  WebDataBinderFactory binderFactory) {
+        // 同一请求内已加载过的用户实体直接复用
+        User loaded = (User) webRequest.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (loaded != null) {
+            return loaded;
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof JwtUserPrincipal)) {
+            throw new AuthenticationCredentialsNotFoundException("未登录");
+        }
+        JwtUserPrincipal principal = (JwtUserPrincipal) authentication.getPrincipal();
+
+        // 只需要ID时返回延迟引用，不产生查询
+        if (parameter.getParameterAnnotation(CurrentUser.class).reference()) {
+            return userRepository.getById(principal.getId());
+        }
+
+        User user = userRepository.findById(principal.getId())
+            .orElseThrow(() -> new AuthenticationCredentialsNotFoundException("用户不存在"));
+        webRequest.setAttribute(CURRENT_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        return user;
+    }
+}
@@ -1,12 +1,11 @@
 package com.example.pdca.security;
 
-import com.example.pdca.service.CustomUserDetailsService;
 import com.example.pdca.util.JwtTokenUtil;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -25,7 +24,7 @@ import java.io.IOException;
 public class JwtRequestFilter extends OncePerRequestFilter {
 
     @Autowired
-    private CustomUserDetailsService userDetailsService;
+    private AccountVersionRegistry accountVersionRegistry;
 
     @Autowired
     private JwtTokenUtil jwtTokenUtil;
@@ -39,13 +38,15 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         final String requestTokenHeader = request.getHeader("Authorization");
 
         String username = null;
-        String jwtToken = null;
+        Claims claims = null;
 
         // JWT Token 通常格式为 "Bearer token"
         if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
-            jwtToken = requestTokenHeader.substring(7);
+            String jwtToken = requestTokenHeader.substring(7);
             try {
-                username = jwtTokenUtil.getUsernameFromToken(jwtToken);
+                // 只解析一次令牌，后续校验复用同一份声明
+                claims = jwtTokenUtil.getVerifiedClaims(jwtToken);
+                username = claims.getSubject();
             } catch (IllegalArgumentException e) {
                 logger.warn("无法获取 JWT Token");
             } catch (ExpiredJwtException e) {
@@ -53,14 +54,16 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             }
         }
 
-        // 验证令牌
+        // 验证令牌，认证信息完全由令牌声明构建；账号版本从用户二级缓存读取，命中时不查询数据库
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            JwtUserPrincipal principal = jwtTokenUtil.getPrincipalFromClaims(claims);
 
-            if (jwtTokenUtil.validateToken(jwtToken, username)) {
+            if (principal != null
+                    && jwtTokenUtil.validateClaims(claims, username)
+                    && accountVersionRegistry.isCurrent(principal.getId(), principal.getAccountVersion())) {
                 UsernamePasswordAuthenticationToken authenticationToken = 
                     new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+                        principal, null, principal.getAuthorities());
                 
                 authenticationToken.setDetails(
                     new WebAuthenticationDetailsSource().buildDetails(request));
@@ -0,0 +1,63 @@
+package com.example.pdca.security;
+
+import com.example.pdca.model.User;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * JWT 认证主体
+ * 完全由令牌声明构建，无需查询数据库
+ */
+public class JwtUserPrincipal implements AuthenticatedPrincipal, Serializable {
+
+    private final Long id;
+    private final String username;
+    private final User.UserRole role;
+    private final long accountVersion;
+
+    public JwtUserPrincipal(Long id, String username, User.UserRole role, long accountVersion) {
+        this.id = id;
+        this.username = username;
+        this.role = role;
+        this.accountVersion = accountVersion;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public User.UserRole getRole() {
+        return role;
+    }
+
+    public long getAccountVersion() {
+        return accountVersion;
+    }
+
+    /**
+     * 构建权限列表
+     * @return 角色权限
+     */
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return username;
+    }
+}
@@ -2,10 +2,12 @@ package com.example.pdca.service;
 
 import com.example.pdca.dto.ActDTO;
 import com.example.pdca.dto.ActRecordDTO;
+import com.example.pdca.dto.CountMode;
 import com.example.pdca.model.Act;
 import com.example.pdca.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -80,4 +82,15 @@ public interface ActService {
      * @return 行动阶段分页对象
      */
     Page<Act> getPagedActPhasesByUserAndStatus(User user, Act.ActStatus status, Pageable pageable);
+
+    /**
+     * 按总数统计方式获取用户相关的行动阶段列表
+     * EXACT 返回带精确总数的分页，APPROXIMATE 返回带缓存近似总数的分页，NONE 只返回分片、不执行 COUNT
+     * @param user 用户
+     * @param status 行动状态，为空时不过滤
+     * @param pageable 分页参数
+     * @param countMode 总数统计方式
+     * @return 行动阶段分片，统计总数时为分页对象
+     */
+    Slice<Act> getActSliceByUser(User user, Act.ActStatus status, Pageable pageable, CountMode countMode);
 } 
\ No newline at end of file
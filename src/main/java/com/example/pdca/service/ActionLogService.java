@@ -3,6 +3,7 @@ package com.example.pdca.service;
 import com.example.pdca.model.ActionLog;
 import com.example.pdca.dto.ActionLogDTO;
 
+import com.example.pdca.util.CursorCodec;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -10,6 +11,13 @@ import java.util.List;
 
 public interface ActionLogService {
     ActionLog createLog(ActionLogDTO logDTO);
+
+    /**
+     * 记录业务操作日志，当前事务提交后异步批量写入，事务回滚时不写入
+     * 计划、任务和创建者必须存在，不再校验
+     */
+    void recordLog(ActionLogDTO logDTO);
+
     void deleteLog(Long logId);
     void deleteByPlanId(Long planId);
     ActionLog getLogById(Long logId);
@@ -19,4 +27,14 @@ public interface ActionLogService {
     Page<ActionLog> getPagedLogsByTask(Long taskId, Pageable pageable);
     List<ActionLog> getLogsByPlanWithTasks(Long planId);
 
+    /**
+     * 游标分页获取计划及其任务的日志，按创建时间和ID倒序，最多返回 pageSize + 1 条
+     */
+    List<ActionLog> getLogsByPlanWithTasksBefore(Long planId, CursorCodec.Cursor cursor, int pageSize);
+
+    /**
+     * 游标分页获取任务的日志，按创建时间和ID倒序，最多返回 pageSize + 1 条
+     */
+    List<ActionLog> getLogsByTaskBefore(Long taskId, CursorCodec.Cursor cursor, int pageSize);
+
 } 
\ No newline at end of file
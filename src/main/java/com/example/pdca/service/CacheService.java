@@ -1,5 +1,9 @@
 package com.example.pdca.service;
 
+import com.example.pdca.dto.CacheStatsDTO;
+
+import java.util.List;
+
 /**
  * 缓存服务接口
  * 提供缓存管理的通用方法
@@ -16,10 +20,31 @@ public interface CacheService {
      */
     void clearAllCaches();
 
+    /**
+     * 清除指定缓存中的单个条目
+     * 在事务中调用时，清除在事务提交后执行
+     * @param cacheName 缓存名称
+     * @param key 缓存键
+     */
+    void evict(String cacheName, Object key);
+
     /**
      * 获取缓存中的项目数量
      * @param cacheName 缓存名称
      * @return 缓存项目数量
      */
     long getCacheSize(String cacheName);
-} 
\ No newline at end of file
+
+    /**
+     * 获取指定缓存的统计信息
+     * @param cacheName 缓存名称
+     * @return 缓存统计
+     */
+    CacheStatsDTO getCacheStats(String cacheName);
+
+    /**
+     * 获取所有缓存的统计信息
+     * @return 缓存统计列表
+     */
+    List<CacheStatsDTO> getAllCacheStats();
+}
@@ -0,0 +1,43 @@
+package com.example.pdca.service;
+
+import com.example.pdca.dto.HibernateStatsDTO;
+import com.example.pdca.dto.LatencyStatsDTO;
+import com.example.pdca.dto.RenderBulkheadStatsDTO;
+
+import java.util.List;
+
+/**
+ * 运行指标服务接口
+ * 提供方法和接口延迟统计的查询与导出
+ */
+public interface MetricsService {
+    /**
+     * 获取方法延迟统计
+     * @return 按方法名排序的统计列表
+     */
+    List<LatencyStatsDTO> getMethodLatencies();
+
+    /**
+     * 获取接口延迟统计
+     * @return 按接口排序的统计列表
+     */
+    List<LatencyStatsDTO> getEndpointLatencies();
+
+    /**
+     * 获取 Hibernate 语句与二级缓存统计
+     * @return Hibernate 统计
+     */
+    HibernateStatsDTO getHibernateStats();
+
+    /**
+     * 获取导出渲染隔离舱统计
+     * @return 并发渲染数、等待数、等待时间与拒绝次数
+     */
+    RenderBulkheadStatsDTO getRenderBulkheadStats();
+
+    /**
+     * 以 Prometheus 文本格式导出全部指标
+     * @return 指标文本
+     */
+    String exportPrometheus();
+}
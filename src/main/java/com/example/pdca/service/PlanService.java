@@ -1,10 +1,13 @@
 package com.example.pdca.service;
 
 import com.example.pdca.dto.PlanDTO;
+import com.example.pdca.dto.CountMode;
 import com.example.pdca.model.Plan;
 import com.example.pdca.model.User;
+import com.example.pdca.util.CursorCodec;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -24,9 +27,19 @@ public interface PlanService {
     /**
      * 更新计划
      * @param planDTO 计划数据传输对象
+     * @param ifMatch If-Match 请求头，为空时不校验；在事务内与计划当前的 ETag 比较，不一致时抛出 412
      * @return 更新后的计划
      */
-    Plan updatePlan(PlanDTO planDTO);
+    Plan updatePlan(PlanDTO planDTO, String ifMatch);
+
+    /**
+     * 只更新计划状态，不改动计划的其他字段和任务
+     * @param planId 计划ID
+     * @param status 新状态
+     * @param ifMatch If-Match 请求头，为空时不校验；在事务内与计划当前的 ETag 比较，不一致时抛出 412
+     * @return 更新后的计划
+     */
+    Plan updatePlanStatus(Long planId, Plan.PlanStatus status, String ifMatch);
 
     /**
      * 删除计划
@@ -43,6 +56,22 @@ public interface PlanService {
      */
     Plan getPlanById(Long planId);
 
+    /**
+     * 获取计划的版本标记
+     * 只查询版本号和任务汇总，不加载计划实体，用于生成 ETag
+     * @param planId 计划ID
+     * @return 版本标记，以计划版本号开头
+     */
+    String getPlanVersionTag(Long planId);
+
+    /**
+     * 获取计划标题
+     * 只查询标题列，不加载计划实体和任务
+     * @param planId 计划ID
+     * @return 计划标题，计划不存在时抛出 404
+     */
+    String getPlanTitle(Long planId);
+
     /**
      * 获取用户创建的所有计划
      * @param creator 创建者
@@ -121,4 +150,26 @@ public interface PlanService {
      * @return 计划分页对象
      */
     Page<Plan> getPagedPlansByUserAndStatus(User user, Plan.PlanStatus status, Pageable pageable);
+
+    /**
+     * 按总数统计方式获取用户相关的计划列表
+     * EXACT 返回带精确总数的分页，APPROXIMATE 返回带缓存近似总数的分页，NONE 只返回分片、不执行 COUNT
+     * @param user 用户
+     * @param status 计划状态，为空时不过滤
+     * @param pageable 分页参数
+     * @param countMode 总数统计方式
+     * @return 计划分片，统计总数时为分页对象
+     */
+    Slice<Plan> getPlanSliceByUser(User user, Plan.PlanStatus status, Pageable pageable, CountMode countMode);
+
+    /**
+     * 游标分页获取用户相关的计划及其任务，按创建时间和ID倒序
+     * 最多返回 pageSize + 1 条，多出的一条用于判断是否还有下一页
+     * @param user 用户
+     * @param status 计划状态，为空时不过滤
+     * @param cursor 游标位置
+     * @param pageSize 每页大小
+     * @return 计划列表
+     */
+    List<Plan> getPlansByUserBefore(User user, Plan.PlanStatus status, CursorCodec.Cursor cursor, int pageSize);
 } 
\ No newline at end of file
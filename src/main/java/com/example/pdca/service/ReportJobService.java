@@ -0,0 +1,37 @@
+package com.example.pdca.service;
+
+import com.example.pdca.dto.ReportJobDTO;
+import com.example.pdca.model.User;
+
+import java.util.List;
+
+/**
+ * 报告异步生成任务服务接口
+ */
+public interface ReportJobService {
+
+    /**
+     * 提交报告生成任务
+     * 同一计划已有排队或执行中的任务时直接返回该任务
+     * @param planId 计划ID
+     * @param user 提交用户
+     * @return 任务信息
+     */
+    ReportJobDTO submitJob(Long planId, User user);
+
+    /**
+     * 查询任务
+     * 只有提交者（包括被合并到同一任务的用户）和管理员可见
+     * @param jobId 任务ID
+     * @param user 当前用户
+     * @return 任务信息
+     */
+    ReportJobDTO getJob(String jobId, User user);
+
+    /**
+     * 查询当前用户可见的任务，按创建时间倒序
+     * @param user 当前用户
+     * @return 任务列表
+     */
+    List<ReportJobDTO> getJobs(User user);
+}
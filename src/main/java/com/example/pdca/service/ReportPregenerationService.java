@@ -0,0 +1,14 @@
+package com.example.pdca.service;
+
+/**
+ * PDCA 循环报告预生成服务接口
+ * 在低峰时段为已完成且任务均已评分的计划提前生成报告，避免第一个查看者等待生成
+ */
+public interface ReportPregenerationService {
+    /**
+     * 执行一轮预生成
+     * 不在低峰时段、已有一轮正在执行或数据库连接池余量不足时不处理
+     * @return 本轮生成的报告数
+     */
+    int pregenerate();
+}
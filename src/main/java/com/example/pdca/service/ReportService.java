@@ -1,14 +1,22 @@
 package com.example.pdca.service;
 
+import com.example.pdca.dto.PlanScoreStatsDTO;
 import com.example.pdca.dto.ReportDTO;
+import com.example.pdca.dto.CountMode;
+import com.example.pdca.dto.ReportSummaryDTO;
 import com.example.pdca.model.Report;
 import com.example.pdca.model.User;
 import com.example.pdca.model.Task;
+import com.example.pdca.util.CursorCodec;
+import com.example.pdca.util.RenderBulkhead;
+import com.example.pdca.util.ReportRenderCache;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 /**
  * 报告服务接口
@@ -26,9 +34,10 @@ public interface ReportService {
     /**
      * 更新报告
      * @param reportDTO 报告数据传输对象
-     * @return 更新后的报告
+     * @param ifMatch If-Match 请求头，为空时不校验；在事务内与报告当前的 ETag 比较，不一致时抛出 412
+     * @return 更新后的报告，versionTag 为本次写入后的版本标记
      */
-    Report updateReport(ReportDTO reportDTO);
+    Report updateReport(ReportDTO reportDTO, String ifMatch);
 
     /**
      * 删除报告
@@ -59,6 +68,7 @@ public interface ReportService {
 
     /**
      * 自动生成 PDCA 循环总结报告
+     * 每个计划只有一份，生成期间锁定计划行，同一计划的并发生成串行执行；已存在时抛出 409
      * @param planId 计划ID
      * @param creator 创建者
      * @return 生成的报告
@@ -66,18 +76,32 @@ public interface ReportService {
     Report generatePDCAReport(Long planId, User creator);
 
     /**
-     * 导出报告为 PDF
-     * @param reportId 报告ID
-     * @return PDF 文件的字节数组
+     * 为导出获取渲染名额
+     * 文档已在渲染缓存中时无需渲染，返回空名额；名额在导出结束后由调用方释放
+     * @param report 报告
+     * @param format 导出格式
+     * @return 渲染名额
+     * @throws com.example.pdca.exception.RenderRejectedException 渲染已饱和
      */
-    ByteArrayOutputStream exportReportToPDF(Long reportId);
+    RenderBulkhead.Permit acquireExportPermit(Report report, ReportRenderCache.Format format);
 
     /**
-     * 导出报告为 Excel
-     * @param reportId 报告ID
-     * @return Excel 文件的字节数组
+     * 导出报告为 PDF，直接写入输出流
+     * 报告需由调用方预先通过 {@link #getReportById(Long)} 加载，以便在开始输出前校验报告是否存在
+     * 相同版本的报告命中渲染缓存时不再重新渲染
+     * @param report 报告
+     * @param outputStream 输出流，由调用方负责关闭
+     * @throws IOException 写入失败
      */
-    ByteArrayOutputStream exportReportToExcel(Long reportId);
+    void exportReportToPDF(Report report, OutputStream outputStream) throws IOException;
+
+    /**
+     * 导出报告为 Excel，直接写入输出流
+     * @param report 报告
+     * @param outputStream 输出流，由调用方负责关闭
+     * @throws IOException 写入失败
+     */
+    void exportReportToExcel(Report report, OutputStream outputStream) throws IOException;
 
     /**
      * 获取报告分页列表
@@ -87,28 +111,42 @@ public interface ReportService {
     Page<Report> getPagedReports(Pageable pageable);
 
     /**
-     * 获取用户创建的报告分页列表
+     * 获取用户创建的报告摘要分页列表
      * @param creator 创建者
      * @param pageable 分页参数
-     * @return 报告分页对象
+     * @return 报告摘要分页对象
      */
-    Page<Report> getPagedReportsByCreator(User creator, Pageable pageable);
+    Page<ReportSummaryDTO> getReportSummariesByCreator(User creator, Pageable pageable);
 
     /**
-     * 根据类型获取报告分页列表
+     * 根据类型获取报告摘要分页列表
      * @param type 报告类型
      * @param pageable 分页参数
-     * @return 报告分页对象
+     * @return 报告摘要分页对象
      */
-    Page<Report> getPagedReportsByType(Report.ReportType type, Pageable pageable);
+    Page<ReportSummaryDTO> getReportSummariesByType(Report.ReportType type, Pageable pageable);
 
     /**
-     * 根据状态获取报告分页列表
+     * 根据状态获取报告摘要分页列表
      * @param status 报告状态
      * @param pageable 分页参数
-     * @return 报告分页对象
+     * @return 报告摘要分页对象
      */
-    Page<Report> getPagedReportsByStatus(Report.ReportStatus status, Pageable pageable);
+    Page<ReportSummaryDTO> getReportSummariesByStatus(Report.ReportStatus status, Pageable pageable);
+
+    /**
+     * 按总数统计方式获取报告摘要列表
+     * 类型优先于状态，两者都为空时返回创建者的报告；
+     * EXACT 返回带精确总数的分页，APPROXIMATE 返回带缓存近似总数的分页，NONE 只返回分片、不执行 COUNT
+     * @param creator 创建者
+     * @param type 报告类型，可为空
+     * @param status 报告状态，可为空
+     * @param pageable 分页参数
+     * @param countMode 总数统计方式
+     * @return 报告摘要分片，统计总数时为分页对象
+     */
+    Slice<ReportSummaryDTO> getReportSummarySlice(User creator, Report.ReportType type, Report.ReportStatus status,
+                                                  Pageable pageable, CountMode countMode);
 
     /**
      * 提交报告
@@ -125,10 +163,40 @@ public interface ReportService {
      */
     List<Task> checkUnEvaluatedTasks(Long planId);
 
+    /**
+     * 获取计划的任务评分统计
+     * 一次聚合查询得到任务总数、已评分和未评分数量及平均分、最低分、最高分
+     * @param planId 计划ID
+     * @return 评分统计
+     */
+    PlanScoreStatsDTO getPlanScoreStats(Long planId);
+
     /**
      * 通过计划ID获取报告
      * @param planId 计划ID
      * @return 报告信息
      */
     Report getReportByPlanId(Long planId);
-} 
\ No newline at end of file
+
+    /**
+     * 获取计划报告详情的版本标记
+     * 由计划版本标记和该计划 PDCA 循环报告的版本汇总组成，用于生成 ETag
+     * @param planId 计划ID
+     * @return 版本标记
+     */
+    String getPlanReportVersionTag(Long planId);
+
+    /**
+     * 游标分页获取报告摘要，按创建时间和ID倒序
+     * 与分页列表相同，类型优先于状态，两者都为空时返回当前用户创建的报告；
+     * 最多返回 pageSize + 1 条，多出的一条用于判断是否还有下一页
+     * @param creator 创建者
+     * @param type 报告类型，可为空
+     * @param status 报告状态，可为空
+     * @param cursor 游标位置
+     * @param pageSize 每页大小
+     * @return 报告摘要列表
+     */
+    List<ReportSummaryDTO> getReportSummariesBefore(User creator, Report.ReportType type, Report.ReportStatus status,
+                                                    CursorCodec.Cursor cursor, int pageSize);
+}
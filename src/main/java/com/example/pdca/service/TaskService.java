@@ -1,10 +1,13 @@
 package com.example.pdca.service;
 
+import com.example.pdca.dto.CountMode;
 import com.example.pdca.model.Task;
 import com.example.pdca.model.User;
 import com.example.pdca.dto.TaskEvaluationDTO;
+import com.example.pdca.util.CursorCodec;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Map;
@@ -14,17 +17,19 @@ public interface TaskService {
      * 分配任务负责人
      * @param taskId 任务ID
      * @param assigneeId 负责人ID
+     * @param ifMatch If-Match 请求头，为空时不校验；在事务内与任务当前的 ETag 比较，不一致时抛出 412
      * @return 更新后的任务
      */
-    Task assignTask(Long taskId, Long assigneeId);
+    Task assignTask(Long taskId, Long assigneeId, String ifMatch);
 
     /**
      * 更新任务状态
      * @param taskId 任务ID
      * @param status 新状态
+     * @param ifMatch If-Match 请求头，为空时不校验；在事务内与任务当前的 ETag 比较，不一致时抛出 412
      * @return 更新后的任务
      */
-    Task updateTaskStatus(Long taskId, Task.TaskStatus status);
+    Task updateTaskStatus(Long taskId, Task.TaskStatus status, String ifMatch);
 
     /**
      * 获取任务分页列表
@@ -45,9 +50,10 @@ public interface TaskService {
      * 部分更新任务
      * @param taskId 任务ID
      * @param updates 更新字段
+     * @param ifMatch If-Match 请求头，为空时不校验；在事务内与任务当前的 ETag 比较，不一致时抛出 412
      * @return 更新后的任务
      */
-    Task partialUpdateTask(Long taskId, Map<String, Object> updates);
+    Task partialUpdateTask(Long taskId, Map<String, Object> updates, String ifMatch);
 
     /**
      * 获取用户相关的任务分页列表
@@ -66,6 +72,17 @@ public interface TaskService {
      */
     Page<Task> getPagedTasksByUserAndStatus(User user, Task.TaskStatus status, Pageable pageable);
 
+    /**
+     * 按总数统计方式获取用户相关的任务列表
+     * EXACT 返回带精确总数的分页，APPROXIMATE 返回带缓存近似总数的分页，NONE 只返回分片、不执行 COUNT
+     * @param user 用户
+     * @param status 任务状态，为空时不过滤
+     * @param pageable 分页参数
+     * @param countMode 总数统计方式
+     * @return 任务分片，统计总数时为分页对象
+     */
+    Slice<Task> getTaskSliceByUser(User user, Task.TaskStatus status, Pageable pageable, CountMode countMode);
+
     /**
      * 获取用户负责的所有任务
      * @param assignee 负责人
@@ -88,12 +105,32 @@ public interface TaskService {
      */
     Task getTaskById(Long taskId);
 
+    /**
+     * 获取任务的版本标记
+     * 只查询任务和所属计划的版本号，不加载任务实体，用于生成 ETag
+     * @param taskId 任务ID
+     * @return 版本标记，以任务版本号开头
+     */
+    String getTaskVersionTag(Long taskId);
+
     /**
      * 评价任务
      * @param taskId 任务ID
      * @param evaluationDTO 评价信息
      * @param evaluator 评价人（必须是计划创建者）
+     * @param ifMatch If-Match 请求头，为空时不校验；在事务内与任务当前的 ETag 比较，不一致时抛出 412
      * @return 更新后的任务
      */
-    Task evaluateTask(Long taskId, TaskEvaluationDTO evaluationDTO, User evaluator);
+    Task evaluateTask(Long taskId, TaskEvaluationDTO evaluationDTO, User evaluator, String ifMatch);
+
+    /**
+     * 游标分页获取用户相关的任务，按创建时间和ID倒序
+     * 最多返回 pageSize + 1 条，多出的一条用于判断是否还有下一页
+     * @param user 用户
+     * @param status 任务状态，为空时不过滤
+     * @param cursor 游标位置
+     * @param pageSize 每页大小
+     * @return 任务列表
+     */
+    List<Task> getTasksByUserBefore(User user, Task.TaskStatus status, CursorCodec.Cursor cursor, int pageSize);
 } 
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.example.pdca.service.impl;
 
 import com.example.pdca.dto.ActDTO;
 import com.example.pdca.dto.ActRecordDTO;
+import com.example.pdca.dto.CountMode;
 import com.example.pdca.model.Act;
 import com.example.pdca.model.ActRecord;
 import com.example.pdca.model.Check;
@@ -11,9 +12,13 @@ import com.example.pdca.repository.ActRecordRepository;
 import com.example.pdca.repository.CheckRepository;
 import com.example.pdca.repository.UserRepository;
 import com.example.pdca.service.ActService;
+import com.example.pdca.util.ApproximateCountCache;
+import com.example.pdca.util.EntityGraphUtil;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -39,6 +44,9 @@ public class ActServiceImpl implements ActService {
     @Autowired
     private ActRecordRepository actRecordRepository;
 
+    @Autowired
+    private ApproximateCountCache approximateCountCache;
+
     @Override
     @Transactional
     public Act createAct(ActDTO actDTO, User creator) {
@@ -66,13 +74,15 @@ public class ActServiceImpl implements ActService {
             : Act.ActStatus.IN_PROGRESS);
 
         // 保存行动阶段
-        return actRepository.save(act);
+        Act savedAct = actRepository.save(act);
+        EntityGraphUtil.initializeAct(savedAct);
+        return savedAct;
     }
 
     @Override
     @Transactional
     public Act updateAct(ActDTO actDTO) {
-        Act existingAct = actRepository.findById(actDTO.getId())
+        Act existingAct = actRepository.findWithDetailsById(actDTO.getId())
             .orElseThrow(() -> new RuntimeException("行动阶段不存在"));
 
         // 更新基本信息
@@ -100,13 +110,15 @@ public class ActServiceImpl implements ActService {
             existingAct.setExecutor(executor);
         }
 
-        return actRepository.save(existingAct);
+        Act savedAct = actRepository.save(existingAct);
+        EntityGraphUtil.initializeAct(savedAct);
+        return savedAct;
     }
 
     @Override
     @Transactional
     public Act addActRecord(ActRecordDTO actRecordDTO, User recorder) {
-        Act act = actRepository.findById(actRecordDTO.getActId())
+        Act act = actRepository.findWithDetailsById(actRecordDTO.getActId())
             .orElseThrow(() -> new RuntimeException("行动阶段不存在"));
 
         ActRecord actRecord = new ActRecord();
@@ -120,9 +132,9 @@ public class ActServiceImpl implements ActService {
 
         actRecordRepository.save(actRecord);
 
-        // 重新加载行动阶段以获取最新记录
-        return actRepository.findById(act.getId())
-            .orElseThrow(() -> new RuntimeException("行动阶段不存在"));
+        // 记录已插入，此时加载的行动记录包含本次添加的记录
+        EntityGraphUtil.initializeAct(act);
+        return act;
     }
 
     @Override
@@ -135,9 +147,12 @@ public class ActServiceImpl implements ActService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Act getActById(Long actId) {
-        return actRepository.findById(actId)
+        Act act = actRepository.findWithDetailsById(actId)
             .orElseThrow(() -> new RuntimeException("行动阶段不存在"));
+        EntityGraphUtil.initializeAct(act);
+        return act;
     }
 
     @Override
@@ -146,30 +161,52 @@ public class ActServiceImpl implements ActService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Act> getActsByStatus(Act.ActStatus status) {
-        return actRepository.findByStatus(status);
+        List<Act> acts = actRepository.findByStatus(status);
+        acts.forEach(EntityGraphUtil::initializeAct);
+        return acts;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<Act> getPagedActPhasesByUser(User user, Pageable pageable) {
         Page<Act> acts = actRepository.findByUserRelated(user, pageable);
-        // 确保关联数据被加载
-        acts.getContent().forEach(act -> {
-            if (act.getCheckPhase() != null) {
-                act.getCheckPhase().getId();
-                if (act.getCheckPhase().getDoPhase() != null) {
-                    act.getCheckPhase().getDoPhase().getId();
-                    if (act.getCheckPhase().getDoPhase().getPlan() != null) {
-                        act.getCheckPhase().getDoPhase().getPlan().getId();
-                    }
-                }
-            }
-        });
+        initializeRecords(acts);
         return acts;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<Act> getPagedActPhasesByUserAndStatus(User user, Act.ActStatus status, Pageable pageable) {
-        return actRepository.findByUserRelatedAndStatus(user, status, pageable);
+        Page<Act> acts = actRepository.findByUserRelatedAndStatus(user, status, pageable);
+        initializeRecords(acts);
+        return acts;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Act> getActSliceByUser(User user, Act.ActStatus status, Pageable pageable, CountMode countMode) {
+        if (countMode == CountMode.EXACT) {
+            return status != null
+                ? getPagedActPhasesByUserAndStatus(user, status, pageable)
+                : getPagedActPhasesByUser(user, pageable);
+        }
+        Slice<Act> slice = status != null
+            ? actRepository.findSliceByUserRelatedAndStatus(user, status, pageable)
+            : actRepository.findSliceByUserRelated(user, pageable);
+        initializeRecords(slice);
+        if (countMode == CountMode.NONE) {
+            return slice;
+        }
+        return approximateCountCache.toPage(slice, "act:user:" + user.getId() + ":" + status,
+            () -> status != null
+                ? actRepository.countByUserRelatedAndStatus(user, status)
+                : actRepository.countByUserRelated(user));
+    }
+
+    // 列表只转换为 ActDTO，执行人和检查阶段只读取ID，不需要加载；行动记录按批加载
+    private void initializeRecords(Slice<Act> acts) {
+        acts.getContent().forEach(act -> Hibernate.initialize(act.getRecords()));
     }
-} 
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.example.pdca.service.impl;
 
+import com.example.pdca.config.ActionLogWriterProperties;
 import com.example.pdca.model.ActionLog;
 import com.example.pdca.dto.ActionLogDTO;
 import com.example.pdca.model.Plan;
@@ -10,11 +11,16 @@ import com.example.pdca.repository.PlanRepository;
 import com.example.pdca.repository.TaskRepository;
 import com.example.pdca.repository.UserRepository;
 import com.example.pdca.service.ActionLogService;
+import com.example.pdca.util.ActionLogWriter;
+import com.example.pdca.util.CursorCodec;
+import com.example.pdca.util.EntityGraphUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 
@@ -34,6 +40,12 @@ public class ActionLogServiceImpl implements ActionLogService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ActionLogWriter actionLogWriter;
+
+    @Autowired
+    private ActionLogWriterProperties actionLogWriterProperties;
+
     @Override
     public ActionLog createLog(ActionLogDTO logDTO) {
         ActionLog log = new ActionLog();
@@ -59,6 +71,25 @@ public class ActionLogServiceImpl implements ActionLogService {
         return actionLogRepository.save(log);
     }
 
+    @Override
+    public void recordLog(ActionLogDTO logDTO) {
+        if (!actionLogWriterProperties.isEnabled()) {
+            createLog(logDTO);
+            return;
+        }
+        ActionLogWriter.Event event = ActionLogWriter.Event.of(logDTO);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    actionLogWriter.submit(event);
+                }
+            });
+        } else {
+            actionLogWriter.submit(event);
+        }
+    }
+
     @Override
     public void deleteLog(Long logId) {
         ActionLog log = actionLogRepository.findById(logId)
@@ -68,13 +99,18 @@ public class ActionLogServiceImpl implements ActionLogService {
 
     @Override
     public void deleteByPlanId(Long planId){
+        // 尚未写入的日志一并丢弃，否则计划删除后写入会违反外键
+        actionLogWriter.discard(planId);
         actionLogRepository.deleteByPlanId(planId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ActionLog getLogById(Long logId) {
-        return actionLogRepository.findById(logId)
+        ActionLog log = actionLogRepository.findWithDetailsById(logId)
             .orElseThrow(() -> new RuntimeException("日志不存在"));
+        EntityGraphUtil.initializeActionLog(log);
+        return log;
     }
 
     @Override
@@ -85,10 +121,13 @@ public class ActionLogServiceImpl implements ActionLogService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ActionLog> getLogsByTask(Long taskId) {
         Task task = taskRepository.findById(taskId)
             .orElseThrow(() -> new RuntimeException("任务不存在"));
-        return actionLogRepository.findByTaskOrderByCreateTimeDesc(task);
+        List<ActionLog> logs = actionLogRepository.findByTaskOrderByCreateTimeDesc(task);
+        logs.forEach(EntityGraphUtil::initializeActionLog);
+        return logs;
     }
 
     @Override
@@ -106,11 +145,31 @@ public class ActionLogServiceImpl implements ActionLogService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ActionLog> getLogsByPlanWithTasks(Long planId) {
-        planRepository.findById(planId)
-            .orElseThrow(() -> new RuntimeException("计划不存在"));
-        
+        if (!planRepository.existsById(planId)) {
+            throw new RuntimeException("计划不存在");
+        }
+
         return actionLogRepository.findByPlanIdWithTasksOrderByCreateTimeDesc(planId);
     }
 
+    @Override
+    public List<ActionLog> getLogsByPlanWithTasksBefore(Long planId, CursorCodec.Cursor cursor, int pageSize) {
+        if (!planRepository.existsById(planId)) {
+            throw new RuntimeException("计划不存在");
+        }
+        return actionLogRepository.findByPlanIdWithTasksBefore(planId, cursor.getCreateTime(), cursor.getId(),
+            CursorCodec.limit(pageSize));
+    }
+
+    @Override
+    public List<ActionLog> getLogsByTaskBefore(Long taskId, CursorCodec.Cursor cursor, int pageSize) {
+        if (!taskRepository.existsById(taskId)) {
+            throw new RuntimeException("任务不存在");
+        }
+        return actionLogRepository.findByTaskIdBefore(taskId, cursor.getCreateTime(), cursor.getId(),
+            CursorCodec.limit(pageSize));
+    }
+
 } 
\ No newline at end of file
@@ -1,11 +1,19 @@
 package com.example.pdca.service.impl;
 
+import com.example.pdca.dto.CacheStatsDTO;
+import com.example.pdca.exception.BusinessException;
 import com.example.pdca.service.CacheService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * 缓存服务实现类
@@ -29,10 +37,53 @@ public class CacheServiceImpl implements CacheService {
         );
     }
 
+    @Override
+    public void evict(String cacheName, Object key) {
+        Objects.requireNonNull(cacheManager.getCache(cacheName)).evict(key);
+    }
+
     @Override
     public long getCacheSize(String cacheName) {
-        // 注意：这里的实现取决于具体的缓存实现
-        // 对于 ConcurrentMapCacheManager，可能需要自定义实现
-        return 0;
+        return getNativeCache(cacheName).estimatedSize();
+    }
+
+    @Override
+    public CacheStatsDTO getCacheStats(String cacheName) {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = getNativeCache(cacheName);
+        CacheStats stats = nativeCache.stats();
+
+        CacheStatsDTO dto = new CacheStatsDTO();
+        dto.setName(cacheName);
+        dto.setSize(nativeCache.estimatedSize());
+        nativeCache.policy().eviction()
+            .ifPresent(eviction -> dto.setMaximumSize(eviction.getMaximum()));
+        nativeCache.policy().expireAfterWrite()
+            .ifPresent(expiration -> dto.setExpireAfterWriteSeconds(expiration.getExpiresAfter(TimeUnit.SECONDS)));
+        dto.setHitCount(stats.hitCount());
+        dto.setMissCount(stats.missCount());
+        dto.setHitRate(stats.hitRate());
+        dto.setEvictionCount(stats.evictionCount());
+        dto.setLoadSuccessCount(stats.loadSuccessCount());
+        dto.setLoadFailureCount(stats.loadFailureCount());
+        dto.setAverageLoadPenaltyMillis(stats.averageLoadPenalty() / 1_000_000.0);
+        dto.setTotalLoadTimeMillis(stats.totalLoadTime() / 1_000_000.0);
+        return dto;
+    }
+
+    @Override
+    public List<CacheStatsDTO> getAllCacheStats() {
+        return cacheManager.getCacheNames().stream()
+            .sorted()
+            .map(this::getCacheStats)
+            .collect(Collectors.toList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> getNativeCache(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            throw new BusinessException("缓存不存在: " + cacheName, HttpStatus.NOT_FOUND);
+        }
+        return (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache();
     }
-} 
\ No newline at end of file
+}
@@ -11,6 +11,7 @@ import com.example.pdca.repository.CheckResultRepository;
 import com.example.pdca.repository.DoPhaseRepository;
 import com.example.pdca.repository.UserRepository;
 import com.example.pdca.service.CheckService;
+import com.example.pdca.util.EntityGraphUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -64,13 +65,15 @@ public class CheckServiceImpl implements CheckService {
             : Check.CheckStatus.IN_PROGRESS);
 
         // 保存检查阶段
-        return checkRepository.save(check);
+        Check savedCheck = checkRepository.save(check);
+        EntityGraphUtil.initializeCheck(savedCheck);
+        return savedCheck;
     }
 
     @Override
     @Transactional
     public Check updateCheck(CheckDTO checkDTO) {
-        Check existingCheck = checkRepository.findById(checkDTO.getId())
+        Check existingCheck = checkRepository.findWithDetailsById(checkDTO.getId())
             .orElseThrow(() -> new RuntimeException("检查阶段不存在"));
 
         // 更新基本信息
@@ -98,13 +101,15 @@ public class CheckServiceImpl implements CheckService {
             existingCheck.setChecker(checker);
         }
 
-        return checkRepository.save(existingCheck);
+        Check savedCheck = checkRepository.save(existingCheck);
+        EntityGraphUtil.initializeCheck(savedCheck);
+        return savedCheck;
     }
 
     @Override
     @Transactional
     public Check addCheckResult(CheckResultDTO checkResultDTO, User recorder) {
-        Check check = checkRepository.findById(checkResultDTO.getCheckId())
+        Check check = checkRepository.findWithDetailsById(checkResultDTO.getCheckId())
             .orElseThrow(() -> new RuntimeException("检查阶段不存在"));
 
         CheckResult checkResult = new CheckResult();
@@ -118,9 +123,9 @@ public class CheckServiceImpl implements CheckService {
 
         checkResultRepository.save(checkResult);
 
-        // 重新加载检查阶段以获取最新结果
-        return checkRepository.findById(check.getId())
-            .orElseThrow(() -> new RuntimeException("检查阶段不存在"));
+        // 结果已插入，此时加载的检查结果包含本次添加的结果
+        EntityGraphUtil.initializeCheck(check);
+        return check;
     }
 
     @Override
@@ -133,18 +138,27 @@ public class CheckServiceImpl implements CheckService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Check getCheckById(Long checkId) {
-        return checkRepository.findById(checkId)
+        Check check = checkRepository.findWithDetailsById(checkId)
             .orElseThrow(() -> new RuntimeException("检查阶段不存在"));
+        EntityGraphUtil.initializeCheck(check);
+        return check;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Check> getChecksByChecker(User checker) {
-        return checkRepository.findByChecker(checker);
+        List<Check> checks = checkRepository.findByChecker(checker);
+        checks.forEach(EntityGraphUtil::initializeCheck);
+        return checks;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Check> getChecksByStatus(Check.CheckStatus status) {
-        return checkRepository.findByStatus(status);
+        List<Check> checks = checkRepository.findByStatus(status);
+        checks.forEach(EntityGraphUtil::initializeCheck);
+        return checks;
     }
 } 
\ No newline at end of file
@@ -11,6 +11,7 @@ import com.example.pdca.repository.DoRecordRepository;
 import com.example.pdca.repository.PlanRepository;
 import com.example.pdca.repository.UserRepository;
 import com.example.pdca.service.DoService;
+import com.example.pdca.util.EntityGraphUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -58,12 +59,14 @@ public class DoServiceImpl implements DoService {
         
         doPhase.setStatus(doDTO.getStatus() != null ? doDTO.getStatus() : DoPhase.DoStatus.IN_PROGRESS);
         
-        return doRepository.save(doPhase);
+        DoPhase savedDoPhase = doRepository.save(doPhase);
+        EntityGraphUtil.initializeDoPhase(savedDoPhase);
+        return savedDoPhase;
     }
 
     @Override
     public DoPhase updateDo(DoDTO doDTO) {
-        DoPhase doPhase = doRepository.findById(doDTO.getId())
+        DoPhase doPhase = doRepository.findWithDetailsById(doDTO.getId())
             .orElseThrow(() -> new RuntimeException("执行阶段不存在"));
             
         doPhase.setTitle(doDTO.getTitle());
@@ -81,12 +84,14 @@ public class DoServiceImpl implements DoService {
             doPhase.setStatus(doDTO.getStatus());
         }
         
-        return doRepository.save(doPhase);
+        DoPhase savedDoPhase = doRepository.save(doPhase);
+        EntityGraphUtil.initializeDoPhase(savedDoPhase);
+        return savedDoPhase;
     }
 
     @Override
     public DoPhase addDoRecord(DoRecordDTO doRecordDTO, User recorder) {
-        DoPhase doPhase = doRepository.findById(doRecordDTO.getDoId())
+        DoPhase doPhase = doRepository.findWithDetailsById(doRecordDTO.getDoId())
             .orElseThrow(() -> new RuntimeException("执行阶段不存在"));
             
         DoRecord record = new DoRecord();
@@ -97,6 +102,8 @@ public class DoServiceImpl implements DoService {
         record.setDoPhase(doPhase);
         
         doRecordRepository.save(record);
+        // 记录已插入，此时加载的执行记录包含本次添加的记录
+        EntityGraphUtil.initializeDoPhase(doPhase);
         return doPhase;
     }
 
@@ -106,33 +113,50 @@ public class DoServiceImpl implements DoService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public DoPhase getDoById(Long doId) {
-        return doRepository.findById(doId)
+        DoPhase doPhase = doRepository.findWithDetailsById(doId)
             .orElseThrow(() -> new RuntimeException("执行阶段不存在"));
+        EntityGraphUtil.initializeDoPhase(doPhase);
+        return doPhase;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<DoPhase> getDosByExecutor(User executor) {
-        return doRepository.findByExecutor(executor);
+        return initialize(doRepository.findByExecutor(executor));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<DoPhase> getDosByStatus(DoPhase.DoStatus status) {
-        return doRepository.findByStatus(status);
+        return initialize(doRepository.findByStatus(status));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<DoPhase> getDosByPlan(Plan plan) {
-        return doRepository.findByPlan(plan);
+        return initialize(doRepository.findByPlan(plan));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<DoPhase> getPagedDoPhases(Pageable pageable) {
-        return doRepository.findAll(pageable);
+        Page<DoPhase> doPhases = doRepository.findAll(pageable);
+        initialize(doPhases.getContent());
+        return doPhases;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<DoPhase> getPagedDoPhasesByStatus(DoPhase.DoStatus status, Pageable pageable) {
-        return doRepository.findByStatus(status, pageable);
+        Page<DoPhase> doPhases = doRepository.findByStatus(status, pageable);
+        initialize(doPhases.getContent());
+        return doPhases;
+    }
+
+    private List<DoPhase> initialize(List<DoPhase> doPhases) {
+        doPhases.forEach(EntityGraphUtil::initializeDoPhase);
+        return doPhases;
     }
 } 
\ No newline at end of file
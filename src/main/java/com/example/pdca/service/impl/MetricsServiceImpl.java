@@ -0,0 +1,256 @@
+package com.example.pdca.service.impl;
+
+import com.example.pdca.dto.CacheRegionStatsDTO;
+import com.example.pdca.dto.HibernateStatsDTO;
+import com.example.pdca.dto.LatencyStatsDTO;
+import com.example.pdca.dto.LatencyWindowDTO;
+import com.example.pdca.dto.RenderBulkheadStatsDTO;
+import com.example.pdca.service.MetricsService;
+import com.example.pdca.util.LatencyHistogram;
+import com.example.pdca.util.LatencyMetricsRegistry;
+import com.example.pdca.util.RenderBulkhead;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 运行指标服务实现类
+ * 从延迟指标注册表生成 JSON 统计和 Prometheus 文本
+ */
+@Service
+public class MetricsServiceImpl implements MetricsService {
+
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+
+    // Prometheus 摘要只导出最短窗口，更长时间的聚合交给 Prometheus 自己计算
+    private static final String PROMETHEUS_WINDOW = "1m";
+
+    @Autowired
+    private LatencyMetricsRegistry latencyMetricsRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private RenderBulkhead renderBulkhead;
+
+    @Override
+    public List<LatencyStatsDTO> getMethodLatencies() {
+        return toStats(latencyMetricsRegistry.getMethods());
+    }
+
+    @Override
+    public List<LatencyStatsDTO> getEndpointLatencies() {
+        return toStats(latencyMetricsRegistry.getEndpoints());
+    }
+
+    @Override
+    public HibernateStatsDTO getHibernateStats() {
+        Statistics statistics = getStatistics();
+        HibernateStatsDTO dto = new HibernateStatsDTO();
+        dto.setPrepareStatementCount(statistics.getPrepareStatementCount());
+        dto.setQueryExecutionCount(statistics.getQueryExecutionCount());
+        dto.setEntityLoadCount(statistics.getEntityLoadCount());
+        dto.setEntityFetchCount(statistics.getEntityFetchCount());
+        dto.setCollectionLoadCount(statistics.getCollectionLoadCount());
+        dto.setCollectionFetchCount(statistics.getCollectionFetchCount());
+        dto.setSecondLevelCacheHitCount(statistics.getSecondLevelCacheHitCount());
+        dto.setSecondLevelCacheMissCount(statistics.getSecondLevelCacheMissCount());
+        dto.setSecondLevelCachePutCount(statistics.getSecondLevelCachePutCount());
+        dto.setQueryCacheHitCount(statistics.getQueryCacheHitCount());
+        dto.setQueryCacheMissCount(statistics.getQueryCacheMissCount());
+        dto.setQueryCachePutCount(statistics.getQueryCachePutCount());
+
+        List<CacheRegionStatsDTO> regions = new ArrayList<>();
+        Arrays.stream(statistics.getSecondLevelCacheRegionNames()).sorted().forEach(regionName -> {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(regionName);
+            if (regionStatistics != null) {
+                CacheRegionStatsDTO region = new CacheRegionStatsDTO();
+                region.setRegion(regionName);
+                region.setHitCount(regionStatistics.getHitCount());
+                region.setMissCount(regionStatistics.getMissCount());
+                region.setPutCount(regionStatistics.getPutCount());
+                regions.add(region);
+            }
+        });
+        dto.setRegions(regions);
+        return dto;
+    }
+
+    @Override
+    public RenderBulkheadStatsDTO getRenderBulkheadStats() {
+        RenderBulkheadStatsDTO dto = new RenderBulkheadStatsDTO();
+        dto.setMaxConcurrent(renderBulkhead.getMaxConcurrent());
+        dto.setActive(renderBulkhead.getActive());
+        dto.setMaxWaiting(renderBulkhead.getMaxWaiting());
+        dto.setWaiting(renderBulkhead.getWaiting());
+        dto.setAcquiredCount(renderBulkhead.getAcquiredCount());
+        dto.setRejectedQueueFullCount(renderBulkhead.getRejectedQueueFullCount());
+        dto.setRejectedTimeoutCount(renderBulkhead.getRejectedTimeoutCount());
+        dto.setWaitTime(toWindows(renderBulkhead.getWaitTimes()));
+        return dto;
+    }
+
+    @Override
+    public String exportPrometheus() {
+        StringBuilder out = new StringBuilder();
+        appendLatencyFamily(out, "pdca_method_latency", "method", "服务与控制器方法耗时",
+            latencyMetricsRegistry.getMethods());
+        appendLatencyFamily(out, "pdca_endpoint_latency", "endpoint", "HTTP 接口耗时",
+            latencyMetricsRegistry.getEndpoints());
+        appendHibernateStats(out, getHibernateStats());
+        appendRenderBulkheadStats(out);
+        return out.toString();
+    }
+
+    private List<LatencyStatsDTO> toStats(Map<String, LatencyMetricsRegistry.Recorder> recorders) {
+        List<LatencyStatsDTO> result = new ArrayList<>();
+        new TreeMap<>(recorders).forEach((name, recorder) -> {
+            LatencyStatsDTO stats = new LatencyStatsDTO();
+            stats.setName(name);
+            stats.setTotalCount(recorder.getSuccess().getTotalCount());
+            stats.setSuccess(toWindows(recorder.getSuccess()));
+            LatencyHistogram errors = recorder.getErrors();
+            if (errors != null) {
+                stats.setTotalErrors(errors.getTotalCount());
+                stats.setTotalCount(stats.getTotalCount() + errors.getTotalCount());
+                stats.setErrors(toWindows(errors));
+            }
+            result.add(stats);
+        });
+        return result;
+    }
+
+    private Map<String, LatencyWindowDTO> toWindows(LatencyHistogram histogram) {
+        Map<String, LatencyWindowDTO> windows = new LinkedHashMap<>();
+        LatencyMetricsRegistry.WINDOWS.forEach((windowName, windowMillis) -> {
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot(windowMillis);
+            LatencyWindowDTO window = new LatencyWindowDTO();
+            window.setCount(snapshot.getCount());
+            window.setP50(snapshot.getPercentileMillis(0.5));
+            window.setP95(snapshot.getPercentileMillis(0.95));
+            window.setP99(snapshot.getPercentileMillis(0.99));
+            window.setMax(snapshot.getMaxMillis());
+            windows.put(windowName, window);
+        });
+        return windows;
+    }
+
+    private void appendLatencyFamily(StringBuilder out, String family, String labelName, String help,
+                                     Map<String, LatencyMetricsRegistry.Recorder> recorders) {
+        long windowMillis = LatencyMetricsRegistry.WINDOWS.get(PROMETHEUS_WINDOW);
+        Map<String, LatencyMetricsRegistry.Recorder> sorted = new TreeMap<>(recorders);
+
+        out.append("# HELP ").append(family).append("_seconds ").append(help).append('\n');
+        out.append("# TYPE ").append(family).append("_seconds summary\n");
+        sorted.forEach((name, recorder) -> {
+            appendSummary(out, family, labelName, name, "success", recorder.getSuccess(), windowMillis);
+            if (recorder.getErrors() != null) {
+                appendSummary(out, family, labelName, name, "error", recorder.getErrors(), windowMillis);
+            }
+        });
+
+        out.append("# HELP ").append(family).append("_max_seconds ").append(help)
+            .append("（最近 ").append(PROMETHEUS_WINDOW).append(" 最大值）\n");
+        out.append("# TYPE ").append(family).append("_max_seconds gauge\n");
+        sorted.forEach((name, recorder) -> {
+            appendMax(out, family, labelName, name, "success", recorder.getSuccess(), windowMillis);
+            if (recorder.getErrors() != null) {
+                appendMax(out, family, labelName, name, "error", recorder.getErrors(), windowMillis);
+            }
+        });
+    }
+
+    private void appendSummary(StringBuilder out, String family, String labelName, String name,
+                               String outcome, LatencyHistogram histogram, long windowMillis) {
+        String labels = labelName + "=\"" + escapeLabel(name) + "\",outcome=\"" + outcome + "\"";
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot(windowMillis);
+        for (double quantile : QUANTILES) {
+            out.append(family).append("_seconds{").append(labels)
+                .append(",quantile=\"").append(quantile).append("\"} ")
+                .append(snapshot.getPercentileMillis(quantile) / 1000.0).append('\n');
+        }
+        out.append(family).append("_seconds_count{").append(labels).append("} ")
+            .append(histogram.getTotalCount()).append('\n');
+        out.append(family).append("_seconds_sum{").append(labels).append("} ")
+            .append(histogram.getTotalMicros() / 1_000_000.0).append('\n');
+    }
+
+    private void appendMax(StringBuilder out, String family, String labelName, String name,
+                           String outcome, LatencyHistogram histogram, long windowMillis) {
+        out.append(family).append("_max_seconds{").append(labelName).append("=\"").append(escapeLabel(name))
+            .append("\",outcome=\"").append(outcome).append("\"} ")
+            .append(histogram.snapshot(windowMillis).getMaxMillis() / 1000.0).append('\n');
+    }
+
+    private String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private void appendHibernateStats(StringBuilder out, HibernateStatsDTO stats) {
+        appendCounter(out, "pdca_hibernate_statements_total", "预编译 SQL 语句数", stats.getPrepareStatementCount());
+        appendCounter(out, "pdca_hibernate_queries_total", "HQL/JPQL 查询执行次数", stats.getQueryExecutionCount());
+        appendCounter(out, "pdca_hibernate_entity_loads_total", "实体加载次数", stats.getEntityLoadCount());
+        appendCounter(out, "pdca_hibernate_collection_fetches_total", "集合单独抓取次数", stats.getCollectionFetchCount());
+
+        out.append("# HELP pdca_hibernate_cache_requests_total 二级缓存和查询缓存访问次数\n");
+        out.append("# TYPE pdca_hibernate_cache_requests_total counter\n");
+        for (CacheRegionStatsDTO region : stats.getRegions()) {
+            String labels = "region=\"" + escapeLabel(region.getRegion()) + "\"";
+            out.append("pdca_hibernate_cache_requests_total{").append(labels).append(",result=\"hit\"} ")
+                .append(region.getHitCount()).append('\n');
+            out.append("pdca_hibernate_cache_requests_total{").append(labels).append(",result=\"miss\"} ")
+                .append(region.getMissCount()).append('\n');
+        }
+    }
+
+    private void appendRenderBulkheadStats(StringBuilder out) {
+        appendGauge(out, "pdca_render_active", "正在进行的导出渲染数", renderBulkhead.getActive());
+        appendGauge(out, "pdca_render_waiting", "等待渲染名额的请求数", renderBulkhead.getWaiting());
+
+        out.append("# HELP pdca_render_rejected_total 因渲染饱和被拒绝的导出请求数\n");
+        out.append("# TYPE pdca_render_rejected_total counter\n");
+        out.append("pdca_render_rejected_total{reason=\"queue_full\"} ")
+            .append(renderBulkhead.getRejectedQueueFullCount()).append('\n');
+        out.append("pdca_render_rejected_total{reason=\"timeout\"} ")
+            .append(renderBulkhead.getRejectedTimeoutCount()).append('\n');
+
+        long windowMillis = LatencyMetricsRegistry.WINDOWS.get(PROMETHEUS_WINDOW);
+        LatencyHistogram waitTimes = renderBulkhead.getWaitTimes();
+        LatencyHistogram.Snapshot snapshot = waitTimes.snapshot(windowMillis);
+        out.append("# HELP pdca_render_wait_seconds 获取渲染名额前的等待时间\n");
+        out.append("# TYPE pdca_render_wait_seconds summary\n");
+        for (double quantile : QUANTILES) {
+            out.append("pdca_render_wait_seconds{quantile=\"").append(quantile).append("\"} ")
+                .append(snapshot.getPercentileMillis(quantile) / 1000.0).append('\n');
+        }
+        out.append("pdca_render_wait_seconds_count ").append(waitTimes.getTotalCount()).append('\n');
+        out.append("pdca_render_wait_seconds_sum ").append(waitTimes.getTotalMicros() / 1_000_000.0).append('\n');
+    }
+
+    private void appendGauge(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" gauge\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private void appendCounter(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private Statistics getStatistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
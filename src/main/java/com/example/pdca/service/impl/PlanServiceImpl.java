@@ -1,8 +1,10 @@
 package com.example.pdca.service.impl;
 
+import com.example.pdca.dto.CountMode;
 import com.example.pdca.dto.PlanDTO;
 import com.example.pdca.dto.DoDTO;
 import com.example.pdca.dto.ActionLogDTO;
+import com.example.pdca.exception.BusinessException;
 import com.example.pdca.model.DoPhase;
 import com.example.pdca.model.Plan;
 import com.example.pdca.model.Task;
@@ -14,13 +16,25 @@ import com.example.pdca.repository.UserRepository;
 import com.example.pdca.service.PlanService;
 import com.example.pdca.service.DoService;
 import com.example.pdca.service.ActionLogService;
+import com.example.pdca.util.ApproximateCountCache;
+import com.example.pdca.util.CursorCodec;
+import com.example.pdca.util.EntityGraphUtil;
+import com.example.pdca.util.EntityTagUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -36,14 +50,17 @@ public class PlanServiceImpl implements PlanService {
     private final TaskRepository taskRepository;
     private final DoService doService;
     private final ActionLogService actionLogService;
+    private final ApproximateCountCache approximateCountCache;
 
     @Autowired
-    public PlanServiceImpl(PlanRepository planRepository, UserRepository userRepository, TaskRepository taskRepository, DoService doService, ActionLogService actionLogService) {
+    public PlanServiceImpl(PlanRepository planRepository, UserRepository userRepository, TaskRepository taskRepository, DoService doService, ActionLogService actionLogService,
+                           ApproximateCountCache approximateCountCache) {
         this.planRepository = planRepository;
         this.userRepository = userRepository;
         this.taskRepository = taskRepository;
         this.doService = doService;
         this.actionLogService = actionLogService;
+        this.approximateCountCache = approximateCountCache;
     }
 
     @Override
@@ -69,7 +86,7 @@ public class PlanServiceImpl implements PlanService {
         logDTO.setContent("创建了计划: " + plan.getTitle());
         logDTO.setPlanId(savedPlan.getId());
         logDTO.setCreatorId(creator.getId());
-        actionLogService.createLog(logDTO);
+        actionLogService.recordLog(logDTO);
 
         // 处理任务
         if (planDTO.getTasks() != null && !planDTO.getTasks().isEmpty()) {
@@ -102,10 +119,11 @@ public class PlanServiceImpl implements PlanService {
 
     @Override
     @Transactional
-    public Plan updatePlan(PlanDTO planDTO) {
+    public Plan updatePlan(PlanDTO planDTO, String ifMatch) {
         // 查找现有计划
-        Plan existingPlan = planRepository.findById(planDTO.getId())
+        Plan existingPlan = planRepository.findWithDetailsById(planDTO.getId())
             .orElseThrow(() -> new RuntimeException("计划不存在"));
+        EntityTagUtil.checkIfMatch(ifMatch, EntityTagUtil.toETag(EntityTagUtil.versionTag(existingPlan)));
 
         // 更新计划基本信息
         existingPlan.setTitle(planDTO.getTitle());
@@ -151,11 +169,31 @@ public class PlanServiceImpl implements PlanService {
         logDTO.setContent("更新了计划: " + existingPlan.getTitle());
         logDTO.setPlanId(existingPlan.getId());
         logDTO.setCreatorId(existingPlan.getCreator().getId());
-        actionLogService.createLog(logDTO);
+        actionLogService.recordLog(logDTO);
 
         return planRepository.save(existingPlan);
     }
 
+    @Override
+    @Transactional
+    public Plan updatePlanStatus(Long planId, Plan.PlanStatus status, String ifMatch) {
+        Plan plan = planRepository.findWithDetailsById(planId)
+            .orElseThrow(() -> new RuntimeException("计划不存在"));
+        EntityTagUtil.checkIfMatch(ifMatch, EntityTagUtil.toETag(EntityTagUtil.versionTag(plan)));
+
+        plan.setStatus(status);
+
+        // 记录状态变更日志
+        ActionLogDTO logDTO = new ActionLogDTO();
+        logDTO.setLogType(ActionLog.LogType.CHANGE);
+        logDTO.setContent("计划: " + plan.getTitle() + " 状态更新为: " + status);
+        logDTO.setPlanId(plan.getId());
+        logDTO.setCreatorId(plan.getCreator().getId());
+        actionLogService.recordLog(logDTO);
+
+        return planRepository.save(plan);
+    }
+
     @Override
     @Transactional
     public void deletePlan(Long planId) {
@@ -170,9 +208,26 @@ public class PlanServiceImpl implements PlanService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Plan getPlanById(Long planId) {
-        return planRepository.findById(planId)
+        // 按ID加载并逐个初始化关联，计划、任务列表、任务和用户都可以从二级缓存命中；
+        // 二级缓存在提交时通过软锁更新，不会像缓存脱离会话的实体那样被并发读取放回旧值
+        Plan plan = planRepository.findById(planId)
             .orElseThrow(() -> new RuntimeException("计划不存在"));
+        EntityGraphUtil.initializePlan(plan);
+        return plan;
+    }
+
+    @Override
+    public String getPlanVersionTag(Long planId) {
+        return planRepository.findVersionTagById(planId)
+            .orElseThrow(() -> new RuntimeException("计划不存在"));
+    }
+
+    @Override
+    public String getPlanTitle(Long planId) {
+        return planRepository.findTitleById(planId)
+            .orElseThrow(() -> new BusinessException("计划不存在", HttpStatus.NOT_FOUND));
     }
 
     @Override
@@ -182,7 +237,7 @@ public class PlanServiceImpl implements PlanService {
 
     @Override
     public List<Plan> getPlansByStatus(Plan.PlanStatus status) {
-        return planRepository.findByStatus(status);
+        return planRepository.findWithDetailsByStatus(status);
     }
 
     @Override
@@ -208,7 +263,7 @@ public class PlanServiceImpl implements PlanService {
     @Override
     @Transactional
     public Plan startPlan(Long planId, User starter) {
-        Plan plan = planRepository.findById(planId)
+        Plan plan = planRepository.findWithDetailsById(planId)
             .orElseThrow(() -> new RuntimeException("计划不存在"));
         
         // 检查计划状态
@@ -238,7 +293,7 @@ public class PlanServiceImpl implements PlanService {
     @Override
     @Transactional
     public Plan completePlan(Long planId, User completer) {
-        Plan plan = planRepository.findById(planId)
+        Plan plan = planRepository.findWithDetailsById(planId)
             .orElseThrow(() -> new RuntimeException("计划不存在"));
         
         // 检查计划状态
@@ -264,11 +319,64 @@ public class PlanServiceImpl implements PlanService {
 
     @Override
     public Page<Plan> getPagedPlansByUser(User user, Pageable pageable) {
-        return planRepository.findByUserRelated(user, pageable);
+        return loadPlansWithTasks(planRepository.findIdPageByUserRelated(user, pageable));
     }
 
     @Override
     public Page<Plan> getPagedPlansByUserAndStatus(User user, Plan.PlanStatus status, Pageable pageable) {
-        return planRepository.findByUserRelatedAndStatus(user, status, pageable);
+        return loadPlansWithTasks(planRepository.findIdPageByUserRelatedAndStatus(user, status, pageable));
     }
-} 
\ No newline at end of file
+
+    @Override
+    public Slice<Plan> getPlanSliceByUser(User user, Plan.PlanStatus status, Pageable pageable, CountMode countMode) {
+        if (countMode == CountMode.EXACT) {
+            return status != null
+                ? getPagedPlansByUserAndStatus(user, status, pageable)
+                : getPagedPlansByUser(user, pageable);
+        }
+        Slice<Long> ids = status != null
+            ? planRepository.findIdSliceByUserRelatedAndStatus(user, status, pageable)
+            : planRepository.findIdSliceByUserRelated(user, pageable);
+        Slice<Plan> slice = new SliceImpl<>(loadPlansWithTasks(ids.getContent()), ids.getPageable(), ids.hasNext());
+        if (countMode == CountMode.NONE) {
+            return slice;
+        }
+        return approximateCountCache.toPage(slice, "plan:user:" + user.getId() + ":" + status,
+            () -> status != null
+                ? planRepository.countByUserRelatedAndStatus(user, status)
+                : planRepository.countByUserRelated(user));
+    }
+
+    /**
+     * 分页的第二步：按ID页加载计划及其任务，并保持ID页的顺序
+     * 集合抓取连接与分页写在同一个查询里时 Hibernate 会在内存中分页（HHH000104），因此拆成两步
+     */
+    private Page<Plan> loadPlansWithTasks(Page<Long> ids) {
+        if (!ids.hasContent()) {
+            return new PageImpl<>(Collections.emptyList(), ids.getPageable(), ids.getTotalElements());
+        }
+        return new PageImpl<>(loadPlansWithTasks(ids.getContent()), ids.getPageable(), ids.getTotalElements());
+    }
+
+    private List<Plan> loadPlansWithTasks(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Plan> plansById = planRepository.findWithTasksByIdIn(ids).stream()
+            .collect(Collectors.toMap(Plan::getId, Function.identity()));
+        return ids.stream()
+            .map(plansById::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Plan> getPlansByUserBefore(User user, Plan.PlanStatus status, CursorCodec.Cursor cursor, int pageSize) {
+        List<Long> ids = status != null
+            ? planRepository.findIdsByUserRelatedAndStatusBefore(user, status,
+                cursor.getCreateTime(), cursor.getId(), CursorCodec.limit(pageSize))
+            : planRepository.findIdsByUserRelatedBefore(user, cursor.getCreateTime(), cursor.getId(), CursorCodec.limit(pageSize));
+        return loadPlansWithTasks(ids);
+    }
+
+}
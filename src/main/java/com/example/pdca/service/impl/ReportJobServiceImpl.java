@@ -0,0 +1,208 @@
+package com.example.pdca.service.impl;
+
+import com.example.pdca.config.AsyncConfig;
+import com.example.pdca.config.ReportJobProperties;
+import com.example.pdca.dto.ReportJobDTO;
+import com.example.pdca.dto.ReportJobDTO.JobStatus;
+import com.example.pdca.exception.BusinessException;
+import com.example.pdca.model.Report;
+import com.example.pdca.model.User;
+import com.example.pdca.repository.PlanRepository;
+import com.example.pdca.repository.UserRepository;
+import com.example.pdca.service.ReportJobService;
+import com.example.pdca.service.ReportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 报告异步生成任务服务实现类
+ * 任务状态保存在内存中，结束后按保留时间清理；服务重启后未完成的任务会丢失，客户端重新提交即可
+ */
+@Service
+public class ReportJobServiceImpl implements ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobServiceImpl.class);
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+
+    // 以下两个索引只记录排队或执行中的任务，读写都在 this 锁内
+    private final Map<Long, ReportJob> activeJobsByPlan = new HashMap<>();
+    private final Map<Long, Integer> activeJobCountByUser = new HashMap<>();
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private PlanRepository planRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReportJobProperties properties;
+
+    @Autowired
+    @Qualifier(AsyncConfig.REPORT_TASK_EXECUTOR)
+    private TaskExecutor reportTaskExecutor;
+
+    @Override
+    public ReportJobDTO submitJob(Long planId, User user) {
+        if (!planRepository.existsById(planId)) {
+            throw new BusinessException("计划不存在", HttpStatus.NOT_FOUND);
+        }
+
+        ReportJob job;
+        synchronized (this) {
+            ReportJob existing = activeJobsByPlan.get(planId);
+            if (existing != null) {
+                existing.watcherIds.add(user.getId());
+                return existing.toDTO();
+            }
+
+            int activeCount = activeJobCountByUser.getOrDefault(user.getId(), 0);
+            if (activeCount >= properties.getMaxActivePerUser()) {
+                throw new BusinessException("进行中的报告任务过多，请等待已有任务完成后再提交", HttpStatus.TOO_MANY_REQUESTS);
+            }
+
+            job = new ReportJob(UUID.randomUUID().toString(), planId, user.getId());
+            jobs.put(job.jobId, job);
+            activeJobsByPlan.put(planId, job);
+            activeJobCountByUser.put(user.getId(), activeCount + 1);
+        }
+
+        try {
+            reportTaskExecutor.execute(() -> runJob(job));
+        } catch (TaskRejectedException e) {
+            job.finish(JobStatus.FAILED, "报告生成队列已满", null);
+            release(job);
+            throw new BusinessException("报告生成队列已满，请稍后重试", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return job.toDTO();
+    }
+
+    @Override
+    public ReportJobDTO getJob(String jobId, User user) {
+        ReportJob job = jobs.get(jobId);
+        if (job == null || !job.isVisibleTo(user)) {
+            throw new BusinessException("报告任务不存在或已过期", HttpStatus.NOT_FOUND);
+        }
+        return job.toDTO();
+    }
+
+    @Override
+    public List<ReportJobDTO> getJobs(User user) {
+        return jobs.values().stream()
+            .filter(job -> job.isVisibleTo(user))
+            .sorted(Comparator.comparing((ReportJob job) -> job.createdTime).reversed())
+            .map(ReportJob::toDTO)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * 定时清理超过保留时间的已结束任务
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void purgeFinishedJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minus(properties.getRetention());
+        jobs.values().removeIf(job -> job.finishedTime != null && job.finishedTime.isBefore(threshold));
+    }
+
+    private void runJob(ReportJob job) {
+        job.start();
+        try {
+            User creator = userRepository.findById(job.creatorId)
+                .orElseThrow(() -> new BusinessException("提交任务的用户不存在"));
+            job.progress = 20;
+
+            Report report = reportService.generatePDCAReport(job.planId, creator);
+            job.finish(JobStatus.SUCCEEDED, "报告生成完成", report.getId());
+        } catch (Exception e) {
+            logger.warn("报告生成任务失败: jobId={}, planId={}, 错误: {}", job.jobId, job.planId, e.getMessage());
+            job.finish(JobStatus.FAILED, e.getMessage(), null);
+        } finally {
+            release(job);
+        }
+    }
+
+    private synchronized void release(ReportJob job) {
+        activeJobsByPlan.remove(job.planId, job);
+        activeJobCountByUser.computeIfPresent(job.creatorId, (userId, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * 任务状态
+     * 由提交线程创建、工作线程更新、查询线程读取，可变字段均为 volatile
+     */
+    private static final class ReportJob {
+        private final String jobId;
+        private final Long planId;
+        private final Long creatorId;
+        private final Set<Long> watcherIds = ConcurrentHashMap.newKeySet();
+        private final LocalDateTime createdTime = LocalDateTime.now();
+
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile int progress;
+        private volatile String message = "排队中";
+        private volatile Long reportId;
+        private volatile LocalDateTime startedTime;
+        private volatile LocalDateTime finishedTime;
+
+        private ReportJob(String jobId, Long planId, Long creatorId) {
+            this.jobId = jobId;
+            this.planId = planId;
+            this.creatorId = creatorId;
+            this.watcherIds.add(creatorId);
+        }
+
+        private void start() {
+            startedTime = LocalDateTime.now();
+            progress = 10;
+            message = "生成中";
+            status = JobStatus.RUNNING;
+        }
+
+        private void finish(JobStatus finalStatus, String finalMessage, Long finalReportId) {
+            reportId = finalReportId;
+            message = finalMessage;
+            progress = finalStatus == JobStatus.SUCCEEDED ? 100 : progress;
+            finishedTime = LocalDateTime.now();
+            status = finalStatus;
+        }
+
+        private boolean isVisibleTo(User user) {
+            return user.getRole() == User.UserRole.ADMIN || watcherIds.contains(user.getId());
+        }
+
+        private ReportJobDTO toDTO() {
+            ReportJobDTO dto = new ReportJobDTO();
+            dto.setJobId(jobId);
+            dto.setPlanId(planId);
+            dto.setCreatorId(creatorId);
+            dto.setStatus(status);
+            dto.setProgress(progress);
+            dto.setMessage(message);
+            dto.setReportId(reportId);
+            dto.setCreatedTime(createdTime);
+            dto.setStartedTime(startedTime);
+            dto.setFinishedTime(finishedTime);
+            return dto;
+        }
+    }
+}
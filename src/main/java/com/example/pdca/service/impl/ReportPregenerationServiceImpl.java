@@ -0,0 +1,222 @@
+package com.example.pdca.service.impl;
+
+import com.example.pdca.config.ReportPregenerationProperties;
+import com.example.pdca.dto.PlanReportCandidateDTO;
+import com.example.pdca.exception.BusinessException;
+import com.example.pdca.model.Plan;
+import com.example.pdca.model.Report;
+import com.example.pdca.model.User;
+import com.example.pdca.repository.PlanRepository;
+import com.example.pdca.repository.UserRepository;
+import com.example.pdca.service.ReportPregenerationService;
+import com.example.pdca.service.ReportService;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * PDCA 循环报告预生成服务实现类
+ * 按计划ID分批查找待生成的计划，每批在 ForkJoinPool 中并行生成；每批开始前检查低峰时段和连接池余量
+ */
+@Service
+public class ReportPregenerationServiceImpl implements ReportPregenerationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportPregenerationServiceImpl.class);
+
+    @Autowired
+    private ReportPregenerationProperties properties;
+
+    @Autowired
+    private PlanRepository planRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final List<TimeWindow> windows = new ArrayList<>();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @PostConstruct
+    public void init() {
+        for (String window : properties.getWindows()) {
+            windows.add(TimeWindow.parse(window));
+        }
+    }
+
+    /**
+     * 定时检查，落在低峰时段内时执行一轮预生成
+     */
+    @Scheduled(cron = "${report.pregeneration.cron:0 */10 * * * *}")
+    public void scheduledPregenerate() {
+        if (properties.isEnabled()) {
+            pregenerate();
+        }
+    }
+
+    @Override
+    public int pregenerate() {
+        if (!isOffPeak() || !running.compareAndSet(false, true)) {
+            return 0;
+        }
+
+        int parallelism = Math.max(1, properties.getParallelism());
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        // 任务阻塞在 join 上时 ForkJoinPool 可能创建补偿线程，用信号量保证同时生成的报告数不超过并行度
+        Semaphore permits = new Semaphore(parallelism);
+        int generated = 0;
+        int skipped = 0;
+        int failed = 0;
+        try {
+            long afterId = 0;
+            while (isOffPeak() && hasSpareConnections(parallelism)) {
+                List<PlanReportCandidateDTO> batch = planRepository.findReportCandidates(Plan.PlanStatus.COMPLETED,
+                    Report.ReportType.PDCA_CYCLE, afterId, PageRequest.of(0, properties.getBatchSize()));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                afterId = batch.get(batch.size() - 1).getPlanId();
+
+                List<Callable<Outcome>> tasks = new ArrayList<>(batch.size());
+                for (PlanReportCandidateDTO candidate : batch) {
+                    tasks.add(() -> generate(candidate, permits));
+                }
+                for (Future<Outcome> result : pool.invokeAll(tasks)) {
+                    switch (result.get()) {
+                        case GENERATED:
+                            generated++;
+                            break;
+                        case SKIPPED:
+                            skipped++;
+                            break;
+                        default:
+                            failed++;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.warn("报告预生成中断: {}", e.getMessage());
+        } finally {
+            pool.shutdown();
+            running.set(false);
+        }
+
+        if (generated > 0 || skipped > 0 || failed > 0) {
+            logger.info("报告预生成完成: 生成 {} 份, 已存在跳过 {} 份, 失败 {} 份", generated, skipped, failed);
+        }
+        return generated;
+    }
+
+    private Outcome generate(PlanReportCandidateDTO candidate, Semaphore permits) throws InterruptedException {
+        permits.acquire();
+        try {
+            User creator = userRepository.findById(candidate.getCreatorId())
+                .orElseThrow(() -> new BusinessException("计划创建者不存在"));
+            // 与用户请求走同一个生成入口，由计划行锁保证不会重复生成
+            reportService.generatePDCAReport(candidate.getPlanId(), creator);
+            return Outcome.GENERATED;
+        } catch (BusinessException e) {
+            if (e.getStatus() == HttpStatus.CONFLICT) {
+                // 查询候选计划后，报告已由用户手动生成
+                logger.debug("报告已存在，跳过预生成: planId={}", candidate.getPlanId());
+                return Outcome.SKIPPED;
+            }
+            logger.warn("报告预生成失败: planId={}, 错误: {}", candidate.getPlanId(), e.getMessage());
+            return Outcome.FAILED;
+        } catch (RuntimeException e) {
+            // 查询后计划可能已被修改或删除
+            logger.warn("报告预生成失败: planId={}, 错误: {}", candidate.getPlanId(), e.getMessage());
+            return Outcome.FAILED;
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean isOffPeak() {
+        LocalTime now = LocalTime.now();
+        return windows.stream().anyMatch(window -> window.contains(now));
+    }
+
+    /**
+     * 检查连接池在扣除本批所需连接后是否仍能为在线请求保留足够的连接
+     * 非 Hikari 连接池或连接池尚未启动时不做限制
+     */
+    private boolean hasSpareConnections(int required) {
+        try {
+            if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+                return true;
+            }
+            HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            if (pool == null) {
+                return true;
+            }
+            int spare = hikari.getMaximumPoolSize() - pool.getActiveConnections();
+            if (spare < required + properties.getReservedConnections()) {
+                logger.info("数据库连接池繁忙，推迟报告预生成: 活动连接 {}/{}", pool.getActiveConnections(), hikari.getMaximumPoolSize());
+                return false;
+            }
+            return true;
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private enum Outcome {
+        GENERATED, SKIPPED, FAILED
+    }
+
+    /**
+     * 每日时段，结束时间早于开始时间时表示跨零点，两者相同时表示全天
+     */
+    private static final class TimeWindow {
+        private final LocalTime start;
+        private final LocalTime end;
+
+        private TimeWindow(LocalTime start, LocalTime end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        private static TimeWindow parse(String window) {
+            String[] parts = window.split("-");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("低峰时段格式应为 HH:mm-HH:mm: " + window);
+            }
+            return new TimeWindow(LocalTime.parse(parts[0].trim()), LocalTime.parse(parts[1].trim()));
+        }
+
+        private boolean contains(LocalTime time) {
+            if (start.isBefore(end)) {
+                return !time.isBefore(start) && time.isBefore(end);
+            }
+            return !time.isBefore(start) || time.isBefore(end);
+        }
+    }
+}
@@ -1,21 +1,41 @@
 package com.example.pdca.service.impl;
 
+import com.example.pdca.config.ReportJobProperties;
+import com.example.pdca.dto.PhaseRecordCountDTO;
+import com.example.pdca.dto.PlanScoreStatsDTO;
 import com.example.pdca.dto.ReportDTO;
+import com.example.pdca.dto.CountMode;
+import com.example.pdca.dto.ReportSummaryDTO;
 import com.example.pdca.model.*;
 import com.example.pdca.repository.*;
 import com.example.pdca.service.ReportService;
 import com.example.pdca.service.PlanService;
 import com.example.pdca.exception.BusinessException;
+import com.example.pdca.util.EntityTagUtil;
 import com.example.pdca.util.ExcelReportGenerator;
 import com.example.pdca.util.PDFReportGenerator;
+import com.example.pdca.util.ApproximateCountCache;
+import com.example.pdca.util.CursorCodec;
+import com.example.pdca.util.RenderBulkhead;
+import com.example.pdca.util.ReportRenderCache;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
 /**
@@ -31,6 +51,9 @@ public class ReportServiceImpl implements ReportService {
     @Autowired
     private PlanRepository planRepository;
 
+    @Autowired
+    private TaskRepository taskRepository;
+
     @Autowired
     private DoRepository doRepository;
 
@@ -40,18 +63,49 @@ public class ReportServiceImpl implements ReportService {
     @Autowired
     private ActRepository actRepository;
 
+    @Autowired
+    private DoRecordRepository doRecordRepository;
+
+    @Autowired
+    private CheckResultRepository checkResultRepository;
+
+    @Autowired
+    private ActRecordRepository actRecordRepository;
+
+    @Autowired
+    private ReportJobProperties reportJobProperties;
+
     @Autowired
     private PDFReportGenerator pdfReportGenerator;
 
     @Autowired
     private ExcelReportGenerator excelReportGenerator;
 
+    @Autowired
+    private ReportRenderCache reportRenderCache;
+
+    @Autowired
+    private RenderBulkhead renderBulkhead;
+
     @Autowired
     private PlanService planService;
 
+    @Autowired
+    private ApproximateCountCache approximateCountCache;
+
     @Override
     @Transactional
     public Report createReport(ReportDTO reportDTO, User creator) {
+        Plan plan = null;
+        if (reportDTO.getPlanId() != null) {
+            // 报告实体直接作为响应返回，计划按详情的实体图加载
+            plan = planRepository.findWithDetailsById(reportDTO.getPlanId())
+                .orElseThrow(() -> new RuntimeException("关联的计划不存在"));
+        }
+        return saveReport(reportDTO, creator, plan);
+    }
+
+    private Report saveReport(ReportDTO reportDTO, User creator, Plan plan) {
         Report report = new Report();
         report.setTitle(reportDTO.getTitle());
         report.setSummary(reportDTO.getSummary());
@@ -66,21 +120,17 @@ public class ReportServiceImpl implements ReportService {
         report.setStatus(reportDTO.getStatus() != null 
             ? reportDTO.getStatus() 
             : Report.ReportStatus.DRAFT);
-
-        if (reportDTO.getPlanId() != null) {
-            Plan plan = planRepository.findById(reportDTO.getPlanId())
-                .orElseThrow(() -> new RuntimeException("关联的计划不存在"));
-            report.setPlan(plan);
-        }
+        report.setPlan(plan);
 
         return reportRepository.save(report);
     }
 
     @Override
     @Transactional
-    public Report updateReport(ReportDTO reportDTO) {
-        Report existingReport = reportRepository.findById(reportDTO.getId())
+    public Report updateReport(ReportDTO reportDTO, String ifMatch) {
+        Report existingReport = reportRepository.findDetailById(reportDTO.getId())
             .orElseThrow(() -> new RuntimeException("报告不存在"));
+        EntityTagUtil.checkIfMatch(ifMatch, EntityTagUtil.toETag(getReportVersionTag(existingReport)));
 
         // 更新基本信息
         existingReport.setTitle(reportDTO.getTitle());
@@ -106,20 +156,11 @@ public class ReportServiceImpl implements ReportService {
             existingReport.setPlan(plan);
         }
 
-        Report updatedReport = reportRepository.save(existingReport);
-        
-        // 确保关联数据被加载
-        if (updatedReport.getPlan() != null) {
-            updatedReport.getPlan().getId();
-            updatedReport.getPlan().getTitle();
-            updatedReport.getPlan().getDescription();
-        }
-        
-        if (updatedReport.getCreator() != null) {
-            updatedReport.getCreator().getId();
-            updatedReport.getCreator().getUsername();
-        }
-        
+        // 先写入以递增版本号，再在同一事务内计算标记：提交前报告行一直被本事务锁定，
+        // 标记不会包含之后其他写操作的版本
+        Report updatedReport = reportRepository.saveAndFlush(existingReport);
+        updatedReport.setVersionTag(getReportVersionTag(updatedReport));
+        reportRenderCache.invalidate(updatedReport.getId());
         return updatedReport;
     }
 
@@ -130,27 +171,14 @@ public class ReportServiceImpl implements ReportService {
             .orElseThrow(() -> new RuntimeException("报告不存在"));
         
         reportRepository.delete(report);
+        reportRenderCache.invalidate(reportId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Report getReportById(Long reportId) {
-        Report report = reportRepository.findById(reportId)
+        return reportRepository.findWithPlanAndCreatorById(reportId)
             .orElseThrow(() -> new RuntimeException("报告不存在: " + reportId));
-        
-        // 确保关联数据被加载
-        if (report.getPlan() != null) {
-            report.getPlan().getId(); // 触发懒加载
-            report.getPlan().getTitle(); // 加载计划标题
-            report.getPlan().getDescription(); // 加载计划描述
-        }
-        
-        if (report.getCreator() != null) {
-            report.getCreator().getId(); // 触发懒加载
-            report.getCreator().getUsername(); // 加载创建者用户名
-        }
-        
-        return report;
     }
 
     @Override
@@ -166,194 +194,244 @@ public class ReportServiceImpl implements ReportService {
     @Override
     @Transactional
     public Report generatePDCAReport(Long planId, User creator) {
+        // 同步接口、异步任务和预生成都经过这里：先锁定计划行，同一计划的生成串行执行，
+        // 否则并发的“检查后插入”会生成多份报告。加锁必须是事务中的第一条查询，之后的读取才能看到先提交的报告
+        Plan plan = planRepository.findForUpdateById(planId)
+            .orElseThrow(() -> new BusinessException("计划不存在", HttpStatus.NOT_FOUND));
+        // 只加载计划本身和创建者，不加载任务集合
+        Hibernate.initialize(plan.getCreator());
+
         // 检查是否已经生成过报告
         List<Report> existingReports = reportRepository.findByPlanAndType(planId, Report.ReportType.PDCA_CYCLE);
         if (!existingReports.isEmpty()) {
-            throw new BusinessException("该计划已生成PDCA循环总结报告，不能重复生成");
+            throw new BusinessException("该计划已生成PDCA循环总结报告，不能重复生成", HttpStatus.CONFLICT);
         }
 
         // 检查未评分的任务
-        List<Task> unEvaluatedTasks = checkUnEvaluatedTasks(planId);
-        if (!unEvaluatedTasks.isEmpty()) {
-            throw new BusinessException("存在未评分的任务，无法生成报告。未评分任务数量：" + unEvaluatedTasks.size());
+        PlanScoreStatsDTO stats = getPlanScoreStats(planId);
+        if (!stats.isReadyForReport()) {
+            throw new BusinessException("存在未评分的任务，无法生成报告。未评分任务数量：" + stats.getUnevaluatedTasks());
         }
 
-        // 获取计划信息
-        Plan plan = planService.getPlanById(planId);
-        
-        // 创建报告DTO
+        // 在当前事务内一次性加载各阶段数据，查询次数固定，与记录数量无关；
+        // 任务只参与上面的得分聚合，评价和记录明细只取前若干条
+        PageRequest recentRecords = PageRequest.of(0, reportJobProperties.getSectionRecordLimit());
+        List<Task> evaluations = taskRepository.findEvaluationsByPlanId(planId, recentRecords);
+        List<DoPhase> doPhases = doRepository.findByPlanIdWithExecutor(planId);
+        List<PhaseRecordCountDTO> doRecordCounts = doRecordRepository.countByPlanIdGroupByPhaseAndType(planId);
+        List<DoRecord> doRecords = doRecordRepository.findRecentByPlanId(planId, recentRecords);
+        List<Check> checkPhases = checkRepository.findByPlanIdWithChecker(planId);
+        List<PhaseRecordCountDTO> checkResultCounts = checkResultRepository.countByPlanIdGroupByPhaseAndType(planId);
+        List<CheckResult> checkResults = checkResultRepository.findRecentByPlanId(planId, recentRecords);
+        List<Act> actPhases = actRepository.findByPlanIdWithExecutor(planId);
+        List<PhaseRecordCountDTO> actRecordCounts = actRecordRepository.countByPlanIdGroupByPhaseAndType(planId);
+        List<ActRecord> actRecords = actRecordRepository.findRecentByPlanId(planId, recentRecords);
+
+        // 各章节在当前线程依次渲染：阶段和记录是当前会话管理的实体，不能交给其他线程访问，
+        // 章节拼装本身只是内存中的字符串操作，耗时集中在上面固定次数的查询
         ReportDTO reportDTO = new ReportDTO();
         reportDTO.setTitle(plan.getTitle() + " - PDCA循环总结报告");
         reportDTO.setPlanId(planId);
         reportDTO.setType(Report.ReportType.PDCA_CYCLE);
-        
-        // 生成报告内容
-        StringBuilder summary = new StringBuilder();
-        summary.append("本报告总结了计划「").append(plan.getTitle()).append("」的PDCA循环执行情况。\n");
-        summary.append("计划开始时间：").append(plan.getStartTime()).append("\n");
-        summary.append("计划结束时间：").append(plan.getEndTime()).append("\n");
-        summary.append("任务完成情况：已完成 ").append(plan.getTasks().size()).append(" 个任务\n");
-        reportDTO.setSummary(summary.toString());
-        
-        // 计算平均分
-        double avgScore = plan.getTasks().stream()
-            .mapToInt(Task::getScore)
-            .average()
-            .orElse(0.0);
-        
-        // 生成任务评价分析
-        StringBuilder planningAnalysis = new StringBuilder();
-        planningAnalysis.append("任务平均得分：").append(String.format("%.2f", avgScore)).append("\n");
-        planningAnalysis.append("任务评价详情：\n");
-        plan.getTasks().forEach(task -> {
-            planningAnalysis.append("- ").append(task.getName())
-                .append("（得分：").append(task.getScore()).append("）：")
-                .append(task.getEvaluation()).append("\n");
-        });
-        reportDTO.setPlanningAnalysis(planningAnalysis.toString());
-        
-        // 创建并返回报告
-        return createReport(reportDTO, creator);
+        reportDTO.setSummary(generateSummary(plan, stats, doPhases.size(), checkPhases.size(), actPhases.size()));
+        reportDTO.setPlanningAnalysis(generatePlanningAnalysis(plan, stats, evaluations));
+        reportDTO.setDoingAnalysis(generatePhaseAnalysis("执行", doPhases, doRecordCounts,
+            doRecords, DoPhase::getId, this::describeDoPhase, record -> record.getDoPhase().getId(),
+            record -> formatRecord(record.getType(), record.getContent(), record.getRecordTime())));
+        reportDTO.setCheckingAnalysis(generatePhaseAnalysis("检查", checkPhases, checkResultCounts,
+            checkResults, Check::getId, this::describeCheckPhase, result -> result.getCheckPhase().getId(),
+            result -> formatRecord(result.getType(), result.getContent(), result.getRecordTime())));
+        reportDTO.setActingAnalysis(generatePhaseAnalysis("行动", actPhases, actRecordCounts,
+            actRecords, Act::getId, this::describeActPhase, record -> record.getActPhase().getId(),
+            record -> formatRecord(record.getType(), record.getContent(), record.getRecordTime())));
+        
+        // 创建并返回报告，计划已在当前事务中加载，不再按详情重新查询
+        return saveReport(reportDTO, creator, plan);
     }
 
-    private String generatePlanningAnalysis(Plan plan) {
-        return String.format("计划标题：%s\n" +
-            "计划描述：%s\n" +
-            "优先级：%s\n" +
-            "创建者：%s\n" +
-            "开始时间：%s\n" +
-            "结束时间：%s\n" +
-            "状态：%s\n" +
-            "关键指标：%s\n",
-            plan.getTitle(),
-            plan.getDescription(),
-            plan.getPriority(),
-            plan.getCreator().getUsername(),
-            plan.getStartTime(),
-            plan.getEndTime(),
-            plan.getStatus(),
-            plan.getKeyIndicators()
-        );
+    private String generateSummary(Plan plan, PlanScoreStatsDTO stats, int doCount, int checkCount, int actCount) {
+        SectionBuilder section = new SectionBuilder();
+        section.appendLine("本报告总结了计划「" + plan.getTitle() + "」的PDCA循环执行情况。");
+        section.appendLine("计划开始时间：" + plan.getStartTime());
+        section.appendLine("计划结束时间：" + plan.getEndTime());
+        section.appendLine("任务完成情况：已完成 " + stats.getTotalTasks() + " 个任务");
+        section.appendLine(String.format("阶段情况：执行阶段 %d 个，检查阶段 %d 个，行动阶段 %d 个", doCount, checkCount, actCount));
+        return section.build();
     }
 
-    private String generateDoingAnalysis(List<DoPhase> doPhases) {
-        if (doPhases.isEmpty()) {
-            return "无执行阶段记录";
+    private String generatePlanningAnalysis(Plan plan, PlanScoreStatsDTO stats, List<Task> evaluations) {
+        SectionBuilder section = new SectionBuilder();
+        section.appendLine("计划描述：" + plan.getDescription());
+        section.appendLine("优先级：" + plan.getPriority());
+        section.appendLine("创建者：" + plan.getCreatorUsername());
+        section.appendLine("关键指标：" + plan.getKeyIndicators());
+
+        // 得分统计来自聚合查询，评价详情只列出前若干条
+        section.appendLine("任务平均得分：" + String.format("%.2f", stats.getAverageScore() != null ? stats.getAverageScore() : 0.0));
+        if (stats.getEvaluatedTasks() > 0) {
+            section.appendLine("最高得分：" + stats.getMaxScore() + "，最低得分：" + stats.getMinScore());
         }
-        
-        DoPhase doPhase = doPhases.get(0);
-        StringBuilder analysis = new StringBuilder();
-        analysis.append(String.format("执行标题：%s\n" +
+        section.appendLine("任务评价详情：");
+        for (Task task : evaluations) {
+            section.appendLine("- " + task.getName() + "（得分：" + task.getScore() + "）：" + task.getEvaluation());
+        }
+        if (stats.getTotalTasks() > evaluations.size()) {
+            section.appendLine("……另有 " + (stats.getTotalTasks() - evaluations.size()) + " 个任务未列出");
+        }
+        return section.build();
+    }
+
+    /**
+     * 生成执行、检查、行动阶段的分析
+     * 每个阶段输出基本信息、按类型的记录统计和最近的记录明细
+     */
+    private <P, R> String generatePhaseAnalysis(String phaseName, List<P> phases, List<PhaseRecordCountDTO> recordCounts,
+                                                List<R> recentRecords, Function<P, Long> phaseId,
+                                                Function<P, String> describePhase, Function<R, Long> recordPhaseId,
+                                                Function<R, String> formatRecord) {
+        if (phases.isEmpty()) {
+            return "无" + phaseName + "阶段记录";
+        }
+
+        Map<Long, List<PhaseRecordCountDTO>> countsByPhase = recordCounts.stream()
+            .collect(Collectors.groupingBy(PhaseRecordCountDTO::getPhaseId));
+        Map<Long, List<R>> recordsByPhase = recentRecords.stream()
+            .collect(Collectors.groupingBy(recordPhaseId));
+
+        SectionBuilder section = new SectionBuilder();
+        for (P phase : phases) {
+            section.appendLine(describePhase.apply(phase));
+
+            List<PhaseRecordCountDTO> counts = countsByPhase.getOrDefault(phaseId.apply(phase), Collections.emptyList());
+            long total = counts.stream().mapToLong(PhaseRecordCountDTO::getCount).sum();
+            if (total == 0) {
+                continue;
+            }
+            section.appendLine("记录统计：共 " + total + " 条（" + counts.stream()
+                .map(count -> (count.getType() != null ? count.getType() : "未分类") + " " + count.getCount())
+                .collect(Collectors.joining("，")) + "）");
+
+            List<R> records = recordsByPhase.getOrDefault(phaseId.apply(phase), Collections.emptyList());
+            section.appendLine("最近记录：");
+            records.forEach(record -> section.appendLine(formatRecord.apply(record)));
+        }
+        return section.build();
+    }
+
+    private String describeDoPhase(DoPhase doPhase) {
+        return String.format("执行标题：%s\n" +
             "执行描述：%s\n" +
             "执行人：%s\n" +
             "开始时间：%s\n" +
             "结束时间：%s\n" +
-            "状态：%s\n",
+            "状态：%s",
             doPhase.getTitle(),
             doPhase.getDescription(),
-            doPhase.getExecutor().getUsername(),
+            username(doPhase.getExecutor()),
             doPhase.getStartTime(),
             doPhase.getEndTime(),
             doPhase.getStatus()
-        ));
-        
-        // 添加执行记录
-        if (doPhase.getRecords() != null && !doPhase.getRecords().isEmpty()) {
-            analysis.append("\n执行记录：\n");
-            doPhase.getRecords().forEach(record -> 
-                analysis.append(String.format("- [%s] %s (%s)\n",
-                    record.getType(),
-                    record.getContent(),
-                    record.getRecordTime()
-                ))
-            );
-        }
-        
-        return analysis.toString();
+        );
     }
 
-    private String generateCheckingAnalysis(List<Check> checkPhases) {
-        if (checkPhases.isEmpty()) {
-            return "无检查阶段记录";
-        }
-        
-        Check checkPhase = checkPhases.get(0);
-        StringBuilder analysis = new StringBuilder();
-        analysis.append(String.format("检查标题：%s\n" +
+    private String describeCheckPhase(Check checkPhase) {
+        return String.format("检查标题：%s\n" +
             "检查描述：%s\n" +
             "检查人：%s\n" +
             "开始时间：%s\n" +
             "结束时间：%s\n" +
-            "状态：%s\n",
+            "状态：%s",
             checkPhase.getTitle(),
             checkPhase.getDescription(),
-            checkPhase.getChecker().getUsername(),
+            username(checkPhase.getChecker()),
             checkPhase.getStartTime(),
             checkPhase.getEndTime(),
             checkPhase.getStatus()
-        ));
-        
-        // 添加检查结果
-        if (checkPhase.getResults() != null && !checkPhase.getResults().isEmpty()) {
-            analysis.append("\n检查结果：\n");
-            checkPhase.getResults().forEach(result -> 
-                analysis.append(String.format("- [%s] %s (%s)\n",
-                    result.getType(),
-                    result.getContent(),
-                    result.getRecordTime()
-                ))
-            );
-        }
-        
-        return analysis.toString();
+        );
     }
 
-    private String generateActingAnalysis(List<Act> actPhases) {
-        if (actPhases.isEmpty()) {
-            return "无行动阶段记录";
-        }
-        
-        Act actPhase = actPhases.get(0);
-        StringBuilder analysis = new StringBuilder();
-        analysis.append(String.format("行动标题：%s\n" +
+    private String describeActPhase(Act actPhase) {
+        return String.format("行动标题：%s\n" +
             "行动描述：%s\n" +
             "执行人：%s\n" +
             "开始时间：%s\n" +
             "结束时间：%s\n" +
-            "状态：%s\n",
+            "状态：%s",
             actPhase.getTitle(),
             actPhase.getDescription(),
-            actPhase.getExecutor().getUsername(),
+            username(actPhase.getExecutor()),
             actPhase.getStartTime(),
             actPhase.getEndTime(),
             actPhase.getStatus()
-        ));
-        
-        // 添加行动记录
-        if (actPhase.getRecords() != null && !actPhase.getRecords().isEmpty()) {
-            analysis.append("\n行动记录：\n");
-            actPhase.getRecords().forEach(record -> 
-                analysis.append(String.format("- [%s] %s (%s)\n",
-                    record.getType(),
-                    record.getContent(),
-                    record.getRecordTime()
-                ))
-            );
+        );
+    }
+
+    private String formatRecord(Enum<?> type, String content, LocalDateTime recordTime) {
+        return String.format("- [%s] %s (%s)", type, content, recordTime);
+    }
+
+    private String username(User user) {
+        return user != null ? user.getUsername() : "未指定";
+    }
+
+    /**
+     * 报告章节文本构建器
+     * 报告各字段的列长度为 2000，超出部分按行省略并注明省略行数
+     */
+    private static final class SectionBuilder {
+        private static final int MAX_LENGTH = 2000;
+        // 为末尾的省略说明预留的长度
+        private static final int OMISSION_RESERVE = 30;
+
+        private final StringBuilder text = new StringBuilder();
+        private int omittedLines;
+
+        private void appendLine(String line) {
+            if (omittedLines > 0 || text.length() + line.length() + 1 > MAX_LENGTH - OMISSION_RESERVE) {
+                omittedLines++;
+                return;
+            }
+            text.append(line).append('\n');
+        }
+
+        private String build() {
+            if (omittedLines > 0) {
+                text.append("……另有 ").append(omittedLines).append(" 项因篇幅省略\n");
+            }
+            return text.toString();
         }
-        
-        return analysis.toString();
     }
 
     @Override
-    public ByteArrayOutputStream exportReportToPDF(Long reportId) {
-        Report report = getReportById(reportId);
-        return pdfReportGenerator.generatePDF(report);
+    public RenderBulkhead.Permit acquireExportPermit(Report report, ReportRenderCache.Format format) {
+        if (reportRenderCache.isCached(report, format)) {
+            return RenderBulkhead.Permit.NONE;
+        }
+        return renderBulkhead.acquire();
+    }
+
+    @Override
+    public void exportReportToPDF(Report report, OutputStream outputStream) throws IOException {
+        reportRenderCache.write(report, ReportRenderCache.Format.PDF,
+            out -> pdfReportGenerator.generatePDF(withContent(report), out), outputStream);
     }
 
     @Override
-    public ByteArrayOutputStream exportReportToExcel(Long reportId) {
-        Report report = getReportById(reportId);
-        return excelReportGenerator.generateExcel(report);
+    public void exportReportToExcel(Report report, OutputStream outputStream) throws IOException {
+        reportRenderCache.write(report, ReportRenderCache.Format.EXCEL,
+            out -> excelReportGenerator.generateExcel(withContent(report), out), outputStream);
+    }
+
+    /**
+     * 确保报告的分析文本已加载
+     * 分析文本是懒加载属性，只在渲染缓存未命中时才需要；渲染在异步线程中进行，报告可能已脱离持久化上下文
+     */
+    private Report withContent(Report report) {
+        if (Hibernate.isPropertyInitialized(report, "summary")) {
+            return report;
+        }
+        return reportRepository.findWithContentById(report.getId())
+            .orElseThrow(() -> new RuntimeException("报告不存在: " + report.getId()));
     }
 
     @Override
@@ -362,31 +440,69 @@ public class ReportServiceImpl implements ReportService {
     }
 
     @Override
-    public Page<Report> getPagedReportsByCreator(User creator, Pageable pageable) {
-        Page<Report> reports = reportRepository.findPageByCreator(creator, pageable);
-        // 手动加载关联的计划数据
-        reports.getContent().forEach(report -> {
-            if (report.getPlan() != null) {
-                report.getPlan().getId(); // 触发懒加载
-            }
-        });
-        return reports;
+    public Page<ReportSummaryDTO> getReportSummariesByCreator(User creator, Pageable pageable) {
+        return reportRepository.findSummaryPageByCreator(creator, pageable);
+    }
+
+    @Override
+    public Page<ReportSummaryDTO> getReportSummariesByType(Report.ReportType type, Pageable pageable) {
+        return reportRepository.findSummaryPageByType(type, pageable);
     }
 
     @Override
-    public Page<Report> getPagedReportsByType(Report.ReportType type, Pageable pageable) {
-        return reportRepository.findPageByType(type, pageable);
+    public Page<ReportSummaryDTO> getReportSummariesByStatus(Report.ReportStatus status, Pageable pageable) {
+        return reportRepository.findSummaryPageByStatus(status, pageable);
     }
 
     @Override
-    public Page<Report> getPagedReportsByStatus(Report.ReportStatus status, Pageable pageable) {
-        return reportRepository.findPageByStatus(status, pageable);
+    public Slice<ReportSummaryDTO> getReportSummarySlice(User creator, Report.ReportType type, Report.ReportStatus status,
+                                                         Pageable pageable, CountMode countMode) {
+        if (countMode == CountMode.EXACT) {
+            if (type != null) {
+                return getReportSummariesByType(type, pageable);
+            }
+            return status != null
+                ? getReportSummariesByStatus(status, pageable)
+                : getReportSummariesByCreator(creator, pageable);
+        }
+        Slice<ReportSummaryDTO> slice;
+        String key;
+        LongSupplier counter;
+        if (type != null) {
+            slice = reportRepository.findSummarySliceByType(type, pageable);
+            key = "report:type:" + type;
+            counter = () -> reportRepository.countByType(type);
+        } else if (status != null) {
+            slice = reportRepository.findSummarySliceByStatus(status, pageable);
+            key = "report:status:" + status;
+            counter = () -> reportRepository.countByStatus(status);
+        } else {
+            slice = reportRepository.findSummarySliceByCreator(creator, pageable);
+            key = "report:creator:" + creator.getId();
+            counter = () -> reportRepository.countByCreator(creator);
+        }
+        return countMode == CountMode.NONE ? slice : approximateCountCache.toPage(slice, key, counter);
+    }
+
+    @Override
+    public List<ReportSummaryDTO> getReportSummariesBefore(User creator, Report.ReportType type, Report.ReportStatus status,
+                                                           CursorCodec.Cursor cursor, int pageSize) {
+        if (type != null) {
+            return reportRepository.findSummariesByTypeBefore(type, cursor.getCreateTime(), cursor.getId(),
+                CursorCodec.limit(pageSize));
+        }
+        if (status != null) {
+            return reportRepository.findSummariesByStatusBefore(status, cursor.getCreateTime(), cursor.getId(),
+                CursorCodec.limit(pageSize));
+        }
+        return reportRepository.findSummariesByCreatorBefore(creator, cursor.getCreateTime(), cursor.getId(),
+            CursorCodec.limit(pageSize));
     }
 
     @Override
     @Transactional
     public Report submitReport(Long reportId, User submitter) {
-        Report report = reportRepository.findById(reportId)
+        Report report = reportRepository.findDetailById(reportId)
             .orElseThrow(() -> new RuntimeException("报告不存在"));
         
         // 检查权限
@@ -404,50 +520,43 @@ public class ReportServiceImpl implements ReportService {
         report.setStatus(Report.ReportStatus.COMPLETED);
         
         Report updatedReport = reportRepository.save(report);
-        
-        // 确保关联数据被加载
-        if (updatedReport.getPlan() != null) {
-            updatedReport.getPlan().getId();
-            updatedReport.getPlan().getTitle();
-        }
-        
+        reportRenderCache.invalidate(reportId);
         return updatedReport;
     }
 
     @Override
     public List<Task> checkUnEvaluatedTasks(Long planId) {
-        // 获取计划信息
-        Plan plan = planService.getPlanById(planId);
-        
-        // 过滤出未评分的任务
-        return plan.getTasks().stream()
-            .filter(task -> task.getScore() == null)
-            .collect(Collectors.toList());
+        return taskRepository.findUnevaluatedByPlanId(planId);
+    }
+
+    @Override
+    public PlanScoreStatsDTO getPlanScoreStats(Long planId) {
+        return taskRepository.findScoreStatsByPlanId(planId);
     }
 
     @Override
     public Report getReportByPlanId(Long planId) {
-        List<Report> reports = reportRepository.findByPlanAndType(planId, Report.ReportType.PDCA_CYCLE);
+        List<Report> reports = reportRepository.findDetailByPlanAndType(planId, Report.ReportType.PDCA_CYCLE);
         if (reports.isEmpty()) {
             throw new BusinessException("该计划尚未生成PDCA循环总结报告");
         }
-        
-        Report report = reports.get(0);
-        
-        // 确保关联数据被加载
-        if (report.getPlan() != null) {
-            report.getPlan().getId();
-            report.getPlan().getTitle();
-            if (report.getPlan().getTasks() != null) {
-                report.getPlan().getTasks().size();
-            }
+        return reports.get(0);
+    }
+
+    @Override
+    public String getPlanReportVersionTag(Long planId) {
+        return planService.getPlanVersionTag(planId) + "-"
+            + reportRepository.findVersionTagByPlanAndType(planId, Report.ReportType.PDCA_CYCLE);
+    }
+
+    private String getReportVersionTag(Report report) {
+        if (report.getPlan() == null) {
+            return "0-" + report.getVersion();
         }
-        
-        if (report.getCreator() != null) {
-            report.getCreator().getId();
-            report.getCreator().getUsername();
+        // 计划报告详情只展示 PDCA 循环报告，其他类型的报告必须带上自身版本号，否则修改报告不会改变标记
+        if (report.getType() != Report.ReportType.PDCA_CYCLE) {
+            return planService.getPlanVersionTag(report.getPlan().getId()) + "-" + report.getVersion();
         }
-        
-        return report;
+        return getPlanReportVersionTag(report.getPlan().getId());
     }
-} 
\ No newline at end of file
+}
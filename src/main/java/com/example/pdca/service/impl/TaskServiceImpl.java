@@ -4,16 +4,22 @@ import com.example.pdca.model.Task;
 import com.example.pdca.model.User;
 import com.example.pdca.model.ActionLog;
 import com.example.pdca.dto.ActionLogDTO;
+import com.example.pdca.dto.CountMode;
 import com.example.pdca.dto.TaskEvaluationDTO;
 import com.example.pdca.repository.TaskRepository;
 import com.example.pdca.repository.UserRepository;
 import com.example.pdca.service.TaskService;
 import com.example.pdca.service.ActionLogService;
+import com.example.pdca.util.ApproximateCountCache;
+import com.example.pdca.util.CursorCodec;
+import com.example.pdca.util.EntityTagUtil;
+import org.hibernate.Hibernate;
 import org.springframework.beans.BeanWrapper;
 import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -34,11 +40,15 @@ public class TaskServiceImpl implements TaskService {
     @Autowired
     private ActionLogService actionLogService;
 
+    @Autowired
+    private ApproximateCountCache approximateCountCache;
+
     @Override
     @Transactional
-    public Task assignTask(Long taskId, Long assigneeId) {
-        Task task = taskRepository.findById(taskId)
+    public Task assignTask(Long taskId, Long assigneeId, String ifMatch) {
+        Task task = taskRepository.findWithPlanAndAssigneeById(taskId)
             .orElseThrow(() -> new RuntimeException("任务不存在"));
+        EntityTagUtil.checkIfMatch(ifMatch, EntityTagUtil.toETag(EntityTagUtil.versionTag(task)));
             
         User assignee = null;
         if (assigneeId != null) {
@@ -59,15 +69,16 @@ public class TaskServiceImpl implements TaskService {
         logDTO.setTaskId(taskId);
         logDTO.setPlanId(task.getPlan().getId());
         logDTO.setCreatorId(task.getPlan().getCreator().getId());
-        actionLogService.createLog(logDTO);
+        actionLogService.recordLog(logDTO);
         
         return updatedTask;
     }
 
     @Override
-    public Task updateTaskStatus(Long taskId, Task.TaskStatus status) {
-        Task task = taskRepository.findById(taskId)
+    public Task updateTaskStatus(Long taskId, Task.TaskStatus status, String ifMatch) {
+        Task task = taskRepository.findWithPlanAndAssigneeById(taskId)
             .orElseThrow(() -> new RuntimeException("任务不存在"));
+        EntityTagUtil.checkIfMatch(ifMatch, EntityTagUtil.toETag(EntityTagUtil.versionTag(task)));
             
         task.setStatus(status);
         Task updatedTask = taskRepository.save(task);
@@ -79,7 +90,7 @@ public class TaskServiceImpl implements TaskService {
         logDTO.setTaskId(taskId);
         logDTO.setPlanId(task.getPlan().getId());
         logDTO.setCreatorId(task.getPlan().getCreator().getId());
-        actionLogService.createLog(logDTO);
+        actionLogService.recordLog(logDTO);
         
         return updatedTask;
     }
@@ -95,9 +106,10 @@ public class TaskServiceImpl implements TaskService {
     }
 
     @Override
-    public Task partialUpdateTask(Long taskId, Map<String, Object> updates) {
-        Task task = taskRepository.findById(taskId)
+    public Task partialUpdateTask(Long taskId, Map<String, Object> updates, String ifMatch) {
+        Task task = taskRepository.findWithPlanAndAssigneeById(taskId)
             .orElseThrow(() -> new RuntimeException("任务不存在"));
+        EntityTagUtil.checkIfMatch(ifMatch, EntityTagUtil.toETag(EntityTagUtil.versionTag(task)));
 
         BeanWrapper wrapper = new BeanWrapperImpl(task);
         
@@ -125,7 +137,7 @@ public class TaskServiceImpl implements TaskService {
         logDTO.setTaskId(taskId);
         logDTO.setPlanId(task.getPlan().getId());
         logDTO.setCreatorId(task.getPlan().getCreator().getId());
-        actionLogService.createLog(logDTO);
+        actionLogService.recordLog(logDTO);
         
         return updatedTask;
     }
@@ -140,6 +152,25 @@ public class TaskServiceImpl implements TaskService {
         return taskRepository.findByUserRelatedAndStatus(user, status, pageable);
     }
 
+    @Override
+    public Slice<Task> getTaskSliceByUser(User user, Task.TaskStatus status, Pageable pageable, CountMode countMode) {
+        if (countMode == CountMode.EXACT) {
+            return status != null
+                ? taskRepository.findByUserRelatedAndStatus(user, status, pageable)
+                : taskRepository.findByUserRelated(user, pageable);
+        }
+        Slice<Task> slice = status != null
+            ? taskRepository.findSliceByUserRelatedAndStatus(user, status, pageable)
+            : taskRepository.findSliceByUserRelated(user, pageable);
+        if (countMode == CountMode.NONE) {
+            return slice;
+        }
+        return approximateCountCache.toPage(slice, "task:user:" + user.getId() + ":" + status,
+            () -> status != null
+                ? taskRepository.countByUserRelatedAndStatus(user, status)
+                : taskRepository.countByUserRelated(user));
+    }
+
     @Override
     public List<Task> getTasksByAssignee(User assignee) {
         return taskRepository.findByAssignee(assignee);
@@ -151,15 +182,27 @@ public class TaskServiceImpl implements TaskService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Task getTaskById(Long taskId) {
-        return taskRepository.findById(taskId)
+        // 任务、所属计划和负责人都可以从二级缓存命中
+        Task task = taskRepository.findById(taskId)
             .orElseThrow(() -> new RuntimeException("任务不存在: " + taskId));
+        Hibernate.initialize(task.getPlan());
+        Hibernate.initialize(task.getAssignee());
+        return task;
     }
 
     @Override
-    public Task evaluateTask(Long taskId, TaskEvaluationDTO evaluationDTO, User evaluator) {
-        Task task = taskRepository.findById(taskId)
+    public String getTaskVersionTag(Long taskId) {
+        return taskRepository.findVersionTagById(taskId)
+            .orElseThrow(() -> new RuntimeException("任务不存在: " + taskId));
+    }
+
+    @Override
+    public Task evaluateTask(Long taskId, TaskEvaluationDTO evaluationDTO, User evaluator, String ifMatch) {
+        Task task = taskRepository.findWithPlanAndAssigneeById(taskId)
             .orElseThrow(() -> new RuntimeException("任务不存在"));
+        EntityTagUtil.checkIfMatch(ifMatch, EntityTagUtil.toETag(EntityTagUtil.versionTag(task)));
 
         // 检查权限：只有计划创建者可以评价
         if (!task.getPlan().getCreator().getId().equals(evaluator.getId())) {
@@ -180,8 +223,18 @@ public class TaskServiceImpl implements TaskService {
         logDTO.setTaskId(taskId);
         logDTO.setPlanId(task.getPlan().getId());
         logDTO.setCreatorId(evaluator.getId());
-        actionLogService.createLog(logDTO);
+        actionLogService.recordLog(logDTO);
 
         return updatedTask;
     }
-} 
\ No newline at end of file
+
+
+    @Override
+    public List<Task> getTasksByUserBefore(User user, Task.TaskStatus status, CursorCodec.Cursor cursor, int pageSize) {
+        if (status != null) {
+            return taskRepository.findByUserRelatedAndStatusBefore(user, status,
+                cursor.getCreateTime(), cursor.getId(), CursorCodec.limit(pageSize));
+        }
+        return taskRepository.findByUserRelatedBefore(user, cursor.getCreateTime(), cursor.getId(), CursorCodec.limit(pageSize));
+    }
+}
@@ -4,6 +4,7 @@ import com.example.pdca.dto.UserDTO;
 import com.example.pdca.exception.UserAlreadyExistsException;
 import com.example.pdca.model.User;
 import com.example.pdca.repository.UserRepository;
+import com.example.pdca.security.AccountVersionRegistry;
 import com.example.pdca.service.UserService;
 import com.example.pdca.util.JwtTokenUtil;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -38,6 +39,9 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private JwtTokenUtil jwtTokenUtil;
 
+    @Autowired
+    private AccountVersionRegistry accountVersionRegistry;
+
     @Override
     @Transactional
     public User register(UserDTO userDTO) {
@@ -69,6 +73,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public String login(String username, String password) {
         // 执行认证
         Authentication authentication = authenticationManager.authenticate(
@@ -82,12 +87,12 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findByUsername(username)
             .orElseThrow(() -> new RuntimeException("用户不存在"));
 
-        // 更新最后登录时间
+        // 更新最后登录时间，只写入该列
         user.setLastLoginTime(LocalDateTime.now());
         userRepository.save(user);
 
-        // 生成 JWT 令牌
-        return jwtTokenUtil.generateToken(username);
+        // 角色与账号版本取自同一行，令牌不会出现旧角色搭配新版本
+        return jwtTokenUtil.generateToken(user, AccountVersionRegistry.versionOf(user));
     }
 
     @Override
@@ -96,11 +101,22 @@ public class UserServiceImpl implements UserService {
         User existingUser = userRepository.findById(userDTO.getId())
             .orElseThrow(() -> new RuntimeException("用户不存在"));
 
+        boolean accessChanged = existingUser.getRole() != userDTO.getRole()
+            || !Boolean.valueOf(userDTO.isEnabled()).equals(existingUser.getEnabled());
+
         // 更新用户信息，注意不要更新敏感信息
         existingUser.setEmail(userDTO.getEmail());
         existingUser.setRole(userDTO.getRole());
+        existingUser.setEnabled(userDTO.isEnabled());
+
+        // 角色或启用状态变化时使该用户已签发的令牌失效，版本与角色在同一事务中提交
+        if (accessChanged) {
+            accountVersionRegistry.accountChanged(existingUser);
+        }
+
+        User updatedUser = userRepository.save(existingUser);
 
-        return userRepository.save(existingUser);
+        return updatedUser;
     }
 
     @Override
@@ -0,0 +1,287 @@
+package com.example.pdca.util;
+
+import com.example.pdca.config.ActionLogWriterProperties;
+import com.example.pdca.dto.ActionLogDTO;
+import com.example.pdca.model.ActionLog;
+import com.example.pdca.repository.ActionLogRepository;
+import com.example.pdca.repository.PlanRepository;
+import com.example.pdca.repository.TaskRepository;
+import com.example.pdca.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 操作日志异步写入器
+ * 日志事件进入有界环形缓冲区，由后台线程按批写入，每批一个事务；计划、任务和创建者只按ID引用，不再查询。
+ * 缓冲区已满时提交方最多等待 maxWait，仍无空位则由提交方自己写入，写入速度跟不上时自然降低提交速度。
+ * 应用关闭时停止接收并写完缓冲区中剩余的日志
+ */
+@Component
+public class ActionLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActionLogWriter.class);
+
+    /**
+     * 待写入的日志事件，创建后不可变
+     */
+    public static final class Event {
+        private final ActionLog.LogType logType;
+        private final String content;
+        private final Long planId;
+        private final Long taskId;
+        private final Long creatorId;
+        private final LocalDateTime createTime;
+
+        private Event(ActionLogDTO logDTO, LocalDateTime createTime) {
+            this.logType = logDTO.getLogType();
+            this.content = logDTO.getContent();
+            this.planId = logDTO.getPlanId();
+            this.taskId = logDTO.getTaskId();
+            this.creatorId = logDTO.getCreatorId();
+            this.createTime = createTime;
+        }
+
+        /**
+         * 以当前时间作为日志的创建时间
+         * @param logDTO 日志数据
+         * @return 日志事件
+         */
+        public static Event of(ActionLogDTO logDTO) {
+            return new Event(logDTO, LocalDateTime.now());
+        }
+
+        public Long getPlanId() {
+            return planId;
+        }
+
+        @Override
+        public String toString() {
+            return "Event{logType=" + logType + ", planId=" + planId + ", taskId=" + taskId
+                + ", creatorId=" + creatorId + ", createTime=" + createTime + "}";
+        }
+    }
+
+    @Autowired
+    private ActionLogWriterProperties properties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ActionLogRepository actionLogRepository;
+
+    @Autowired
+    private PlanRepository planRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private BlockingQueue<Event> buffer;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Thread worker;
+
+    private volatile boolean running;
+
+    // 已提交但尚未写入（或丢弃）的日志数，包括后台线程正在写入的一批
+    private final AtomicInteger pending = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        buffer = new ArrayBlockingQueue<>(properties.getCapacity());
+        // 提交方自己写入时可能处于事务提交后的回调中，必须开启新事务
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        running = true;
+        worker = new Thread(this::run, "action-log-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 提交日志事件
+     * 缓冲区已满且等待超时、或写入器已关闭时，在当前线程写入
+     * @param event 日志事件
+     */
+    public void submit(Event event) {
+        pending.incrementAndGet();
+        if (running) {
+            try {
+                if (buffer.offer(event, properties.getMaxWait().toNanos(), TimeUnit.NANOSECONDS)) {
+                    return;
+                }
+                logger.debug("操作日志缓冲区已满，由提交方写入");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        write(Collections.singletonList(event));
+    }
+
+    /**
+     * 丢弃缓冲区中属于计划的日志，计划删除前调用，避免写入引用已删除计划的日志
+     * @param planId 计划ID
+     */
+    public void discard(Long planId) {
+        int removed = 0;
+        for (Iterator<Event> iterator = buffer.iterator(); iterator.hasNext(); ) {
+            if (planId.equals(iterator.next().getPlanId())) {
+                iterator.remove();
+                removed++;
+            }
+        }
+        pending.addAndGet(-removed);
+    }
+
+    /**
+     * 在当前线程写完缓冲区中的日志，并等待后台线程正在写入的一批完成
+     * @param timeoutMillis 最长等待时间（毫秒）
+     * @return 是否全部写完
+     */
+    public boolean flush(long timeoutMillis) {
+        List<Event> batch = new ArrayList<>(properties.getBatchSize());
+        while (buffer.drainTo(batch, properties.getBatchSize()) > 0) {
+            write(batch);
+            batch.clear();
+        }
+
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (pending.get() > 0) {
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // 停止接收后，后台线程写完剩余日志再退出；此后提交的日志由提交方自己写入
+        running = false;
+        worker.join(properties.getShutdownTimeout().toMillis());
+        if (worker.isAlive()) {
+            logger.warn("关闭时仍有 {} 条操作日志未写入", pending.get());
+            return;
+        }
+        // 停止前最后一刻进入缓冲区的日志
+        flush(0);
+    }
+
+    private void run() {
+        List<Event> batch = new ArrayList<>(properties.getBatchSize());
+        long flushIntervalNanos = properties.getFlushInterval().toNanos();
+        try {
+            while (running) {
+                Event first = buffer.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // 不足一批时最多再等 flushInterval，凑满一批再写入
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < properties.getBatchSize()) {
+                    buffer.drainTo(batch, properties.getBatchSize() - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= properties.getBatchSize() || remaining <= 0) {
+                        break;
+                    }
+                    Event next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+
+        while (buffer.drainTo(batch, properties.getBatchSize()) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * 在一个事务中写入一批日志
+     * 批内某条日志引用的计划、任务已被删除时整批失败，此时逐条重试，只丢弃失败的日志
+     */
+    private void write(List<Event> events) {
+        try {
+            if (!save(events) && events.size() > 1) {
+                for (Event event : events) {
+                    save(Collections.singletonList(event));
+                }
+            }
+        } finally {
+            pending.addAndGet(-events.size());
+        }
+    }
+
+    private boolean save(List<Event> events) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<ActionLog> logs = new ArrayList<>(events.size());
+                for (Event event : events) {
+                    logs.add(toLog(event));
+                }
+                actionLogRepository.saveAll(logs);
+            });
+            return true;
+        } catch (RuntimeException e) {
+            if (events.size() == 1) {
+                logger.warn("操作日志写入失败，已丢弃: {}", events.get(0), e);
+            }
+            return false;
+        }
+    }
+
+    private ActionLog toLog(Event event) {
+        ActionLog log = new ActionLog();
+        log.setLogType(event.logType);
+        log.setContent(event.content);
+        if (event.planId != null) {
+            log.setPlan(planRepository.getById(event.planId));
+        }
+        if (event.taskId != null) {
+            log.setTask(taskRepository.getById(event.taskId));
+        }
+        log.setCreator(userRepository.getById(event.creatorId));
+        log.setCreateTime(event.createTime);
+        return log;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.pdca.util;
+
+import com.example.pdca.config.ApproximateCountProperties;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.function.LongSupplier;
+
+/**
+ * 分页近似总数缓存
+ * 按查询条件缓存 COUNT 结果，过期后由后台线程重新统计，读取方继续使用旧值，不等待 COUNT 查询；
+ * 只有某个条件第一次被查询时才同步统计
+ */
+@Component
+public class ApproximateCountCache {
+
+    @Autowired
+    private ApproximateCountProperties properties;
+
+    private LoadingCache<CountKey, Long> counts;
+
+    @PostConstruct
+    public void init() {
+        counts = Caffeine.newBuilder()
+            .maximumSize(properties.getMaximumSize())
+            .refreshAfterWrite(properties.getRefreshAfter())
+            .expireAfterAccess(properties.getExpireAfterAccess())
+            .build(key -> key.counter.getAsLong());
+    }
+
+    /**
+     * 把分片结果和近似总数组合成分页结果
+     * 近似总数与分片矛盾时以分片为准：最后一页的总数是精确的，还有下一页时总数至少比已读取的多一条
+     * @param slice 分片结果
+     * @param key 查询条件，相同条件共用一个总数
+     * @param counter 统计总数的查询，未命中或后台刷新时调用
+     * @return 分页结果
+     */
+    public <T> Page<T> toPage(Slice<T> slice, String key, LongSupplier counter) {
+        long offset = slice.getPageable().isPaged() ? slice.getPageable().getOffset() : 0;
+        long read = offset + slice.getNumberOfElements();
+        long total;
+        if (slice.hasNext()) {
+            total = Math.max(counts.get(new CountKey(key, counter)), read + 1);
+        } else if (slice.hasContent() || offset == 0) {
+            total = read;
+        } else {
+            // 页码越过末尾，只知道总数不超过偏移量
+            total = Math.min(counts.get(new CountKey(key, counter)), offset);
+        }
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), total);
+    }
+
+    /**
+     * 缓存键，只按查询条件比较；统计查询随第一次写入的键保存，后台刷新时使用
+     */
+    private static final class CountKey {
+        private final String key;
+        private final LongSupplier counter;
+
+        private CountKey(String key, LongSupplier counter) {
+            this.key = key;
+            this.counter = counter;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CountKey && key.equals(((CountKey) o).key);
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.pdca.util;
+
+import com.example.pdca.dto.CursorPage;
+import com.example.pdca.exception.BusinessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 游标分页工具类
+ * 游标记录上一页最后一行的（创建时间、ID），下一页从该位置之后继续查找，不使用 OFFSET 也不统计总数
+ */
+public final class CursorCodec {
+
+    /** 每页大小上限 */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final char SEPARATOR = ',';
+
+    // 第一页的起点，比任何实际数据都靠后，使第一页和后续页使用同一个查询
+    private static final Cursor FIRST = new Cursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private CursorCodec() {
+    }
+
+    /**
+     * 解析游标，为空时返回第一页的起点
+     * @param token 客户端传回的游标
+     * @return 游标位置
+     */
+    public static Cursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return FIRST;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int index = value.lastIndexOf(SEPARATOR);
+            return new Cursor(LocalDateTime.parse(value.substring(0, index)), Long.valueOf(value.substring(index + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BusinessException("无效的分页游标");
+        }
+    }
+
+    /**
+     * 生成指向给定行之后的游标
+     * @param createTime 行的创建时间
+     * @param id 行ID
+     * @return 游标
+     */
+    public static String encode(LocalDateTime createTime, Long id) {
+        String value = createTime.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 校验每页大小
+     * @param size 客户端请求的每页大小
+     * @return 每页大小
+     */
+    public static int pageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BusinessException("每页大小应在 1 到 " + MAX_PAGE_SIZE + " 之间", HttpStatus.BAD_REQUEST);
+        }
+        return size;
+    }
+
+    /**
+     * 查询的行数限制，多取一行用于判断是否还有下一页
+     * @param pageSize 每页大小
+     * @return 只限制条数的分页参数，排序由查询自身指定
+     */
+    public static Pageable limit(int pageSize) {
+        return PageRequest.of(0, pageSize + 1);
+    }
+
+    /**
+     * 由多取一行的查询结果生成游标分页
+     * @param rows 查询结果，最多 pageSize + 1 行
+     * @param pageSize 每页大小
+     * @param createTimeOf 取行的创建时间
+     * @param idOf 取行ID
+     * @param mapper 行转换函数
+     * @return 游标分页
+     */
+    public static <E, T> CursorPage<T> toPage(List<E> rows, int pageSize, Function<E, LocalDateTime> createTimeOf,
+                                              Function<E, Long> idOf, Function<E, T> mapper) {
+        boolean hasNext = rows.size() > pageSize;
+        List<E> pageRows = hasNext ? rows.subList(0, pageSize) : rows;
+
+        CursorPage<T> page = new CursorPage<>();
+        page.setContent(pageRows.stream().map(mapper).collect(Collectors.toList()));
+        page.setSize(pageSize);
+        page.setHasNext(hasNext);
+        if (hasNext) {
+            E last = pageRows.get(pageRows.size() - 1);
+            page.setNextCursor(encode(createTimeOf.apply(last), idOf.apply(last)));
+        }
+        return page;
+    }
+
+    /**
+     * 游标位置
+     */
+    public static final class Cursor {
+        private final LocalDateTime createTime;
+        private final Long id;
+
+        private Cursor(LocalDateTime createTime, Long id) {
+            this.createTime = createTime;
+            this.id = id;
+        }
+
+        public LocalDateTime getCreateTime() {
+            return createTime;
+        }
+
+        public Long getId() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.pdca.util;
+
+import com.example.pdca.model.Act;
+import com.example.pdca.model.ActRecord;
+import com.example.pdca.model.ActionLog;
+import com.example.pdca.model.Check;
+import com.example.pdca.model.CheckResult;
+import com.example.pdca.model.DoPhase;
+import com.example.pdca.model.DoRecord;
+import com.example.pdca.model.Plan;
+import com.example.pdca.model.Task;
+import org.hibernate.Hibernate;
+
+import java.util.Collection;
+
+/**
+ * 实体响应初始化工具
+ * 直接作为响应返回的实体在会话关闭前初始化其序列化所需的关联。
+ * 多对一关联通常已由仓库方法的实体图加载，这里只是兜底；集合不放进实体图（多个集合同时抓取会产生笛卡尔积，且不能与分页同时使用），
+ * 由 default_batch_fetch_size 按批加载，列表中的第一个元素触发加载后，同一会话中的其余元素不再发起查询
+ */
+public final class EntityGraphUtil {
+
+    private EntityGraphUtil() {
+    }
+
+    /**
+     * 初始化计划的创建者、任务及任务负责人
+     * @param plan 计划，可为空
+     */
+    public static void initializePlan(Plan plan) {
+        if (plan == null) {
+            return;
+        }
+        Hibernate.initialize(plan);
+        Hibernate.initialize(plan.getCreator());
+        initializeAll(plan.getTasks());
+        if (plan.getTasks() != null) {
+            for (Task task : plan.getTasks()) {
+                Hibernate.initialize(task.getAssignee());
+            }
+        }
+    }
+
+    /**
+     * 初始化执行阶段的计划、执行人及执行记录
+     * @param doPhase 执行阶段，可为空
+     */
+    public static void initializeDoPhase(DoPhase doPhase) {
+        if (doPhase == null) {
+            return;
+        }
+        Hibernate.initialize(doPhase);
+        initializePlan(doPhase.getPlan());
+        Hibernate.initialize(doPhase.getExecutor());
+        initializeAll(doPhase.getRecords());
+        if (doPhase.getRecords() != null) {
+            for (DoRecord record : doPhase.getRecords()) {
+                Hibernate.initialize(record.getRecorder());
+            }
+        }
+    }
+
+    /**
+     * 初始化检查阶段的执行阶段、检查人及检查结果
+     * @param check 检查阶段，可为空
+     */
+    public static void initializeCheck(Check check) {
+        if (check == null) {
+            return;
+        }
+        Hibernate.initialize(check);
+        initializeDoPhase(check.getDoPhase());
+        Hibernate.initialize(check.getChecker());
+        initializeAll(check.getResults());
+        if (check.getResults() != null) {
+            for (CheckResult result : check.getResults()) {
+                Hibernate.initialize(result.getRecorder());
+            }
+        }
+    }
+
+    /**
+     * 初始化行动阶段的检查阶段、执行人及行动记录
+     * @param act 行动阶段，可为空
+     */
+    public static void initializeAct(Act act) {
+        if (act == null) {
+            return;
+        }
+        Hibernate.initialize(act);
+        initializeCheck(act.getCheckPhase());
+        Hibernate.initialize(act.getExecutor());
+        initializeAll(act.getRecords());
+        if (act.getRecords() != null) {
+            for (ActRecord record : act.getRecords()) {
+                Hibernate.initialize(record.getRecorder());
+            }
+        }
+    }
+
+    /**
+     * 初始化日志关联的计划、任务及创建者
+     * @param log 日志，可为空
+     */
+    public static void initializeActionLog(ActionLog log) {
+        if (log == null) {
+            return;
+        }
+        initializePlan(log.getPlan());
+        if (log.getTask() != null) {
+            Hibernate.initialize(log.getTask());
+            Hibernate.initialize(log.getTask().getAssignee());
+        }
+        Hibernate.initialize(log.getCreator());
+    }
+
+    private static void initializeAll(Collection<?> collection) {
+        if (collection != null) {
+            Hibernate.initialize(collection);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.pdca.util;
+
+import com.example.pdca.exception.BusinessException;
+import com.example.pdca.model.Plan;
+import com.example.pdca.model.Task;
+import org.springframework.http.HttpStatus;
+
+/**
+ * ETag 工具类
+ * 由版本标记生成强 ETag，并处理 If-None-Match / If-Match 条件请求头
+ */
+public final class EntityTagUtil {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private EntityTagUtil() {
+    }
+
+    /**
+     * 由版本标记生成强 ETag
+     * @param versionTag 版本标记
+     * @return 带引号的 ETag
+     */
+    public static String toETag(String versionTag) {
+        return "\"" + versionTag + "\"";
+    }
+
+    /**
+     * 由已加载的计划实例计算版本标记，格式与 PlanRepository.findVersionTagById 一致
+     * 响应中的 ETag 必须描述返回的实例本身，实例与库中最新数据不一致时客户端下次条件请求自然不命中
+     * @param plan 计划，任务列表需已初始化
+     * @return 版本标记
+     */
+    public static String versionTag(Plan plan) {
+        long count = 0;
+        long versionSum = 0;
+        long idSum = 0;
+        if (plan.getTasks() != null) {
+            for (Task task : plan.getTasks()) {
+                count++;
+                versionSum += valueOf(task.getVersion());
+                idSum += valueOf(task.getId());
+            }
+        }
+        return valueOf(plan.getVersion()) + "." + count + "." + versionSum + "." + idSum;
+    }
+
+    /**
+     * 由已加载的任务实例计算版本标记，格式与 TaskRepository.findVersionTagById 一致
+     * @param task 任务，所属计划需已初始化
+     * @return 版本标记
+     */
+    public static String versionTag(Task task) {
+        return valueOf(task.getVersion()) + "." + (task.getPlan() != null ? valueOf(task.getPlan().getVersion()) : 0L);
+    }
+
+    /**
+     * 判断 If-None-Match 是否命中，命中时应返回 304
+     * 按 RFC 7232 使用弱比较，忽略 W/ 前缀
+     * @param ifNoneMatch If-None-Match 请求头，可为空
+     * @param etag 当前 ETag
+     * @return 是否命中
+     */
+    public static boolean isNotModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.trim().isEmpty()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith(WEAK_PREFIX)) {
+                tag = tag.substring(WEAK_PREFIX.length());
+            }
+            if ("*".equals(tag) || etag.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 校验 If-Match，不匹配时抛出 412
+     * 按 RFC 7232 使用强比较，弱 ETag 永不匹配；未携带请求头时不做校验。
+     * 应在写事务内对刚加载的实体调用，比较之后的并发修改由实体的乐观锁版本号拦截
+     * @param ifMatch If-Match 请求头，可为空
+     * @param etag 当前 ETag
+     */
+    public static void checkIfMatch(String ifMatch, String etag) {
+        if (ifMatch == null || ifMatch.trim().isEmpty()) {
+            return;
+        }
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if ("*".equals(tag) || etag.equals(tag)) {
+                return;
+            }
+        }
+        throw new BusinessException("资源已被修改，请刷新后重试", HttpStatus.PRECONDITION_FAILED);
+    }
+
+    private static long valueOf(Long value) {
+        return value != null ? value : 0L;
+    }
+}
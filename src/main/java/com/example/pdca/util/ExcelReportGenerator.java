@@ -2,55 +2,113 @@ package com.example.pdca.util;
 
 import com.example.pdca.model.Report;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.stereotype.Component;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * Excel 报告生成器
- * 使用 Apache POI 库生成 Excel 报告
+ * 使用 Apache POI 的 SXSSF 流式工作簿生成 Excel 报告，直接写入调用方提供的输出流
  */
 @Component
 public class ExcelReportGenerator {
 
-    public ByteArrayOutputStream generateExcel(Report report) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    // 内存中保留的行数，超出的行刷到临时文件
+    private static final int ROW_ACCESS_WINDOW_SIZE = 100;
+
+    private static final String[] SECTION_LABELS = {"计划阶段分析", "执行阶段分析", "检查阶段分析", "行动阶段分析"};
+
+    // 列宽，单位为 1/256 字符宽度
+    private static final int LABEL_COLUMN_WIDTH = 16 * 256;
+    private static final int CONTENT_COLUMN_WIDTH = 80 * 256;
+
+    /**
+     * 生成 Excel 并写入输出流
+     * 内存占用与行数无关；输出流由调用方负责关闭
+     * @param report 报告
+     * @param outputStream 输出流
+     * @throws IOException 写入失败
+     */
+    public void generateExcel(Report report, OutputStream outputStream) throws IOException {
+        // 报告只有几行，临时文件很小，不再压缩以节省 CPU
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW_SIZE);
         
-        try (Workbook workbook = new XSSFWorkbook()) {
+        try {
+            Styles styles = new Styles(workbook);
             Sheet sheet = workbook.createSheet("PDCA报告");
+            sheet.setColumnWidth(0, LABEL_COLUMN_WIDTH);
+            sheet.setColumnWidth(1, CONTENT_COLUMN_WIDTH);
             
             // 创建标题行
             Row titleRow = sheet.createRow(0);
             Cell titleCell = titleRow.createCell(0);
             titleCell.setCellValue(report.getTitle());
+            titleCell.setCellStyle(styles.title);
             
             // 创建摘要行
             Row summaryRow = sheet.createRow(1);
             Cell summaryCell = summaryRow.createCell(0);
-            summaryCell.setCellValue("摘要：" + report.getSummary());
+            summaryCell.setCellValue("摘要：" + nullToEmpty(report.getSummary()));
             
             // 创建 PDCA 分析行
-            String[][] analysisData = {
-                {"计划阶段分析", report.getPlanningAnalysis()},
-                {"执行阶段分析", report.getDoingAnalysis()},
-                {"检查阶段分析", report.getCheckingAnalysis()},
-                {"行动阶段分析", report.getActingAnalysis()}
+            String[] analyses = {
+                report.getPlanningAnalysis(),
+                report.getDoingAnalysis(),
+                report.getCheckingAnalysis(),
+                report.getActingAnalysis()
             };
             
-            for (int i = 0; i < analysisData.length; i++) {
+            for (int i = 0; i < analyses.length; i++) {
                 Row row = sheet.createRow(i + 2);
-                row.createCell(0).setCellValue(analysisData[i][0]);
-                row.createCell(1).setCellValue(analysisData[i][1]);
+                Cell labelCell = row.createCell(0);
+                labelCell.setCellValue(SECTION_LABELS[i]);
+                labelCell.setCellStyle(styles.label);
+                Cell contentCell = row.createCell(1);
+                contentCell.setCellValue(nullToEmpty(analyses[i]));
+                contentCell.setCellStyle(styles.content);
             }
             
-            workbook.write(baos);
-        } catch (IOException e) {
-            // 处理异常
-            e.printStackTrace();
+            workbook.write(outputStream);
+        } finally {
+            // 删除刷出行使用的临时文件
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    /**
+     * 工作簿内共享的单元格样式
+     * 样式和字体属于工作簿，每个工作簿只创建一次，所有单元格引用同一组样式，避免样式表随单元格数增长
+     */
+    private static final class Styles {
+        private final CellStyle title;
+        private final CellStyle label;
+        private final CellStyle content;
+
+        private Styles(Workbook workbook) {
+            Font titleFont = workbook.createFont();
+            titleFont.setBold(true);
+            titleFont.setFontHeightInPoints((short) 16);
+            title = workbook.createCellStyle();
+            title.setFont(titleFont);
+
+            Font labelFont = workbook.createFont();
+            labelFont.setBold(true);
+            label = workbook.createCellStyle();
+            label.setFont(labelFont);
+            label.setVerticalAlignment(VerticalAlignment.TOP);
+            label.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+            label.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+
+            content = workbook.createCellStyle();
+            content.setVerticalAlignment(VerticalAlignment.TOP);
+            content.setWrapText(true);
         }
-        
-        return baos;
     }
-} 
\ No newline at end of file
+}
@@ -1,14 +1,26 @@
 package com.example.pdca.util;
 
+import com.example.pdca.model.User;
+import com.example.pdca.security.JwtUserPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 /**
@@ -18,20 +30,65 @@ import java.util.function.Function;
 @Component
 public class JwtTokenUtil {
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_ACCOUNT_VERSION = "ver";
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    @Value("${jwt.cache.maximum-size:10000}")
+    private long cacheMaximumSize;
+
+    // 已验签令牌缓存：键为令牌摘要，值为解析后的声明，条目在令牌 exp 时刻过期；上限为 0 时不缓存
+    private Cache<String, Claims> verifiedTokenCache;
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    @PostConstruct
+    public void initTokenCache() {
+        if (cacheMaximumSize <= 0) {
+            return;
+        }
+        verifiedTokenCache = Caffeine.newBuilder()
+            .maximumSize(cacheMaximumSize)
+            .expireAfter(new Expiry<String, Claims>() {
+                @Override
+                public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                    long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+                    return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                    return expireAfterCreate(key, claims, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+    }
+
     /**
      * 生成令牌
-     * @param username 用户名
+     * 令牌中写入用户ID、角色和账号版本戳，过滤器据此构建认证信息而无需查询数据库
+     * @param user 用户
+     * @param accountVersion 账号版本戳
      * @return JWT 令牌
      */
-    public String generateToken(String username) {
+    public String generateToken(User user, long accountVersion) {
         Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, username);
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_ROLE, user.getRole().name());
+        claims.put(CLAIM_ACCOUNT_VERSION, accountVersion);
+        return createToken(claims, user.getUsername());
     }
 
     /**
@@ -50,6 +107,33 @@ public class JwtTokenUtil {
             .compact();
     }
 
+    /**
+     * 获取已验签的声明
+     * 命中缓存时直接返回，跳过 HS512 签名校验；未命中时解析并验签后写入缓存
+     * @param token JWT 令牌
+     * @return 所有声明
+     */
+    public Claims getVerifiedClaims(String token) {
+        if (verifiedTokenCache == null) {
+            cacheMisses.increment();
+            return getAllClaimsFromToken(token);
+        }
+
+        String key = digest(token);
+        Claims claims = verifiedTokenCache.getIfPresent(key);
+        if (claims != null) {
+            cacheHits.increment();
+            return claims;
+        }
+
+        cacheMisses.increment();
+        claims = getAllClaimsFromToken(token);
+        if (claims.getExpiration() != null) {
+            verifiedTokenCache.put(key, claims);
+        }
+        return claims;
+    }
+
     /**
      * 从令牌中获取用户名
      * @param token JWT 令牌
@@ -66,7 +150,7 @@ public class JwtTokenUtil {
      * @return 解析后的声明
      */
     public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = getAllClaimsFromToken(token);
+        final Claims claims = getVerifiedClaims(token);
         return claimsResolver.apply(claims);
     }
 
@@ -89,20 +173,44 @@ public class JwtTokenUtil {
      * @return 是否有效
      */
     public Boolean validateToken(String token, String username) {
-        final String tokenUsername = getUsernameFromToken(token);
-        return (tokenUsername.equals(username) && !isTokenExpired(token));
+        return validateClaims(getVerifiedClaims(token), username);
     }
 
     /**
-     * 检查令牌是否过期
-     * @param token JWT 令牌
+     * 验证已解析的声明
+     * @param claims 已验签的声明
+     * @param username 用户名
+     * @return 是否有效
+     */
+    public Boolean validateClaims(Claims claims, String username) {
+        return (claims.getSubject().equals(username) && !isTokenExpired(claims));
+    }
+
+    /**
+     * 检查声明是否过期
+     * @param claims 声明
      * @return 是否过期
      */
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
+    private Boolean isTokenExpired(Claims claims) {
+        final Date expiration = claims.getExpiration();
         return expiration.before(new Date());
     }
 
+    /**
+     * 根据声明构建认证主体
+     * @param claims 已验签的声明
+     * @return 认证主体；缺少必要声明（旧格式令牌）时返回 null
+     */
+    public JwtUserPrincipal getPrincipalFromClaims(Claims claims) {
+        Long userId = claims.get(CLAIM_USER_ID, Long.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        Long accountVersion = claims.get(CLAIM_ACCOUNT_VERSION, Long.class);
+        if (userId == null || role == null || accountVersion == null) {
+            return null;
+        }
+        return new JwtUserPrincipal(userId, claims.getSubject(), User.UserRole.valueOf(role), accountVersion);
+    }
+
     /**
      * 获取令牌过期时间
      * @param token JWT 令牌
@@ -111,4 +219,35 @@ public class JwtTokenUtil {
     public Date getExpirationDateFromToken(String token) {
         return getClaimFromToken(token, Claims::getExpiration);
     }
-} 
\ No newline at end of file
+
+    /**
+     * 获取令牌缓存命中次数
+     * @return 命中次数
+     */
+    public long getTokenCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * 获取令牌缓存未命中次数
+     * @return 未命中次数
+     */
+    public long getTokenCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * 计算令牌摘要，避免在缓存中保存原始令牌
+     * @param token JWT 令牌
+     * @return SHA-256 摘要
+     */
+    private String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = messageDigest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+}
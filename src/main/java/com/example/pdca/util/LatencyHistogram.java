@@ -0,0 +1,187 @@
+package com.example.pdca.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 滑动时间窗口延迟直方图
+ * 以微秒为单位按对数分桶（每个 2 的幂区间再分 8 个子桶，相对误差不超过 12.5%），
+ * 时间轴划分为固定长度的槽位环，记录路径只有原子自增，不加锁
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // 2^38 微秒约 76 小时，更大的值计入最后一个桶
+    private static final int MAX_EXPONENT = 37;
+    static final int BUCKET_COUNT = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final long slotMillis;
+    private final Slot[] slots;
+
+    // 自创建以来的累计值，供 Prometheus 的 _count/_sum 使用
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+
+    /**
+     * @param slotMillis 单个槽位覆盖的毫秒数
+     * @param slotCount 槽位数量，slotMillis * slotCount 即最大窗口长度
+     */
+    public LatencyHistogram(long slotMillis, int slotCount) {
+        this.slotMillis = slotMillis;
+        this.slots = new Slot[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new Slot();
+        }
+    }
+
+    /**
+     * 记录一次耗时
+     * @param durationNanos 耗时（纳秒）
+     */
+    public void record(long durationNanos) {
+        long micros = Math.max(durationNanos / 1000, 0);
+        Slot slot = currentSlot(System.currentTimeMillis());
+        slot.buckets.incrementAndGet(bucketIndex(micros));
+        slot.sumMicros.addAndGet(micros);
+        slot.maxMicros.accumulateAndGet(micros, Math::max);
+        totalCount.increment();
+        totalMicros.add(micros);
+    }
+
+    /**
+     * 获取最近一段时间的快照
+     * @param windowMillis 窗口长度（毫秒），超过槽位环长度时按环长度计算
+     * @return 快照
+     */
+    public Snapshot snapshot(long windowMillis) {
+        long currentEpoch = System.currentTimeMillis() / slotMillis;
+        long windowSlots = Math.min(slots.length, (windowMillis + slotMillis - 1) / slotMillis);
+        long[] merged = new long[BUCKET_COUNT];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+        for (Slot slot : slots) {
+            long age = currentEpoch - slot.epoch.get();
+            if (age < 0 || age >= windowSlots) {
+                continue;
+            }
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                long c = slot.buckets.get(i);
+                merged[i] += c;
+                count += c;
+            }
+            sum += slot.sumMicros.get();
+            max = Math.max(max, slot.maxMicros.get());
+        }
+        return new Snapshot(merged, count, sum, max);
+    }
+
+    public long getTotalCount() {
+        return totalCount.sum();
+    }
+
+    public long getTotalMicros() {
+        return totalMicros.sum();
+    }
+
+    /**
+     * 定位当前时间所在槽位，槽位过期时由首个到达的线程清零
+     * 轮转瞬间并发写入的极少量样本可能丢失，对百分位统计没有实质影响
+     */
+    private Slot currentSlot(long now) {
+        long epoch = now / slotMillis;
+        Slot slot = slots[(int) (epoch % slots.length)];
+        long seen = slot.epoch.get();
+        if (seen < epoch && slot.epoch.compareAndSet(seen, epoch)) {
+            slot.reset();
+        }
+        return slot;
+    }
+
+    static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        long top = (index - SUB_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((top + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    private static final class Slot {
+        private final AtomicLong epoch = new AtomicLong(-1);
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong sumMicros = new AtomicLong();
+        private final AtomicLong maxMicros = new AtomicLong();
+
+        private void reset() {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                buckets.set(i, 0);
+            }
+            sumMicros.set(0);
+            maxMicros.set(0);
+        }
+    }
+
+    /**
+     * 直方图快照
+     * 百分位取所在桶的上界，且不超过窗口内的最大值
+     */
+    public static final class Snapshot {
+        private final long[] buckets;
+        private final long count;
+        private final long sumMicros;
+        private final long maxMicros;
+
+        private Snapshot(long[] buckets, long count, long sumMicros, long maxMicros) {
+            this.buckets = buckets;
+            this.count = count;
+            this.sumMicros = sumMicros;
+            this.maxMicros = maxMicros;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @param quantile 分位数，取值 0~1
+         * @return 对应百分位耗时（毫秒）
+         */
+        public double getPercentileMillis(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), maxMicros) / 1000.0;
+                }
+            }
+            return maxMicros / 1000.0;
+        }
+
+        public double getMaxMillis() {
+            return maxMicros / 1000.0;
+        }
+
+        public double getMeanMillis() {
+            return count == 0 ? 0 : sumMicros / 1000.0 / count;
+        }
+    }
+}
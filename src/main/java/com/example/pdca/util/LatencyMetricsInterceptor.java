@@ -0,0 +1,44 @@
+package com.example.pdca.util;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 接口耗时拦截器
+ * 按“请求方法 + 路径模板”记录接口延迟，避免路径变量造成指标膨胀
+ */
+@Component
+public class LatencyMetricsInterceptor implements HandlerInterceptor {
+
+    private static final String START_TIME_ATTRIBUTE = LatencyMetricsInterceptor.class.getName() + ".START";
+
+    @Autowired
+    private LatencyMetricsRegistry latencyMetricsRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(START_TIME_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        Object startTime = request.getAttribute(START_TIME_ATTRIBUTE);
+        if (startTime == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return;
+        }
+        boolean error = ex != null || response.getStatus() >= 500;
+        latencyMetricsRegistry.recordEndpoint(request.getMethod() + " " + pattern,
+            System.nanoTime() - (Long) startTime, error);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.pdca.util;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 延迟指标注册表
+ * 按方法和接口分别维护成功、失败两组滑动窗口直方图
+ */
+@Component
+public class LatencyMetricsRegistry {
+
+    private static final long SLOT_MILLIS = 15_000;
+    private static final int SLOT_COUNT = 20;
+
+    /** 对外提供的统计窗口：名称 -> 毫秒 */
+    public static final Map<String, Long> WINDOWS;
+
+    static {
+        Map<String, Long> windows = new LinkedHashMap<>();
+        windows.put("1m", 60_000L);
+        windows.put("5m", SLOT_MILLIS * SLOT_COUNT);
+        WINDOWS = Collections.unmodifiableMap(windows);
+    }
+
+    private final ConcurrentHashMap<String, Recorder> methods = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Recorder> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * 记录方法耗时
+     * @param method 方法签名
+     * @param durationNanos 耗时（纳秒）
+     * @param error 是否抛出异常
+     */
+    public void recordMethod(String method, long durationNanos, boolean error) {
+        methods.computeIfAbsent(method, k -> new Recorder()).record(durationNanos, error);
+    }
+
+    /**
+     * 记录接口耗时
+     * @param endpoint 请求方法与路径模板，例如 GET /api/plans/{planId}
+     * @param durationNanos 耗时（纳秒）
+     * @param error 是否失败（异常或 5xx）
+     */
+    public void recordEndpoint(String endpoint, long durationNanos, boolean error) {
+        endpoints.computeIfAbsent(endpoint, k -> new Recorder()).record(durationNanos, error);
+    }
+
+    public Map<String, Recorder> getMethods() {
+        return Collections.unmodifiableMap(methods);
+    }
+
+    public Map<String, Recorder> getEndpoints() {
+        return Collections.unmodifiableMap(endpoints);
+    }
+
+    /**
+     * 单个方法或接口的记录器
+     * 失败直方图在首次失败时才创建，避免为从不出错的方法分配内存
+     */
+    public static final class Recorder {
+        private final LatencyHistogram success = new LatencyHistogram(SLOT_MILLIS, SLOT_COUNT);
+        private volatile LatencyHistogram errors;
+
+        private void record(long durationNanos, boolean error) {
+            if (error) {
+                errorHistogram().record(durationNanos);
+            } else {
+                success.record(durationNanos);
+            }
+        }
+
+        private LatencyHistogram errorHistogram() {
+            LatencyHistogram histogram = errors;
+            if (histogram == null) {
+                synchronized (this) {
+                    histogram = errors;
+                    if (histogram == null) {
+                        histogram = new LatencyHistogram(SLOT_MILLIS, SLOT_COUNT);
+                        errors = histogram;
+                    }
+                }
+            }
+            return histogram;
+        }
+
+        public LatencyHistogram getSuccess() {
+            return success;
+        }
+
+        /**
+         * @return 失败直方图，从未失败时为 null
+         */
+        public LatencyHistogram getErrors() {
+            return errors;
+        }
+    }
+}
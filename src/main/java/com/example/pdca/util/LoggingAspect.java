@@ -1,23 +1,52 @@
 package com.example.pdca.util;
 
-import org.aspectj.lang.JoinPoint;
+import com.example.pdca.config.LoggingAspectProperties;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.*;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.proxy.HibernateProxy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.lang.reflect.Field;
+import java.time.temporal.Temporal;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * 日志切面
- * 记录方法调用、参数和执行时间
+ * 记录方法调用、参数摘要和执行时间
+ * 只在目标类的 DEBUG 级别开启且命中采样时生成日志；实体只输出“类型#ID”，
+ * 分页和集合只输出大小，从不调用实体的 toString，避免触发懒加载和构造超长字符串
  */
 @Aspect
 @Component
 public class LoggingAspect {
 
-    private static final Logger logger = LoggerFactory.getLogger(LoggingAspect.class);
+    private static final String REDACTED = "***";
+
+    // 实体类 -> 主键字段
+    private final Map<Class<?>, Optional<Field>> idFields = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Double> sampleRates = new ConcurrentHashMap<>();
+
+    private volatile Pattern redactedFieldPattern;
+
+    @Autowired
+    private LoggingAspectProperties properties;
 
     /**
      * 切入点：所有控制器方法
@@ -32,68 +61,192 @@ public class LoggingAspect {
     public void serviceMethods() {}
 
     /**
-     * 方法执行前记录日志
+     * 记录方法调用、返回和执行时间
+     * 未开启 DEBUG 或未命中采样时直接执行原方法，不产生任何字符串
      */
-    @Before("controllerMethods() || serviceMethods()")
-    public void logBefore(JoinPoint joinPoint) {
-        logger.info("方法调用: {}.{}() 参数: {}",
-            joinPoint.getSignature().getDeclaringTypeName(),
-            joinPoint.getSignature().getName(),
-            Arrays.toString(joinPoint.getArgs())
-        );
+    @Around("controllerMethods() || serviceMethods()")
+    public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        Class<?> targetType = joinPoint.getSignature().getDeclaringType();
+        Logger targetLogger = LoggerFactory.getLogger(targetType);
+        boolean traced = properties.isEnabled() && targetLogger.isDebugEnabled() && sampled(targetType);
+
+        if (traced && properties.isLogArgs()) {
+            targetLogger.debug("方法调用: {}() 参数: {}", joinPoint.getSignature().getName(), summarizeArgs(joinPoint));
+        }
+
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+
+            if (traced) {
+                long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+                if (properties.isLogResult()) {
+                    targetLogger.debug("方法返回: {}() 耗时: {} ms 结果: {}",
+                        joinPoint.getSignature().getName(), elapsedMillis, summarize(result));
+                } else {
+                    targetLogger.debug("方法返回: {}() 耗时: {} ms", joinPoint.getSignature().getName(), elapsedMillis);
+                }
+            }
+            return result;
+        } catch (Throwable e) {
+            // 异常不受采样影响，但同样不输出参数内容
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            targetLogger.error("方法执行异常: {}() 耗时: {} ms 错误: {}",
+                joinPoint.getSignature().getName(), elapsedMillis, e.getMessage());
+            throw e;
+        }
     }
 
-    /**
-     * 方法执行后记录日志
-     */
-    @AfterReturning(pointcut = "controllerMethods() || serviceMethods()", returning = "result")
-    public void logAfterReturning(JoinPoint joinPoint, Object result) {
-        logger.info("方法返回: {}.{}() 结果: {}",
-            joinPoint.getSignature().getDeclaringTypeName(),
-            joinPoint.getSignature().getName(),
-            result
-        );
+    private boolean sampled(Class<?> targetType) {
+        double rate = sampleRates.computeIfAbsent(targetType, this::resolveSampleRate);
+        return rate >= 1.0 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
     }
 
-    /**
-     * 方法异常时记录日志
-     */
-    @AfterThrowing(pointcut = "controllerMethods() || serviceMethods()", throwing = "error")
-    public void logAfterThrowing(JoinPoint joinPoint, Throwable error) {
-        logger.error("方法异常: {}.{}() 错误: {}",
-            joinPoint.getSignature().getDeclaringTypeName(),
-            joinPoint.getSignature().getName(),
-            error.getMessage()
-        );
+    private double resolveSampleRate(Class<?> targetType) {
+        String typeName = targetType.getName();
+        String bestPrefix = null;
+        double rate = properties.getSampleRate();
+        for (Map.Entry<String, Double> entry : properties.getSampleRates().entrySet()) {
+            String prefix = entry.getKey();
+            if (typeName.startsWith(prefix) && (bestPrefix == null || prefix.length() > bestPrefix.length())) {
+                bestPrefix = prefix;
+                rate = entry.getValue();
+            }
+        }
+        return rate;
+    }
+
+    private String summarizeArgs(ProceedingJoinPoint joinPoint) {
+        Object[] args = joinPoint.getArgs();
+        String[] names = joinPoint.getSignature() instanceof MethodSignature
+            ? ((MethodSignature) joinPoint.getSignature()).getParameterNames()
+            : null;
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            String name = names != null && i < names.length ? names[i] : null;
+            if (name != null) {
+                sb.append(name).append('=');
+            }
+            sb.append(name != null && isRedacted(name) ? REDACTED : summarize(args[i]));
+        }
+        return sb.append(']').toString();
     }
 
     /**
-     * 记录方法执行时间
+     * 生成对象摘要
+     * 简单类型输出值，实体输出“类型#ID”，分页和集合输出大小，DTO 输出脱敏后的 toString，其余只输出类型名
      */
-    @Around("controllerMethods() || serviceMethods()")
-    public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
-        long start = System.currentTimeMillis();
-        
+    private String summarize(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof HibernateProxy) {
+            Object id = ((HibernateProxy) value).getHibernateLazyInitializer().getIdentifier();
+            return ((HibernateProxy) value).getHibernateLazyInitializer().getEntityName() + "#" + id;
+        }
+        Class<?> type = value.getClass();
+        if (value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+            || value instanceof Character || value instanceof Enum || value instanceof Temporal
+            || value instanceof Date) {
+            return truncate(String.valueOf(value));
+        }
+        if (type.isAnnotationPresent(Entity.class)) {
+            return type.getSimpleName() + "#" + readId(value);
+        }
+        if (value instanceof Page) {
+            Page<?> page = (Page<?>) value;
+            return "Page[number=" + page.getNumber() + ", size=" + page.getSize()
+                + ", elements=" + page.getNumberOfElements() + ", total=" + page.getTotalElements() + "]";
+        }
+        if (value instanceof Slice) {
+            Slice<?> slice = (Slice<?>) value;
+            return "Slice[number=" + slice.getNumber() + ", size=" + slice.getSize()
+                + ", elements=" + slice.getNumberOfElements() + "]";
+        }
+        if (value instanceof PersistentCollection && !((PersistentCollection) value).wasInitialized()) {
+            return type.getSimpleName() + "[uninitialized]";
+        }
+        if (value instanceof Collection) {
+            return type.getSimpleName() + "[size=" + ((Collection<?>) value).size() + "]";
+        }
+        if (value instanceof Map) {
+            return type.getSimpleName() + "[size=" + ((Map<?, ?>) value).size() + "]";
+        }
+        if (type.isArray()) {
+            return type.getComponentType().getSimpleName() + "[" + java.lang.reflect.Array.getLength(value) + "]";
+        }
+        if (value instanceof ResponseEntity) {
+            ResponseEntity<?> response = (ResponseEntity<?>) value;
+            return "ResponseEntity[" + response.getStatusCodeValue() + ", body=" + summarize(response.getBody()) + "]";
+        }
+        if (type.getName().startsWith("com.example.pdca.dto.")) {
+            return truncate(redactFields(value.toString()));
+        }
+        return type.getSimpleName();
+    }
+
+    private Object readId(Object entity) {
+        Optional<Field> idField = idFields.computeIfAbsent(entity.getClass(), this::findIdField);
+        if (!idField.isPresent()) {
+            return "?";
+        }
         try {
-            Object result = joinPoint.proceed();
-            
-            long end = System.currentTimeMillis();
-            logger.info("方法执行时间: {}.{}() 耗时: {} ms",
-                joinPoint.getSignature().getDeclaringTypeName(),
-                joinPoint.getSignature().getName(),
-                end - start
-            );
-            
-            return result;
-        } catch (Exception e) {
-            long end = System.currentTimeMillis();
-            logger.error("方法执行异常: {}.{}() 耗时: {} ms 错误: {}",
-                joinPoint.getSignature().getDeclaringTypeName(),
-                joinPoint.getSignature().getName(),
-                end - start,
-                e.getMessage()
-            );
-            throw e;
+            return idField.get().get(entity);
+        } catch (IllegalAccessException e) {
+            return "?";
+        }
+    }
+
+    private Optional<Field> findIdField(Class<?> type) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Id.class)) {
+                    field.setAccessible(true);
+                    return Optional.of(field);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private boolean isRedacted(String name) {
+        String lower = name.toLowerCase();
+        for (String redacted : properties.getRedactedNames()) {
+            if (lower.contains(redacted.toLowerCase())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String redactFields(String text) {
+        if (properties.getRedactedNames().isEmpty()) {
+            return text;
+        }
+        Pattern pattern = redactedFieldPattern;
+        if (pattern == null) {
+            StringBuilder names = new StringBuilder();
+            for (String redacted : properties.getRedactedNames()) {
+                if (names.length() > 0) {
+                    names.append('|');
+                }
+                names.append(Pattern.quote(redacted));
+            }
+            pattern = Pattern.compile("(?i)(\\w*(?:" + names + ")\\w*)=([^,)]*)");
+            redactedFieldPattern = pattern;
+        }
+        Matcher matcher = pattern.matcher(text);
+        return matcher.find() ? matcher.replaceAll("$1=" + REDACTED) : text;
+    }
+
+    private String truncate(String text) {
+        int maxLength = properties.getMaxLength();
+        if (text.length() <= maxLength) {
+            return text;
         }
+        return text.substring(0, maxLength) + "...(" + text.length() + " chars)";
     }
-} 
\ No newline at end of file
+}
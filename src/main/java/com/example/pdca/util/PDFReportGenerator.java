@@ -1,56 +1,123 @@
 package com.example.pdca.util;
 
+import com.example.pdca.config.ReportPdfProperties;
 import com.example.pdca.model.Report;
+import com.itextpdf.io.font.CidFont;
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
+import com.itextpdf.layout.Style;
+import com.itextpdf.layout.element.Cell;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
 import com.itextpdf.layout.property.TextAlignment;
+import com.itextpdf.layout.property.UnitValue;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.io.ByteArrayOutputStream;
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * PDF 报告生成器
- * 使用 iText 库生成 PDF 报告
+ * 使用 iText 库生成 PDF 报告，直接写入调用方提供的输出流
+ * 字体程序在启动时加载一次，版式样式为静态常量，每次导出只创建文档本身
  */
 @Component
 public class PDFReportGenerator {
 
-    public ByteArrayOutputStream generatePDF(Report report) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        
-        try (PdfWriter writer = new PdfWriter(baos);
-             PdfDocument pdf = new PdfDocument(writer);
+    private static final String[] SECTION_LABELS = {"计划阶段分析", "执行阶段分析", "检查阶段分析", "行动阶段分析"};
+
+    private static final UnitValue[] COLUMN_WIDTHS = UnitValue.createPercentArray(new float[] {1, 4});
+
+    // 样式只在添加元素时被读取，可以在并发导出之间共享
+    private static final Style TITLE_STYLE = new Style()
+        .setTextAlignment(TextAlignment.CENTER)
+        .setFontSize(20)
+        .setBold();
+
+    private static final Style SUMMARY_STYLE = new Style()
+        .setFontSize(12)
+        .setMarginBottom(10);
+
+    private static final Style LABEL_STYLE = new Style()
+        .setFontSize(11)
+        .setBold()
+        .setBackgroundColor(ColorConstants.LIGHT_GRAY);
+
+    private static final Style CONTENT_STYLE = new Style()
+        .setFontSize(10);
+
+    @Autowired
+    private ReportPdfProperties properties;
+
+    // 字体程序可在文档和线程之间共享，嵌入子集时通过独立视图读取字体文件
+    private FontProgram fontProgram;
+
+    @PostConstruct
+    public void init() throws IOException {
+        fontProgram = FontProgramFactory.createFont(properties.getFont());
+    }
+
+    /**
+     * 生成 PDF 并写入输出流
+     * 页面内容随写随刷，表格使用大表模式分批输出；输出流由调用方负责关闭
+     * @param report 报告
+     * @param outputStream 输出流
+     * @throws IOException 写入失败
+     */
+    public void generatePDF(Report report, OutputStream outputStream) throws IOException {
+        PdfWriter writer = new PdfWriter(outputStream);
+        writer.setCloseStream(false);
+
+        try (PdfDocument pdf = new PdfDocument(writer);
              Document document = new Document(pdf)) {
+            document.setFont(createFont());
             
             // 添加标题
-            document.add(new Paragraph(report.getTitle())
-                .setTextAlignment(TextAlignment.CENTER)
-                .setFontSize(20));
+            document.add(new Paragraph(nullToEmpty(report.getTitle())).addStyle(TITLE_STYLE));
             
             // 添加摘要
-            document.add(new Paragraph("摘要：" + report.getSummary())
-                .setFontSize(12));
+            document.add(new Paragraph("摘要：" + nullToEmpty(report.getSummary())).addStyle(SUMMARY_STYLE));
             
             // 创建 PDCA 分析表格
-            Table table = new Table(2);
-            table.addCell("计划阶段分析");
-            table.addCell(report.getPlanningAnalysis());
-            table.addCell("执行阶段分析");
-            table.addCell(report.getDoingAnalysis());
-            table.addCell("检查阶段分析");
-            table.addCell(report.getCheckingAnalysis());
-            table.addCell("行动阶段分析");
-            table.addCell(report.getActingAnalysis());
-            
+            String[] analyses = {
+                report.getPlanningAnalysis(),
+                report.getDoingAnalysis(),
+                report.getCheckingAnalysis(),
+                report.getActingAnalysis()
+            };
+            Table table = new Table(COLUMN_WIDTHS, true).useAllAvailableWidth();
             document.add(table);
-        } catch (Exception e) {
-            // 处理异常
-            e.printStackTrace();
+            for (int i = 0; i < SECTION_LABELS.length; i++) {
+                table.addCell(new Cell().add(new Paragraph(SECTION_LABELS[i])).addStyle(LABEL_STYLE));
+                table.addCell(new Cell().add(new Paragraph(nullToEmpty(analyses[i]))).addStyle(CONTENT_STYLE));
+            }
+            table.complete();
+        }
+    }
+
+    /**
+     * PdfFont 属于单个文档，不能跨文档复用，这里只复用其背后的字体程序
+     * 内置 CJK 字体按 CMap 编码引用、不嵌入；字体文件使用 Identity-H 并嵌入子集
+     */
+    private PdfFont createFont() {
+        if (fontProgram instanceof CidFont) {
+            return PdfFontFactory.createFont(fontProgram, properties.getFontEncoding(),
+                PdfFontFactory.EmbeddingStrategy.PREFER_NOT_EMBEDDED);
         }
-        
-        return baos;
+        return PdfFontFactory.createFont(fontProgram, PdfEncodings.IDENTITY_H,
+            PdfFontFactory.EmbeddingStrategy.PREFER_EMBEDDED);
+    }
+
+    private String nullToEmpty(String value) {
+        return value != null ? value : "";
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,19 @@
+package com.example.pdca.util;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * SQL 语句计数检查器
+ * Hibernate 每准备一条语句调用一次，把语句计入当前线程的统计范围，不修改语句
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            stats.recordStatement(sql);
+        }
+        return sql;
+    }
+}
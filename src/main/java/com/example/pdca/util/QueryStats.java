@@ -0,0 +1,146 @@
+package com.example.pdca.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 请求级 SQL 统计
+ * 统计范围绑定在当前线程上：QueryStatsFilter 为每个请求开启一个范围，语句数和语句指纹由 Hibernate 语句检查器记录，
+ * 读取行数和执行耗时由 JDBC 包装层记录。范围可以嵌套（例如测试在请求外再开一层），记录同时计入所有外层范围；
+ * 没有开启范围的线程（异步任务、定时任务）不做统计
+ */
+public final class QueryStats {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+
+    // Hibernate 生成的语句文本种类有限，指纹按语句文本缓存，同一语句只做一次正则替换
+    private static final Cache<String, String> FINGERPRINTS = Caffeine.newBuilder()
+        .maximumSize(2048)
+        .build();
+
+    private final QueryStats parent;
+
+    // 只在开启范围的线程上写入，结束后才被其他线程读取
+    private long statements;
+    private long rows;
+    private long executionNanos;
+    private final Map<String, Integer> statementCounts = new HashMap<>();
+
+    private QueryStats(QueryStats parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * 在当前线程上开启一个统计范围
+     * @return 新的统计范围
+     */
+    public static QueryStats begin() {
+        QueryStats stats = new QueryStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * 获取当前线程最内层的统计范围
+     * @return 统计范围，未开启时为空
+     */
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 结束统计范围，恢复外层范围；结束后仍可读取统计结果
+     */
+    public void end() {
+        if (CURRENT.get() != this) {
+            return;
+        }
+        if (parent != null) {
+            CURRENT.set(parent);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * 记录一条准备执行的语句
+     * @param sql SQL 语句
+     */
+    public void recordStatement(String sql) {
+        recordFingerprint(FINGERPRINTS.get(sql, QueryStats::fingerprint));
+    }
+
+    /**
+     * 记录读取的结果行数
+     * @param count 行数
+     */
+    public void recordRows(long count) {
+        for (QueryStats stats = this; stats != null; stats = stats.parent) {
+            stats.rows += count;
+        }
+    }
+
+    /**
+     * 记录一次语句执行的耗时
+     * @param nanos 耗时（纳秒）
+     */
+    public void recordExecution(long nanos) {
+        for (QueryStats stats = this; stats != null; stats = stats.parent) {
+            stats.executionNanos += nanos;
+        }
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getExecutionNanos() {
+        return executionNanos;
+    }
+
+    /**
+     * 获取重复执行的语句，只有参数不同的语句视为同一条
+     * 同一请求中同一语句执行多次通常说明存在逐行加载关联的 N+1 查询
+     * @param threshold 执行次数达到该值时视为重复
+     * @return 语句指纹到执行次数的映射，按执行次数倒序
+     */
+    public Map<String, Integer> getRepeatedStatements(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        statementCounts.entrySet().stream()
+            .filter(entry -> entry.getValue() >= threshold)
+            .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+            .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+        return repeated;
+    }
+
+    private void recordFingerprint(String fingerprint) {
+        for (QueryStats stats = this; stats != null; stats = stats.parent) {
+            stats.statements++;
+            stats.statementCounts.merge(fingerprint, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * 语句指纹：字面量替换为占位符，IN 列表合并为一个占位符，空白归一
+     */
+    static String fingerprint(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = PARAMETER_LIST.matcher(normalized).replaceAll("(?)");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.pdca.util;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 统计语句执行耗时和读取行数的数据源
+ * 语句检查器只能看到 SQL 文本，执行耗时和结果行数需要在 JDBC 层统计：连接、语句和结果集被包装为代理，
+ * 当前线程没有开启统计范围时代理直接转发调用。unwrap 由 DelegatingDataSource 转发给连接池
+ */
+public class QueryStatsDataSource extends DelegatingDataSource {
+
+    public QueryStatsDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    private static Connection wrapConnection(Connection connection) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof CallableStatement) {
+                return wrapStatement(CallableStatement.class, (CallableStatement) result);
+            }
+            if (result instanceof PreparedStatement) {
+                return wrapStatement(PreparedStatement.class, (PreparedStatement) result);
+            }
+            if (result instanceof Statement) {
+                return wrapStatement(Statement.class, (Statement) result);
+            }
+            return result;
+        });
+    }
+
+    private static <S extends Statement> S wrapStatement(Class<S> type, S statement) {
+        return proxy(type, statement, (target, method, args) -> {
+            if ("getResultSet".equals(method.getName())) {
+                Object result = invoke(target, method, args);
+                return result != null ? wrapResultSet((ResultSet) result) : null;
+            }
+            if (!method.getName().startsWith("execute")) {
+                return invoke(target, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                Object result = invoke(target, method, args);
+                return result instanceof ResultSet ? wrapResultSet((ResultSet) result) : result;
+            } finally {
+                QueryStats stats = QueryStats.current();
+                if (stats != null) {
+                    stats.recordExecution(System.nanoTime() - start);
+                }
+            }
+        });
+    }
+
+    private static ResultSet wrapResultSet(ResultSet resultSet) {
+        return proxy(ResultSet.class, resultSet, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (Boolean.TRUE.equals(result) && "next".equals(method.getName())) {
+                QueryStats stats = QueryStats.current();
+                if (stats != null) {
+                    stats.recordRows(1);
+                }
+            }
+            return result;
+        });
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+
+    private static <T> T proxy(Class<T> type, T target, Handler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return handler.handle(target, method, args);
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(QueryStatsDataSource.class.getClassLoader(),
+            new Class<?>[]{type}, invocationHandler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.pdca.util;
+
+import com.example.pdca.config.QueryStatsProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 请求级 SQL 统计过滤器
+ * 为每个请求开启统计范围，响应提交前写入 Server-Timing 响应头（数据库耗时、语句数、读取行数、重复语句数），
+ * 并对只有参数不同却重复执行的语句记录告警日志。
+ * 只统计请求线程上的语句，异步任务和流式输出线程上的语句不计入
+ */
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryStatsFilter.class);
+
+    public static final String HEADER = "Server-Timing";
+
+    private final QueryStatsProperties properties;
+
+    public QueryStatsFilter(QueryStatsProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryStats stats = QueryStats.begin();
+        ServerTimingResponse wrapped = new ServerTimingResponse(response, stats);
+        try {
+            filterChain.doFilter(request, wrapped);
+        } finally {
+            stats.end();
+            if (!request.isAsyncStarted()) {
+                wrapped.writeHeader();
+            }
+            Map<String, Integer> repeated = stats.getRepeatedStatements(properties.getRepeatThreshold());
+            repeated.forEach((sql, count) ->
+                logger.warn("重复执行的 SQL 语句: {} {} 执行 {} 次: {}", request.getMethod(), request.getRequestURI(), count, sql));
+        }
+    }
+
+    /**
+     * 响应提交时写入 Server-Timing 响应头，提交后无法再添加响应头
+     */
+    private final class ServerTimingResponse extends OnCommittedResponseWrapper {
+
+        private final QueryStats stats;
+        private boolean written;
+
+        private ServerTimingResponse(HttpServletResponse response, QueryStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeHeader();
+        }
+
+        private void writeHeader() {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            if (written || response.isCommitted()) {
+                return;
+            }
+            written = true;
+            response.addHeader(HEADER, String.format(Locale.ROOT, "db;dur=%.3f;desc=\"statements=%d rows=%d repeated=%d\"",
+                stats.getExecutionNanos() / 1_000_000.0, stats.getStatements(), stats.getRows(),
+                stats.getRepeatedStatements(properties.getRepeatThreshold()).size()));
+        }
+    }
+}
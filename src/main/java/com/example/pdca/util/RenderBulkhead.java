@@ -0,0 +1,135 @@
+package com.example.pdca.util;
+
+import com.example.pdca.config.ReportRenderBulkheadProperties;
+import com.example.pdca.exception.RenderRejectedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 导出文档渲染隔离舱
+ * 限制同时进行的 PDF/Excel 渲染数，名额不足时最多让有限个请求短暂等待，其余立即拒绝，
+ * 避免导出高峰耗尽堆内存和 Tomcat 线程，影响普通接口
+ */
+@Component
+public class RenderBulkhead {
+
+    private static final long SLOT_MILLIS = 15_000;
+    private static final int SLOT_COUNT = 20;
+
+    /**
+     * 渲染名额，渲染结束后必须释放；重复释放无副作用
+     */
+    public interface Permit {
+        /** 无需渲染（如命中缓存）时使用的空名额 */
+        Permit NONE = () -> { };
+
+        void release();
+    }
+
+    @Autowired
+    private ReportRenderBulkheadProperties properties;
+
+    private Semaphore semaphore;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder acquiredCount = new LongAdder();
+    private final LongAdder rejectedQueueFullCount = new LongAdder();
+    private final LongAdder rejectedTimeoutCount = new LongAdder();
+    private final LatencyHistogram waitTimes = new LatencyHistogram(SLOT_MILLIS, SLOT_COUNT);
+
+    @PostConstruct
+    public void init() {
+        semaphore = new Semaphore(properties.getMaxConcurrent(), true);
+    }
+
+    /**
+     * 获取渲染名额
+     * 有空闲名额时立即返回；否则在等待数未满时最多等待 maxWait
+     * @return 渲染名额
+     * @throws RenderRejectedException 等待数已满（429）或等待超时（503）
+     */
+    public Permit acquire() {
+        if (semaphore.tryAcquire()) {
+            return granted(0);
+        }
+
+        if (waiting.incrementAndGet() > properties.getMaxWaiting()) {
+            waiting.decrementAndGet();
+            rejectedQueueFullCount.increment();
+            throw new RenderRejectedException("导出请求过多，请稍后重试", HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds());
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!semaphore.tryAcquire(properties.getMaxWait().toNanos(), TimeUnit.NANOSECONDS)) {
+                rejectedTimeoutCount.increment();
+                throw new RenderRejectedException("导出服务繁忙，请稍后重试", HttpStatus.SERVICE_UNAVAILABLE, retryAfterSeconds());
+            }
+            return granted(System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejectedTimeoutCount.increment();
+            throw new RenderRejectedException("导出服务繁忙，请稍后重试", HttpStatus.SERVICE_UNAVAILABLE, retryAfterSeconds());
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    public int getMaxConcurrent() {
+        return properties.getMaxConcurrent();
+    }
+
+    public int getMaxWaiting() {
+        return properties.getMaxWaiting();
+    }
+
+    public int getActive() {
+        return properties.getMaxConcurrent() - semaphore.availablePermits();
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    public long getAcquiredCount() {
+        return acquiredCount.sum();
+    }
+
+    public long getRejectedQueueFullCount() {
+        return rejectedQueueFullCount.sum();
+    }
+
+    public long getRejectedTimeoutCount() {
+        return rejectedTimeoutCount.sum();
+    }
+
+    /**
+     * 成功获取名额前的等待时间，不含被拒绝的请求
+     */
+    public LatencyHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    private Permit granted(long waitNanos) {
+        acquiredCount.increment();
+        waitTimes.record(waitNanos);
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                semaphore.release();
+            }
+        };
+    }
+
+    private long retryAfterSeconds() {
+        return Math.max(1, properties.getRetryAfter().getSeconds());
+    }
+}
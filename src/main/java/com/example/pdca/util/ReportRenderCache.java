@@ -0,0 +1,304 @@
+package com.example.pdca.util;
+
+import com.example.pdca.config.ReportRenderCacheProperties;
+import com.example.pdca.model.Report;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 导出文档渲染缓存
+ * 按（报告ID、版本号、格式）缓存渲染结果。渲染结果先写入磁盘层，再次被下载的小文档提升到内存层；
+ * 磁盘层文件通过 FileChannel.transferTo 输出，不经过堆内存。报告内容变化后版本号随之变化，旧条目不会再被命中
+ */
+@Component
+public class ReportRenderCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportRenderCache.class);
+
+    private static final String FILE_PREFIX = "report-";
+
+    /**
+     * 导出格式
+     */
+    public enum Format {
+        PDF("pdf"),
+        EXCEL("xlsx");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    /**
+     * 文档渲染器，把文档写入给定输出流
+     */
+    @FunctionalInterface
+    public interface Renderer {
+        void render(OutputStream outputStream) throws IOException;
+    }
+
+    @Autowired
+    private ReportRenderCacheProperties properties;
+
+    private Cache<String, byte[]> memoryTier;
+
+    // 磁盘层索引，按访问顺序排列，读写都在 this 锁内
+    private final LinkedHashMap<String, DiskEntry> diskTier = new LinkedHashMap<>(16, 0.75f, true);
+    private long diskBytes;
+
+    // 正在渲染的文档，同一文档的并发请求只渲染一次
+    private final Map<String, CompletableFuture<Path>> rendering = new ConcurrentHashMap<>();
+
+    private Path directory;
+
+    @PostConstruct
+    public void init() throws IOException {
+        memoryTier = Caffeine.newBuilder()
+            .maximumWeight(properties.getMemoryMaxBytes())
+            .weigher((String key, byte[] bytes) -> bytes.length)
+            .build();
+        directory = Paths.get(properties.getDiskDirectory());
+        Files.createDirectories(directory);
+
+        // 清理上次运行留下的文件，索引已不存在
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * 把报告文档写入输出流，命中缓存时不再渲染
+     * @param report 报告
+     * @param format 导出格式
+     * @param renderer 未命中时使用的渲染器
+     * @param outputStream 输出流，不会被关闭
+     * @throws IOException 渲染或写入失败
+     */
+    public void write(Report report, Format format, Renderer renderer, OutputStream outputStream) throws IOException {
+        if (!properties.isEnabled()) {
+            renderer.render(outputStream);
+            return;
+        }
+
+        String key = key(report.getId(), report.getVersion(), format);
+        byte[] bytes = memoryTier.getIfPresent(key);
+        if (bytes != null) {
+            outputStream.write(bytes);
+            return;
+        }
+
+        DiskEntry entry = getDiskEntry(key);
+        if (entry != null) {
+            // 第二次及以后的下载，小文档提升到内存层
+            if (entry.size <= properties.getMemoryMaxEntryBytes()) {
+                try {
+                    bytes = Files.readAllBytes(entry.file);
+                    memoryTier.put(key, bytes);
+                    outputStream.write(bytes);
+                    return;
+                } catch (NoSuchFileException e) {
+                    // 读取前被磁盘层淘汰，重新渲染
+                }
+            } else if (transfer(entry.file, outputStream)) {
+                return;
+            }
+        }
+
+        Path file = renderToDisk(key, renderer);
+        if (!transfer(file, outputStream)) {
+            // 刚渲染的文件在输出前就被淘汰，说明磁盘层容量不足以容纳该文档
+            throw new IOException("渲染缓存文件已被淘汰: " + file);
+        }
+    }
+
+    /**
+     * 判断报告文档是否已在缓存中，命中时导出不需要渲染
+     * 只是瞬时判断，随后的写入仍可能因淘汰而重新渲染
+     * @param report 报告
+     * @param format 导出格式
+     * @return 是否已缓存
+     */
+    public boolean isCached(Report report, Format format) {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        String key = key(report.getId(), report.getVersion(), format);
+        return memoryTier.getIfPresent(key) != null || getDiskEntry(key) != null;
+    }
+
+    /**
+     * 清除报告的所有缓存条目
+     * 在事务中调用时于提交后执行，避免提交前的并发下载把旧内容重新放入缓存
+     * @param reportId 报告ID
+     */
+    public void invalidate(Long reportId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doInvalidate(reportId);
+                }
+            });
+        } else {
+            doInvalidate(reportId);
+        }
+    }
+
+    private void doInvalidate(Long reportId) {
+        String prefix = FILE_PREFIX + reportId + "-v";
+        memoryTier.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        synchronized (this) {
+            Iterator<Map.Entry<String, DiskEntry>> iterator = diskTier.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, DiskEntry> entry = iterator.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    iterator.remove();
+                    diskBytes -= entry.getValue().size;
+                    deleteQuietly(entry.getValue().file);
+                }
+            }
+        }
+    }
+
+    private Path renderToDisk(String key, Renderer renderer) throws IOException {
+        CompletableFuture<Path> mine = new CompletableFuture<>();
+        CompletableFuture<Path> inFlight = rendering.putIfAbsent(key, mine);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(directory, key, ".tmp");
+            try (OutputStream fileOut = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                renderer.render(fileOut);
+            }
+            Path file = directory.resolve(key);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            putDiskEntry(key, new DiskEntry(file, Files.size(file)));
+            mine.complete(file);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            rendering.remove(key, mine);
+        }
+    }
+
+    private Path await(CompletableFuture<Path> inFlight) throws IOException {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 通过 FileChannel.transferTo 输出文件
+     * 文件打开后即使被淘汰删除也能读完；打开前已被删除时返回 false
+     */
+    private boolean transfer(Path file, OutputStream outputStream) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        try (FileChannel source = channel) {
+            WritableByteChannel target = Channels.newChannel(outputStream);
+            long size = source.size();
+            long position = 0;
+            while (position < size) {
+                position += source.transferTo(position, size - position, target);
+            }
+        }
+        return true;
+    }
+
+    private synchronized DiskEntry getDiskEntry(String key) {
+        return diskTier.get(key);
+    }
+
+    private synchronized void putDiskEntry(String key, DiskEntry entry) {
+        DiskEntry previous = diskTier.put(key, entry);
+        if (previous != null) {
+            diskBytes -= previous.size;
+        }
+        diskBytes += entry.size;
+
+        // 淘汰最久未访问的文件，至少保留刚写入的文件
+        Iterator<Map.Entry<String, DiskEntry>> iterator = diskTier.entrySet().iterator();
+        while (diskBytes > properties.getDiskMaxBytes() && diskTier.size() > 1 && iterator.hasNext()) {
+            Map.Entry<String, DiskEntry> eldest = iterator.next();
+            if (eldest.getKey().equals(key)) {
+                continue;
+            }
+            iterator.remove();
+            diskBytes -= eldest.getValue().size;
+            deleteQuietly(eldest.getValue().file);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("删除渲染缓存文件失败: {}", file, e);
+        }
+    }
+
+    private String key(Long reportId, Long version, Format format) {
+        return FILE_PREFIX + reportId + "-v" + (version != null ? version : 0) + "." + format.extension;
+    }
+
+    private static final class DiskEntry {
+        private final Path file;
+        private final long size;
+
+        private DiskEntry(Path file, long size) {
+            this.file = file;
+            this.size = size;
+        }
+    }
+}
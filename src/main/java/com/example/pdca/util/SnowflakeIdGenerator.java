@@ -0,0 +1,98 @@
+package com.example.pdca.util;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerationException;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+/**
+ * 按时间排序的主键生成器（Snowflake 变体）
+ * 主键在应用内生成，插入前无需访问数据库，Hibernate 可以把同一会话中的插入合并为 JDBC 批量执行；IDENTITY 主键做不到这一点。
+ * 布局为 41 位毫秒时间戳（自 2024-01-01 起）+ 5 位节点号 + 7 位序号，共 53 位，前端 JavaScript 可以精确表示。
+ * 同一节点上生成的主键单调递增，新行总是追加在索引末尾。同一毫秒序号用完时等待下一毫秒；
+ * 时钟回拨不超过 {@link #MAX_BACKWARD_MILLIS} 时等待时钟追上，超过时拒绝生成，主键中的时间戳不会超前于实际时间。
+ * <p>
+ * 上一次的时间戳只保存在内存中：节点号必须在所有同时运行的实例之间唯一（默认值 0 只适用于单实例部署），
+ * 且重启前后时钟不能回退到上次运行签发的时间之前，否则可能生成重复主键
+ */
+public class SnowflakeIdGenerator implements IdentifierGenerator {
+
+    /** 节点号配置项，多节点部署时每个节点必须不同 */
+    public static final String NODE_ID_SETTING = "pdca.id.node_id";
+
+    static final int NODE_BITS = 5;
+    static final int SEQUENCE_BITS = 7;
+
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    // 2024-01-01T00:00:00Z
+    private static final long EPOCH_MILLIS = 1704067200000L;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    /** 允许等待的时钟回拨幅度（毫秒），超过时直接失败 */
+    static final long MAX_BACKWARD_MILLIS = 10;
+
+    private long nodeBits;
+    private long lastTimestamp = -1;
+    private long sequence;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) {
+        int nodeId = ConfigurationHelper.getInt(NODE_ID_SETTING,
+            serviceRegistry.getService(ConfigurationService.class).getSettings(), 0);
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new MappingException("主键生成器节点号超出范围 [0, " + MAX_NODE_ID + "]: " + nodeId);
+        }
+        nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        return nextId();
+    }
+
+    synchronized long nextId() {
+        long timestamp = currentTimestamp();
+        if (timestamp < lastTimestamp) {
+            long backward = lastTimestamp - timestamp;
+            if (backward > MAX_BACKWARD_MILLIS) {
+                throw new IdentifierGenerationException("系统时钟回拨 " + backward + "ms，拒绝生成主键");
+            }
+            timestamp = waitAfter(lastTimestamp - 1);
+        }
+        if (timestamp > lastTimestamp) {
+            lastTimestamp = timestamp;
+            sequence = 0;
+        } else {
+            // 同一毫秒内递增序号，用完后等待下一毫秒
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                lastTimestamp = waitAfter(lastTimestamp);
+            }
+        }
+        return (lastTimestamp << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | sequence;
+    }
+
+    /**
+     * 忙等直到时钟越过给定的时间戳，调用方保证等待不超过 MAX_BACKWARD_MILLIS + 1 毫秒
+     */
+    private static long waitAfter(long timestamp) {
+        long current = currentTimestamp();
+        while (current <= timestamp) {
+            Thread.yield();
+            current = currentTimestamp();
+        }
+        return current;
+    }
+
+    private static long currentTimestamp() {
+        return System.currentTimeMillis() - EPOCH_MILLIS;
+    }
+}
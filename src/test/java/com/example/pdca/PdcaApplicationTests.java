@@ -1,13 +1,781 @@
 package com.example.pdca;
 
+import com.example.pdca.config.CacheConfig;
+import com.example.pdca.dto.PlanDTO;
+import com.example.pdca.dto.TaskDTO;
+import com.example.pdca.dto.UserDTO;
+import com.example.pdca.model.Act;
+import com.example.pdca.model.ActRecord;
+import com.example.pdca.model.ActionLog;
+import com.example.pdca.model.Check;
+import com.example.pdca.model.CheckResult;
+import com.example.pdca.model.DoPhase;
+import com.example.pdca.model.DoRecord;
+import com.example.pdca.model.Plan;
+import com.example.pdca.model.Report;
+import com.example.pdca.model.Task;
+import com.example.pdca.model.User;
+import com.example.pdca.repository.ActRecordRepository;
+import com.example.pdca.repository.ActRepository;
+import com.example.pdca.repository.ActionLogRepository;
+import com.example.pdca.repository.CheckRepository;
+import com.example.pdca.repository.CheckResultRepository;
+import com.example.pdca.repository.DoRecordRepository;
+import com.example.pdca.repository.DoRepository;
+import com.example.pdca.repository.PlanRepository;
+import com.example.pdca.repository.ReportRepository;
+import com.example.pdca.repository.TaskRepository;
+import com.example.pdca.repository.UserRepository;
+import com.example.pdca.security.AccountVersionRegistry;
+import com.example.pdca.service.PlanService;
+import com.example.pdca.service.ReportService;
+import com.example.pdca.service.TaskService;
+import com.example.pdca.service.UserService;
+import com.example.pdca.util.ActionLogWriter;
+import com.example.pdca.util.JwtTokenUtil;
+import com.example.pdca.util.QueryStats;
+import com.example.pdca.util.QueryStatsFilter;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodParameter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
-@SpringBootTest
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.example.pdca.util.QueryAssertions.assertQueryCount;
+import static com.example.pdca.util.QueryAssertions.startCounting;
+import static com.example.pdca.util.QueryAssertions.stopCounting;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+// 关闭定时预生成，避免后台线程的 SQL 计入语句数统计
+@SpringBootTest(properties = "report.pregeneration.enabled=false")
+// 测试依赖 H2 内存库，不依赖命令行指定 profile
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
 class PdcaApplicationTests {
 
+    /** 每个 GET 接口允许执行的 SQL 语句数上限，与返回的数据条数无关 */
+    private static final long GET_STATEMENT_BUDGET = 8;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+
+    @Autowired
+    private AccountVersionRegistry accountVersionRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlanRepository planRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private DoRepository doRepository;
+
+    @Autowired
+    private DoRecordRepository doRecordRepository;
+
+    @Autowired
+    private CheckRepository checkRepository;
+
+    @Autowired
+    private CheckResultRepository checkResultRepository;
+
+    @Autowired
+    private ActRepository actRepository;
+
+    @Autowired
+    private ActRecordRepository actRecordRepository;
+
+    @Autowired
+    private ActionLogRepository actionLogRepository;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private PlanService planService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ActionLogWriter actionLogWriter;
+
     @Test
     void contextLoads() {
     }
 
+    /**
+     * 调用所有带分页参数的自定义仓库方法
+     * 已开启 fail_on_pagination_over_collection_fetch，任何在内存中分页（HHH000104）的查询都会抛出异常
+     */
+    @Test
+    void repositoryPaginationHappensInDatabase() throws Exception {
+        Repositories repositories = new Repositories(applicationContext);
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+            Object repository = repositories.getRepositoryFor(domainType).orElseThrow(IllegalStateException::new);
+            for (Method method : information.getRepositoryInterface().getDeclaredMethods()) {
+                if (!hasPageableParameter(method)) {
+                    continue;
+                }
+                try {
+                    method.invoke(repository, sampleArguments(method));
+                } catch (InvocationTargetException e) {
+                    fail(information.getRepositoryInterface().getSimpleName() + "." + method.getName()
+                        + " 分页失败: " + e.getCause().getMessage(), e.getCause());
+                }
+            }
+        }
+    }
+
+    private boolean hasPageableParameter(Method method) {
+        for (Class<?> type : method.getParameterTypes()) {
+            if (Pageable.class.isAssignableFrom(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Object[] sampleArguments(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        Object[] arguments = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            Class<?> type = types[i];
+            if (Pageable.class.isAssignableFrom(type)) {
+                arguments[i] = PageRequest.of(0, 10);
+            } else if (type.isEnum()) {
+                arguments[i] = type.getEnumConstants()[0];
+            } else if (type == Long.class) {
+                arguments[i] = 1L;
+            } else if (type == Integer.class) {
+                arguments[i] = 1;
+            } else if (type == String.class) {
+                arguments[i] = "";
+            } else if (type == LocalDateTime.class) {
+                arguments[i] = LocalDateTime.now();
+            }
+            // 实体参数传 null，只验证查询能否在数据库中分页
+        }
+        return arguments;
+    }
+
+    /**
+     * 以管理员身份调用 /api 下的所有 GET 接口，每个接口执行的 SQL 语句数不能超过固定上限
+     * 每个计划、阶段都准备了多条关联数据，逐条懒加载（N+1）会直接超出上限；序列化阶段的懒加载异常表现为 5xx
+     */
+    @Test
+    void getEndpointsStayWithinStatementBudget() throws Exception {
+        User admin = userRepository.findByUsername("admin").orElseThrow(IllegalStateException::new);
+        Map<String, String> pathValues = seedPdcaCycles(admin, 3);
+        String token = jwtTokenUtil.generateToken(admin, accountVersionRegistry.currentVersion(admin.getId()));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<String> violations = new ArrayList<>();
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : handlerMapping.getHandlerMethods().entrySet()) {
+            RequestMappingInfo mapping = entry.getKey();
+            if (!mapping.getMethodsCondition().getMethods().contains(RequestMethod.GET)) {
+                continue;
+            }
+            for (String pattern : mapping.getPatternValues()) {
+                if (!pattern.startsWith("/api/")) {
+                    continue;
+                }
+                String uri = expand(pattern, entry.getValue(), pathValues);
+
+                // 清空二级缓存和应用缓存，按冷启动统计，缓存命中不能掩盖 N+1
+                entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+                cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+                long before = statistics.getPrepareStatementCount();
+                MvcResult result = mockMvc.perform(get(uri).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andReturn();
+                if (result.getRequest().isAsyncStarted()) {
+                    result = mockMvc.perform(asyncDispatch(result)).andReturn();
+                }
+                long statements = statistics.getPrepareStatementCount() - before;
+
+                int status = result.getResponse().getStatus();
+                if (status >= 500) {
+                    violations.add(uri + " 返回 " + status);
+                }
+                if (statements > GET_STATEMENT_BUDGET) {
+                    violations.add(uri + " 执行了 " + statements + " 条 SQL，上限 " + GET_STATEMENT_BUDGET);
+                }
+            }
+        }
+        assertTrue(violations.isEmpty(), String.join("\n", violations));
+    }
+
+    /**
+     * 请求级 SQL 统计：语句数与 assertQueryCount 一致，请求的 Server-Timing 响应头与外层统计一致，
+     * 只有参数不同的重复语句被识别出来
+     */
+    @Test
+    void queryStatsCountStatementsPerRequest() throws Exception {
+        User admin = userRepository.findByUsername("admin").orElseThrow(IllegalStateException::new);
+        String token = jwtTokenUtil.generateToken(admin, accountVersionRegistry.currentVersion(admin.getId()));
+        List<Long> userIds = new ArrayList<>();
+        userIds.add(admin.getId());
+        for (int i = 0; i < 2; i++) {
+            User user = new User();
+            user.setUsername("query-stats-" + i);
+            user.setPassword("password");
+            user.setEmail("query-stats-" + i + "@test.com");
+            user.setRole(User.UserRole.USER);
+            userIds.add(userRepository.save(user).getId());
+        }
+
+        try {
+            startCounting();
+            userRepository.count();
+            assertQueryCount(1);
+
+            MvcResult result = mockMvc.perform(get("/api/plans").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andReturn();
+            String serverTiming = result.getResponse().getHeader(QueryStatsFilter.HEADER);
+            assertNotNull(serverTiming, "缺少 Server-Timing 响应头");
+            Matcher matcher = Pattern.compile("statements=(\\d+)").matcher(serverTiming);
+            assertTrue(matcher.find(), serverTiming);
+            assertQueryCount(Long.parseLong(matcher.group(1)));
+
+            // 逐个按 ID 加载即典型的 N+1，只有参数不同，应被识别为同一条语句
+            entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+            QueryStats stats = startCounting();
+            for (Long id : userIds) {
+                userRepository.findById(id);
+            }
+            assertEquals(1, stats.getRepeatedStatements(userIds.size()).size(), stats.getRepeatedStatements(1).toString());
+            assertTrue(stats.getRows() >= userIds.size(), "读取行数 " + stats.getRows());
+            assertQueryCount(userIds.size());
+        } finally {
+            stopCounting();
+        }
+    }
+
+    /**
+     * 每个请求最多查询一次用户表：过滤器校验账号版本和 @CurrentUser 解析共用同一行；
+     * @CurrentUser(reference = true) 只取 ID，不查询用户表
+     */
+    @Test
+    void currentUserIsLoadedAtMostOncePerRequest() throws Exception {
+        User admin = userRepository.findByUsername("admin").orElseThrow(IllegalStateException::new);
+        String token = jwtTokenUtil.generateToken(admin, accountVersionRegistry.currentVersion(admin.getId()));
+
+        try {
+            // 冷缓存：过滤器加载用户后，解析器不再重复查询
+            entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+            QueryStats stats = startCounting();
+            assertEquals(200, mockMvc.perform(get("/api/users/current").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andReturn().getResponse().getStatus());
+            assertTrue(userSelects(stats) <= 1, stats.getRepeatedStatements(1).toString());
+
+            // 过滤器的账号版本校验命中二级缓存，只需要 ID 的接口不再查询用户表
+            stats = startCounting();
+            assertEquals(200, mockMvc.perform(get("/api/plans/my-plans").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andReturn().getResponse().getStatus());
+            assertEquals(0, userSelects(stats), stats.getRepeatedStatements(1).toString());
+        } finally {
+            stopCounting();
+        }
+    }
+
+    /**
+     * 统计以用户表为主表的查询次数，关联查询中连接的用户表不计入
+     */
+    private static long userSelects(QueryStats stats) {
+        return stats.getRepeatedStatements(1).entrySet().stream()
+            .filter(entry -> entry.getKey().startsWith("select") && entry.getKey().contains(" from sys_user "))
+            .mapToLong(Map.Entry::getValue)
+            .sum();
+    }
+
+    /**
+     * 角色或启用状态变化后，之前签发的令牌失效；账号版本持久化在用户表中，清空缓存（相当于重启）后仍然失效
+     */
+    @Test
+    void accountChangesRevokeIssuedTokens() throws Exception {
+        User user = new User();
+        user.setUsername("revoked-user");
+        user.setPassword("password");
+        user.setEmail("revoked-user@test.com");
+        user.setRole(User.UserRole.MANAGER);
+        user = userRepository.save(user);
+        String token = jwtTokenUtil.generateToken(user, AccountVersionRegistry.versionOf(user));
+        assertEquals(200, getStatus("/api/plans/my-plans", token));
+
+        UserDTO userDTO = new UserDTO();
+        userDTO.setId(user.getId());
+        userDTO.setEmail(user.getEmail());
+        userDTO.setRole(User.UserRole.USER);
+        userService.updateUser(userDTO);
+        assertTrue(getStatus("/api/plans/my-plans", token) >= 400, "降级前签发的令牌仍然有效");
+
+        entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+        assertTrue(getStatus("/api/plans/my-plans", token) >= 400, "清空缓存后旧令牌重新生效");
+
+        String current = jwtTokenUtil.generateToken(userRepository.findById(user.getId()).orElseThrow(IllegalStateException::new),
+            accountVersionRegistry.currentVersion(user.getId()));
+        assertEquals(200, getStatus("/api/plans/my-plans", current));
+
+        userDTO.setEnabled(false);
+        userService.updateUser(userDTO);
+        assertTrue(getStatus("/api/plans/my-plans", current) >= 400, "停用账号的令牌仍然有效");
+    }
+
+    private int getStatus(String uri, String token) throws Exception {
+        return mockMvc.perform(get(uri).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+            .andReturn().getResponse().getStatus();
+    }
+
+    /**
+     * 条件请求：GET 返回的 ETag 能命中 304，带过期 ETag 的写操作在事务内被拒绝并返回 412，
+     * 任务修改后计划的 ETag 随之失效；只改状态不重建计划的任务
+     */
+    @Test
+    void conditionalWritesCompareTheTagInsideTheTransaction() throws Exception {
+        User admin = userRepository.findByUsername("admin").orElseThrow(IllegalStateException::new);
+        Task task = seedTask(admin);
+        Long planId = task.getPlan().getId();
+        String token = jwtTokenUtil.generateToken(admin, accountVersionRegistry.currentVersion(admin.getId()));
+
+        String planTag = mockMvc.perform(get("/api/plans/" + planId).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(planTag);
+        assertEquals(304, mockMvc.perform(get("/api/plans/" + planId)
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+            .header(HttpHeaders.IF_NONE_MATCH, planTag)).andReturn().getResponse().getStatus());
+
+        String taskTag = mockMvc.perform(get("/api/tasks/" + task.getId()).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(taskTag);
+        MvcResult updated = mockMvc.perform(patch("/api/tasks/" + task.getId() + "/status")
+            .param("status", Task.TaskStatus.IN_PROGRESS.name())
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+            .header(HttpHeaders.IF_MATCH, taskTag)).andReturn();
+        assertEquals(200, updated.getResponse().getStatus());
+        assertTrue(!taskTag.equals(updated.getResponse().getHeader(HttpHeaders.ETAG)), "任务修改后 ETag 未变化");
+        assertEquals(412, mockMvc.perform(patch("/api/tasks/" + task.getId() + "/status")
+            .param("status", Task.TaskStatus.COMPLETED.name())
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+            .header(HttpHeaders.IF_MATCH, taskTag)).andReturn().getResponse().getStatus());
+
+        // 任务修改不改变计划版本号，但计划的 ETag 必须失效
+        assertEquals(412, mockMvc.perform(patch("/api/plans/" + planId + "/status")
+            .param("status", Plan.PlanStatus.COMPLETED.name())
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+            .header(HttpHeaders.IF_MATCH, planTag)).andReturn().getResponse().getStatus());
+
+        planTag = mockMvc.perform(get("/api/plans/" + planId).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals(200, mockMvc.perform(patch("/api/plans/" + planId + "/status")
+            .param("status", Plan.PlanStatus.COMPLETED.name())
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+            .header(HttpHeaders.IF_MATCH, planTag)).andReturn().getResponse().getStatus());
+        assertEquals(Plan.PlanStatus.COMPLETED, planRepository.findById(planId).orElseThrow(IllegalStateException::new).getStatus());
+        assertTrue(taskRepository.findById(task.getId()).isPresent(), "更新计划状态时重建了任务");
+    }
+
+    /**
+     * 生成报告读取的行数与任务数量无关：任务只参与得分聚合，评价明细只取前 section-record-limit 条
+     */
+    @Test
+    void reportGenerationReadsBoundedRows() {
+        User admin = userRepository.findByUsername("admin").orElseThrow(IllegalStateException::new);
+        Task first = seedTask(admin);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Task task = new Task();
+            task.setName("评分任务-" + i);
+            task.setStartTime(first.getStartTime());
+            task.setEndTime(first.getEndTime());
+            task.setPlan(first.getPlan());
+            tasks.add(task);
+        }
+        tasks.add(first);
+        tasks.forEach(task -> task.setScore(80));
+        taskRepository.saveAll(tasks);
+
+        entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+        QueryStats stats = startCounting();
+        try {
+            Report report = reportService.generatePDCAReport(first.getPlan().getId(), admin);
+            assertTrue(report.getPlanningAnalysis().contains("另有 151 个任务未列出"), report.getPlanningAnalysis());
+            assertTrue(stats.getRows() < tasks.size(), "读取行数 " + stats.getRows());
+        } finally {
+            stopCounting();
+        }
+    }
+
+    /**
+     * 更新报告响应的 ETag 描述本次写入后的报告，可用于下一次条件更新；旧 ETag 被拒绝
+     */
+    @Test
+    void reportUpdateReturnsTheTagOfTheWrittenReport() throws Exception {
+        User admin = userRepository.findByUsername("admin").orElseThrow(IllegalStateException::new);
+        Task task = seedTask(admin);
+        task.setScore(90);
+        taskRepository.save(task);
+        Long planId = task.getPlan().getId();
+        Report report = reportService.generatePDCAReport(planId, admin);
+        String token = jwtTokenUtil.generateToken(admin, accountVersionRegistry.currentVersion(admin.getId()));
+
+        String tag = mockMvc.perform(get("/api/reports/plan/" + planId).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(tag);
+        String body = "{\"id\":" + report.getId() + ",\"title\":\"更新后的报告\"}";
+        MvcResult updated = mockMvc.perform(put("/api/reports/" + report.getId())
+            .contentType(MediaType.APPLICATION_JSON).content(body)
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+            .header(HttpHeaders.IF_MATCH, tag)).andReturn();
+        assertEquals(200, updated.getResponse().getStatus());
+        String newTag = updated.getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals(mockMvc.perform(get("/api/reports/plan/" + planId).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG), newTag);
+
+        assertEquals(412, mockMvc.perform(put("/api/reports/" + report.getId())
+            .contentType(MediaType.APPLICATION_JSON).content(body)
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+            .header(HttpHeaders.IF_MATCH, tag)).andReturn().getResponse().getStatus());
+        assertEquals(200, mockMvc.perform(put("/api/reports/" + report.getId())
+            .contentType(MediaType.APPLICATION_JSON).content(body)
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+            .header(HttpHeaders.IF_MATCH, newTag)).andReturn().getResponse().getStatus());
+    }
+
+    /**
+     * 同一计划并发生成 PDCA 循环报告时，计划行锁使生成串行执行，只会生成一份
+     */
+    @Test
+    void concurrentReportGenerationCreatesOneReportPerPlan() throws Exception {
+        User admin = userRepository.findByUsername("admin").orElseThrow(IllegalStateException::new);
+        Task task = seedTask(admin);
+        task.setScore(80);
+        task.setEvaluateTime(LocalDateTime.now());
+        taskRepository.save(task);
+        Long planId = task.getPlan().getId();
+
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        reportService.generatePDCAReport(planId, admin);
+                        return true;
+                    } catch (RuntimeException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int generated = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(30, TimeUnit.SECONDS)) {
+                    generated++;
+                }
+            }
+            assertEquals(1, generated);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, reportRepository.findByPlanAndType(planId, Report.ReportType.PDCA_CYCLE).size());
+    }
+
+    /**
+     * 业务操作日志在事务提交后由写入器异步写入，不占用业务事务
+     */
+    @Test
+    void actionLogsAreWrittenBehindTheBusinessTransaction() {
+        User admin = userRepository.findByUsername("admin").orElseThrow(IllegalStateException::new);
+        Task task = seedTask(admin);
+        long logsBefore = actionLogRepository.count();
+
+        QueryStats stats = startCounting();
+        try {
+            taskService.updateTaskStatus(task.getId(), Task.TaskStatus.IN_PROGRESS, null);
+        } finally {
+            stopCounting();
+        }
+        assertTrue(stats.getRepeatedStatements(1).keySet().stream().noneMatch(sql -> sql.startsWith("insert into pdca_action_log")),
+            stats.getRepeatedStatements(1).toString());
+
+        assertTrue(actionLogWriter.flush(5000), "操作日志未在限定时间内写入");
+        assertEquals(logsBefore + 1, actionLogRepository.count());
+    }
+
+    /**
+     * 任务使用应用内生成的主键，创建计划时的多个任务插入合并为一条批量执行的语句
+     */
+    @Test
+    void createPlanBatchesTaskInserts() {
+        User admin = userRepository.findByUsername("admin").orElseThrow(IllegalStateException::new);
+        LocalDateTime now = LocalDateTime.now();
+        PlanDTO planDTO = new PlanDTO();
+        planDTO.setTitle("批量插入计划");
+        planDTO.setDescription("批量插入计划");
+        planDTO.setPriority(Plan.PriorityLevel.LOW);
+        planDTO.setStartTime(now);
+        planDTO.setEndTime(now.plusDays(30));
+        List<TaskDTO> tasks = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            TaskDTO taskDTO = new TaskDTO();
+            taskDTO.setName("批量插入任务 " + i);
+            taskDTO.setStartTime(now);
+            taskDTO.setEndTime(now.plusDays(7));
+            tasks.add(taskDTO);
+        }
+        planDTO.setTasks(tasks);
+
+        QueryStats stats = startCounting();
+        Plan plan;
+        try {
+            plan = planService.createPlan(planDTO, admin);
+        } finally {
+            stopCounting();
+        }
+
+        long taskInserts = stats.getRepeatedStatements(1).entrySet().stream()
+            .filter(entry -> entry.getKey().startsWith("insert into pdca_task"))
+            .mapToLong(Map.Entry::getValue)
+            .sum();
+        assertEquals(1, taskInserts, stats.getRepeatedStatements(1).toString());
+        assertEquals(20, taskRepository.findUnevaluatedByPlanId(plan.getId()).size());
+
+        // 同一节点生成的主键单调递增
+        List<Long> ids = new ArrayList<>();
+        plan.getTasks().forEach(task -> ids.add(task.getId()));
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i) > ids.get(i - 1), ids.toString());
+        }
+    }
+
+    private Task seedTask(User creator) {
+        LocalDateTime now = LocalDateTime.now();
+        Plan plan = new Plan();
+        plan.setTitle("异步日志计划");
+        plan.setDescription("异步日志计划");
+        plan.setPriority(Plan.PriorityLevel.LOW);
+        plan.setStatus(Plan.PlanStatus.IN_PROGRESS);
+        plan.setStartTime(now);
+        plan.setEndTime(now.plusDays(30));
+        plan.setCreator(creator);
+        plan = planRepository.save(plan);
+
+        Task task = new Task();
+        task.setName("异步日志任务");
+        task.setStartTime(now);
+        task.setEndTime(now.plusDays(7));
+        task.setPlan(plan);
+        return taskRepository.save(task);
+    }
+
+    /**
+     * 准备若干个完整的 PDCA 循环，每个对象关联多个用户、任务和记录
+     * @return 路径变量名到取值的映射
+     */
+    private Map<String, String> seedPdcaCycles(User admin, int count) {
+        List<User> members = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            User member = new User();
+            member.setUsername("budget-member-" + i);
+            member.setPassword("password");
+            member.setEmail("budget-member-" + i + "@test.com");
+            member.setRole(User.UserRole.USER);
+            members.add(userRepository.save(member));
+        }
+
+        Map<String, String> pathValues = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < count; i++) {
+            Plan plan = new Plan();
+            plan.setTitle("语句预算计划 " + i);
+            plan.setDescription("语句预算计划");
+            plan.setPriority(Plan.PriorityLevel.LOW);
+            plan.setStatus(Plan.PlanStatus.IN_PROGRESS);
+            plan.setStartTime(now);
+            plan.setEndTime(now.plusDays(30));
+            plan.setCreator(admin);
+            plan = planRepository.save(plan);
+
+            Task task = null;
+            for (User assignee : members) {
+                task = new Task();
+                task.setName("语句预算任务");
+                task.setStartTime(now);
+                task.setEndTime(now.plusDays(7));
+                task.setPlan(plan);
+                task.setAssignee(assignee);
+                task = taskRepository.save(task);
+
+                ActionLog log = new ActionLog();
+                log.setLogType(ActionLog.LogType.PROGRESS);
+                log.setContent("任务进展");
+                log.setPlan(plan);
+                log.setTask(task);
+                log.setCreator(assignee);
+                actionLogRepository.save(log);
+            }
+
+            DoPhase doPhase = new DoPhase();
+            doPhase.setTitle("执行");
+            doPhase.setDescription("执行");
+            doPhase.setStartTime(now);
+            doPhase.setPlan(plan);
+            doPhase.setExecutor(admin);
+            doPhase = doRepository.save(doPhase);
+
+            Check check = new Check();
+            check.setTitle("检查");
+            check.setDescription("检查");
+            check.setStartTime(now);
+            check.setDoPhase(doPhase);
+            check.setChecker(admin);
+            check = checkRepository.save(check);
+
+            Act act = new Act();
+            act.setTitle("处理");
+            act.setDescription("处理");
+            act.setStartTime(now);
+            act.setCheckPhase(check);
+            act.setExecutor(admin);
+            act = actRepository.save(act);
+
+            for (User recorder : members) {
+                DoRecord doRecord = new DoRecord();
+                doRecord.setContent("执行记录");
+                doRecord.setType(DoRecord.RecordType.PROGRESS);
+                doRecord.setDoPhase(doPhase);
+                doRecord.setRecorder(recorder);
+                doRecordRepository.save(doRecord);
+
+                CheckResult checkResult = new CheckResult();
+                checkResult.setContent("检查结果");
+                checkResult.setType(CheckResult.ResultType.values()[0]);
+                checkResult.setCheckPhase(check);
+                checkResult.setRecorder(recorder);
+                checkResultRepository.save(checkResult);
+
+                ActRecord actRecord = new ActRecord();
+                actRecord.setContent("处理记录");
+                actRecord.setType(ActRecord.RecordType.values()[0]);
+                actRecord.setActPhase(act);
+                actRecord.setRecorder(recorder);
+                actRecordRepository.save(actRecord);
+            }
+
+            Report report = new Report();
+            report.setTitle("语句预算报告");
+            report.setSummary("摘要");
+            report.setPlan(plan);
+            report.setCreator(admin);
+            report = reportRepository.save(report);
+
+            pathValues.put("planId", plan.getId().toString());
+            pathValues.put("taskId", task.getId().toString());
+            pathValues.put("doPhaseId", doPhase.getId().toString());
+            pathValues.put("checkPhaseId", check.getId().toString());
+            pathValues.put("actPhaseId", act.getId().toString());
+            pathValues.put("reportId", report.getId().toString());
+        }
+        // 计划和各阶段都处于进行中
+        pathValues.put("status", "IN_PROGRESS");
+        pathValues.put("jobId", "unknown");
+        pathValues.put("cacheName", CacheConfig.CACHE_NAMES[0]);
+        return pathValues;
+    }
+
+    /**
+     * 用准备的数据填充路径变量
+     */
+    private String expand(String pattern, HandlerMethod handlerMethod, Map<String, String> pathValues) {
+        String uri = pattern;
+        for (MethodParameter parameter : handlerMethod.getMethodParameters()) {
+            PathVariable pathVariable = parameter.getParameterAnnotation(PathVariable.class);
+            if (pathVariable == null) {
+                continue;
+            }
+            parameter.initParameterNameDiscovery(new DefaultParameterNameDiscoverer());
+            String name = !pathVariable.value().isEmpty() ? pathVariable.value() : parameter.getParameterName();
+            String value = pathValues.get(name);
+            if (value == null) {
+                fail(pattern + " 的路径变量 " + name + " 没有测试数据");
+            }
+            uri = uri.replace("{" + name + "}", value);
+        }
+        return uri;
+    }
 }
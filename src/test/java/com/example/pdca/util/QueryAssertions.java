@@ -0,0 +1,50 @@
+package com.example.pdca.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * SQL 语句数断言
+ * startCounting 在当前线程上开启统计范围，assertQueryCount 断言此后执行的语句数；
+ * 范围内的请求由过滤器再开一层，请求中的语句同时计入这里
+ */
+public final class QueryAssertions {
+
+    private static final ThreadLocal<QueryStats> COUNTING = new ThreadLocal<>();
+
+    private QueryAssertions() {
+    }
+
+    /**
+     * 开始统计，已在统计时重新开始
+     * @return 统计范围
+     */
+    public static QueryStats startCounting() {
+        stopCounting();
+        QueryStats stats = QueryStats.begin();
+        COUNTING.set(stats);
+        return stats;
+    }
+
+    /**
+     * 断言开始统计后执行的语句数，并重新开始统计
+     * @param expected 期望的语句数
+     */
+    public static void assertQueryCount(long expected) {
+        QueryStats stats = COUNTING.get();
+        assertNotNull(stats, "未调用 startCounting");
+        assertEquals(expected, stats.getStatements(), "SQL 语句数");
+        startCounting();
+    }
+
+    /**
+     * 结束统计
+     */
+    public static void stopCounting() {
+        QueryStats stats = COUNTING.get();
+        if (stats != null) {
+            stats.end();
+            COUNTING.remove();
+        }
+    }
+}